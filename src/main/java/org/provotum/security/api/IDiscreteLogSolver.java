@@ -0,0 +1,35 @@
+package org.provotum.security.api;
+
+import org.provotum.security.arithmetic.ModInteger;
+
+/**
+ * Solves the discrete logarithm of a group element with respect to a generator,
+ * given that the exponent is known to lie within a bounded interval.
+ */
+public interface IDiscreteLogSolver {
+
+    /**
+     * Find the exponent m within [lowerBound, upperBound] such that:
+     * <pre>generator^m = target mod p</pre>
+     *
+     * @param generator  The generator g, relative to the prime modulus p.
+     * @param target     The group element g^m, relative to the same prime modulus p.
+     * @param lowerBound The smallest value the exponent may take on (inclusive).
+     * @param upperBound The largest value the exponent may take on (inclusive).
+     * @return The exponent m, or null if no exponent within the given interval matches the target.
+     * @throws IllegalArgumentException If the interval is empty or the generator has no modulus.
+     */
+    ModInteger solve(ModInteger generator, ModInteger target, long lowerBound, long upperBound) throws IllegalArgumentException;
+
+    /**
+     * Prepare to solve many discrete logarithms within the given interval, e.g. by building precomputed tables
+     * before they are used concurrently. Solvers without precomputation do not need to override this method.
+     *
+     * @param generator  The generator g, relative to the prime modulus p.
+     * @param lowerBound The smallest value the exponents may take on (inclusive).
+     * @param upperBound The largest value the exponents may take on (inclusive).
+     * @throws IllegalArgumentException If the interval is empty or the generator has no modulus.
+     */
+    default void prepare(ModInteger generator, long lowerBound, long upperBound) throws IllegalArgumentException {
+    }
+}
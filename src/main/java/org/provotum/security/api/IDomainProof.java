@@ -0,0 +1,24 @@
+package org.provotum.security.api;
+
+import org.provotum.security.arithmetic.ModInteger;
+
+import java.util.List;
+
+/**
+ * A proof that the plaintext of a ciphertext is one of a list of values, independent of the group the ciphertext lives in.
+ *
+ * @param <C> The type of the ciphertext.
+ * @param <K> The type of the public key.
+ */
+public interface IDomainProof<C extends IHomomorphicCipherText<C>, K> {
+
+    /**
+     * Verify that the given ciphertext is with the specified list of domain values.
+     *
+     * @param publicKey  The public key used during encryption.
+     * @param cipherText The ciphertext to verify its range.
+     * @param domain     A list of plaintext values the encrypted plaintext may have.
+     * @return True, if the encrypted ciphertext represents a value within the given domain, false otherwise.
+     */
+    boolean verify(K publicKey, C cipherText, List<ModInteger> domain);
+}
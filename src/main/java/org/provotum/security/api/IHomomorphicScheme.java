@@ -0,0 +1,113 @@
+package org.provotum.security.api;
+
+import org.provotum.security.arithmetic.ModInteger;
+
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Encrypt and decrypt a plaintext value in a homomorphic fashion, independent of the group the scheme works in.
+ *
+ * @param <C> The type of the ciphertext to encrypt a plaintext value to.
+ * @param <K> The type of the public key.
+ * @param <S> The type of the private key.
+ */
+public interface IHomomorphicScheme<C extends IHomomorphicCipherText<C>, K, S> {
+
+    /**
+     * Encrypt the given message with the given public key.
+     *
+     * @param publicKey The public key to use for encryption.
+     * @param message   The message to encrypt.
+     * @return The encrypted cipher text.
+     */
+    C encrypt(K publicKey, ModInteger message);
+
+    /**
+     * Encrypt all given messages with the given public key.
+     *
+     * @param publicKey The public key to use for encryption.
+     * @param messages  The messages to encrypt.
+     * @return The encrypted cipher texts, in the order of the given messages.
+     */
+    List<C> encryptAll(K publicKey, List<ModInteger> messages);
+
+    /**
+     * Encrypt all messages of the given iterator with the given public key.
+     * Messages are read and encrypted ahead of the returned iterator, but not necessarily all at once.
+     *
+     * @param publicKey The public key to use for encryption.
+     * @param messages  The messages to encrypt.
+     * @return The encrypted cipher texts, in the order of the given messages.
+     */
+    Iterator<C> encryptAll(K publicKey, Iterator<ModInteger> messages);
+
+    /**
+     * Decrypt the given cipher text with the given private key.
+     *
+     * @param privateKey The private key used for decryption.
+     * @param cipherText The cipher text to decrypt.
+     * @return The decrypted value.
+     */
+    ModInteger decrypt(S privateKey, C cipherText);
+
+    /**
+     * Decrypt the given cipher text with the given private key,
+     * given that its plaintext is known to lie within [0, upperBound].
+     *
+     * @param privateKey The private key used for decryption.
+     * @param cipherText The cipher text to decrypt.
+     * @param upperBound The largest value the plaintext may take on (inclusive).
+     * @return The decrypted value.
+     * @throws IllegalArgumentException If the plaintext is not within [0, upperBound].
+     */
+    ModInteger decrypt(S privateKey, C cipherText, long upperBound) throws IllegalArgumentException;
+
+    /**
+     * Decrypt the given cipher text with the given private key,
+     * given that its plaintext is known to lie within [lowerBound, upperBound].
+     * The effort of decryption depends on the size of the interval only, not on its position.
+     *
+     * @param privateKey The private key used for decryption.
+     * @param cipherText The cipher text to decrypt.
+     * @param lowerBound The smallest value the plaintext may take on (inclusive).
+     * @param upperBound The largest value the plaintext may take on (inclusive).
+     * @return The decrypted value.
+     * @throws IllegalArgumentException If the interval is invalid or the plaintext is not within [lowerBound, upperBound].
+     */
+    ModInteger decrypt(S privateKey, C cipherText, long lowerBound, long upperBound) throws IllegalArgumentException;
+
+    /**
+     * Decrypt all given cipher texts with the given private key.
+     *
+     * @param privateKey  The private key used for decryption.
+     * @param cipherTexts The cipher texts to decrypt.
+     * @return The decrypted values, in the order of the given cipher texts.
+     */
+    List<ModInteger> decryptAll(S privateKey, List<C> cipherTexts);
+
+    /**
+     * Decrypt all given cipher texts with the given private key,
+     * given that their plaintexts are known to lie within [0, upperBound].
+     *
+     * @param privateKey  The private key used for decryption.
+     * @param cipherTexts The cipher texts to decrypt.
+     * @param upperBound  The largest value any plaintext may take on (inclusive).
+     * @return The decrypted values, in the order of the given cipher texts.
+     * @throws IllegalArgumentException If any plaintext is not within [0, upperBound].
+     */
+    List<ModInteger> decryptAll(S privateKey, List<C> cipherTexts, long upperBound) throws IllegalArgumentException;
+
+    /**
+     * Decrypt all given cipher texts with the given private key,
+     * given that their plaintexts are known to lie within [lowerBound, upperBound].
+     *
+     * @param privateKey  The private key used for decryption.
+     * @param cipherTexts The cipher texts to decrypt.
+     * @param lowerBound  The smallest value any plaintext may take on (inclusive).
+     * @param upperBound  The largest value any plaintext may take on (inclusive).
+     * @return The decrypted values, in the order of the given cipher texts.
+     * @throws IllegalArgumentException If the interval is invalid or any plaintext is not within [lowerBound, upperBound].
+     */
+    List<ModInteger> decryptAll(S privateKey, List<C> cipherTexts, long lowerBound, long upperBound) throws IllegalArgumentException;
+}
@@ -1,18 +1,22 @@
 package org.provotum.security.api;
 
-import org.provotum.security.arithmetic.ModInteger;
 import org.provotum.security.elgamal.PublicKey;
+import org.provotum.security.elgamal.proof.noninteractive.ProofDomain;
 
-import java.util.List;
-
-public interface IMembershipProof<C extends IHomomorphicCipherText> {
+public interface IMembershipProof<C extends IHomomorphicCipherText<C>> extends IDomainProof<C, PublicKey> {
 
     /**
-     * Verify that the given ciphertext is with the specified list of domain values.
+     * Verify that the given ciphertext is with the specified domain,
+     * using the powers of the domain values precomputed for the public key.
+     * By default, the proof is verified against the values of the domain without using their precomputed powers.
      *
      * @param cipherText The ciphertext to verify its range.
-     * @param domain     A list of plaintext values the encrypted plaintext may have.
+     * @param domain     The plaintext values the encrypted plaintext may have.
      * @return True, if the encrypted ciphertext represents a value within the given domain, false otherwise.
+     * @throws IllegalArgumentException If the domain was created for another public key and the implementation
+     *                                  uses its precomputed powers.
      */
-    boolean verify(PublicKey publicKey, C cipherText, List<ModInteger> domain);
+    default boolean verify(PublicKey publicKey, C cipherText, ProofDomain domain) throws IllegalArgumentException {
+        return this.verify(publicKey, cipherText, domain.getValues());
+    }
 }
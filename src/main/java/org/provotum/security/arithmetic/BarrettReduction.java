@@ -0,0 +1,79 @@
+package org.provotum.security.arithmetic;
+
+import java.math.BigInteger;
+
+/**
+ * Modular reduction by a fixed modulus without division, using Barrett's method.
+ * <p>
+ * For a modulus p of k bits, the constant <code>mu = floor(4^k / p)</code> is precomputed once.
+ * Any value <code>0 &lt;= x &lt; 4^k</code>, such as the product of two reduced values, is then reduced by:
+ * <pre>
+ *     q = ((x &gt;&gt; (k - 1)) * mu) &gt;&gt; (k + 1)
+ *     r = x - q * p
+ * </pre>
+ * followed by at most two subtractions of p, replacing a long division by two multiplications.
+ */
+public final class BarrettReduction {
+
+    private final BigInteger modulus;
+    private final BigInteger mu;
+    private final int k;
+
+    /**
+     * @param modulus The modulus to reduce by.
+     * @throws IllegalArgumentException If the modulus is not greater than 1.
+     */
+    public BarrettReduction(BigInteger modulus) throws IllegalArgumentException {
+        if (modulus.compareTo(BigInteger.ONE) <= 0) {
+            throw new IllegalArgumentException("The modulus must be greater than 1.");
+        }
+
+        this.modulus = modulus;
+        this.k = modulus.bitLength();
+        this.mu = BigInteger.ONE.shiftLeft(2 * this.k).divide(modulus);
+    }
+
+    /**
+     * @return The modulus.
+     */
+    public BigInteger getModulus() {
+        return this.modulus;
+    }
+
+    /**
+     * Reduce the given value by the modulus.
+     * Values outside of <code>[0, 4^k)</code> are reduced using a regular division.
+     *
+     * @param value The value to reduce.
+     * @return value mod modulus.
+     */
+    public BigInteger reduce(BigInteger value) {
+        if (value.signum() < 0 || value.bitLength() > 2 * this.k) {
+            return value.mod(this.modulus);
+        }
+
+        if (value.compareTo(this.modulus) < 0) {
+            return value;
+        }
+
+        BigInteger q = value.shiftRight(this.k - 1).multiply(this.mu).shiftRight(this.k + 1);
+        BigInteger r = value.subtract(q.multiply(this.modulus));
+
+        while (r.compareTo(this.modulus) >= 0) {
+            r = r.subtract(this.modulus);
+        }
+
+        return r;
+    }
+
+    /**
+     * Multiply both values and reduce the product by the modulus.
+     *
+     * @param a The multiplicand, reduced by the modulus.
+     * @param b The multiplier, reduced by the modulus.
+     * @return a * b mod modulus.
+     */
+    public BigInteger multiply(BigInteger a, BigInteger b) {
+        return this.reduce(a.multiply(b));
+    }
+}
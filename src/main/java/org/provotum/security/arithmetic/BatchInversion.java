@@ -0,0 +1,65 @@
+package org.provotum.security.arithmetic;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Simultaneous inversion of many values modulo the same modulus (Montgomery's trick).
+ * <p>
+ * For values <code>a_1, ..., a_n</code> the prefix products <code>p_i = a_1 * ... * a_i</code> are computed,
+ * only the last of them is inverted, and the inverses are then unwound from the back:
+ * <pre>
+ *     a_i^(-1) = p_(i-1) * p_i^(-1)
+ *     p_(i-1)^(-1) = a_i * p_i^(-1)
+ * </pre>
+ * This replaces n inversions by a single inversion and <code>3 * (n - 1)</code> multiplications.
+ */
+public final class BatchInversion {
+
+    private BatchInversion() {
+    }
+
+    /**
+     * Invert all given values.
+     *
+     * @param values  The values to invert.
+     * @param modulus The modulus.
+     * @return The inverses, in the order of the given values.
+     * @throws ArithmeticException If any of the values is not invertible modulo the modulus.
+     */
+    public static List<BigInteger> invert(List<BigInteger> values, BigInteger modulus) throws ArithmeticException {
+        int n = values.size();
+
+        if (n == 0) {
+            return new ArrayList<>();
+        }
+
+        if (n == 1) {
+            return new ArrayList<>(Arrays.asList(values.get(0).modInverse(modulus)));
+        }
+
+        BarrettReduction reduction = new BarrettReduction(modulus);
+
+        BigInteger[] reduced = new BigInteger[n];
+        BigInteger[] prefixes = new BigInteger[n];
+
+        for (int i = 0; i < n; i++) {
+            reduced[i] = values.get(i).mod(modulus);
+            prefixes[i] = (i == 0) ? reduced[i] : reduction.multiply(prefixes[i - 1], reduced[i]);
+        }
+
+        // fails if and only if any value is not invertible
+        BigInteger inverse = prefixes[n - 1].modInverse(modulus);
+
+        BigInteger[] inverses = new BigInteger[n];
+        for (int i = n - 1; i > 0; i--) {
+            inverses[i] = reduction.multiply(prefixes[i - 1], inverse);
+            inverse = reduction.multiply(reduced[i], inverse);
+        }
+        inverses[0] = inverse;
+
+        return new ArrayList<>(Arrays.asList(inverses));
+    }
+}
@@ -0,0 +1,184 @@
+package org.provotum.security.arithmetic;
+
+import java.math.BigInteger;
+import java.util.stream.IntStream;
+
+/**
+ * Exponentiation of a fixed base using precomputed powers.
+ * <p>
+ * The exponent is split into n windows of w bits each:
+ * <pre>
+ *     e = sum_i( e_i * 2^(w*i) ),  with 0 &lt;= e_i &lt; 2^w
+ * </pre>
+ * For every window i and every digit d, the power <code>base^(d * 2^(w*i))</code> is precomputed once,
+ * so that an exponentiation reduces to at most n multiplications and no squarings at all:
+ * <pre>
+ *     base^e = prod_i( base^(e_i * 2^(w*i)) )
+ * </pre>
+ * The window size w is chosen as large as the given memory budget allows.
+ * Products are reduced using {@link BarrettReduction}, avoiding a division per multiplication.
+ * Exponents exceeding the precomputed bit length fall back to a regular exponentiation.
+ */
+public class FixedBaseExponentiation {
+
+    /**
+     * The largest window size considered, bounding the time needed to build the table.
+     */
+    private static final int MAX_WINDOW_SIZE = 12;
+
+    /**
+     * Estimated overhead of a BigInteger object and its backing array on the heap.
+     */
+    private static final int BIG_INTEGER_OVERHEAD = 40;
+
+    private final BigInteger base;
+    private final BigInteger modulus;
+    private final BarrettReduction reduction;
+    private final int maxExponentBits;
+    private final int windowSize;
+
+    /**
+     * The precomputed powers: <code>table[i][d - 1] = base^(d * 2^(w*i)) mod modulus</code>.
+     * Null, if the memory budget does not allow for any precomputation.
+     */
+    private final BigInteger[][] table;
+
+    /**
+     * @param base            The fixed base, relative to its modulus.
+     * @param maxExponentBits The bit length of the largest exponent to precompute powers for.
+     * @param memoryBudget    The maximum number of bytes the precomputed powers may occupy.
+     * @throws IllegalArgumentException If the base has no modulus or the maximum exponent bit length is smaller than 1.
+     */
+    public FixedBaseExponentiation(ModInteger base, int maxExponentBits, long memoryBudget) throws IllegalArgumentException {
+        this.modulus = base.getModulus().asBigInteger();
+        if (this.modulus.signum() <= 0) {
+            throw new IllegalArgumentException("The base must be relative to a modulus.");
+        }
+
+        if (maxExponentBits < 1) {
+            throw new IllegalArgumentException("The maximum exponent bit length must be at least 1.");
+        }
+
+        this.base = base.asBigInteger();
+        this.reduction = new BarrettReduction(this.modulus);
+        this.maxExponentBits = maxExponentBits;
+        this.windowSize = windowSizeFor(maxExponentBits, this.modulus.bitLength(), memoryBudget);
+
+        if (this.windowSize > 0) {
+            this.table = this.precompute();
+        } else {
+            this.table = null;
+        }
+    }
+
+    /**
+     * Exponentiate the fixed base to the power of the given exponent.
+     * Note, that the modulus of the given exponent is ignored.
+     *
+     * @param exponent The exponent.
+     * @return The resulting exponentiation, relative to the modulus of the base.
+     */
+    public ModInteger pow(ModInteger exponent) {
+        return new ModInteger(this.pow(exponent.asBigInteger()), this.modulus);
+    }
+
+    /**
+     * Exponentiate the fixed base to the power of the given exponent.
+     *
+     * @param exponent The exponent.
+     * @return base^exponent mod modulus.
+     */
+    public BigInteger pow(BigInteger exponent) {
+        if (null == this.table || exponent.signum() < 0 || exponent.bitLength() > this.maxExponentBits) {
+            return this.base.modPow(exponent, this.modulus);
+        }
+
+        BigInteger result = null;
+        int bitLength = exponent.bitLength();
+
+        for (int window = 0, offset = 0; offset < bitLength; window++, offset += this.windowSize) {
+            int digit = digitAt(exponent, offset, this.windowSize);
+
+            if (0 != digit) {
+                BigInteger power = this.table[window][digit - 1];
+                result = (null == result) ? power : this.reduction.multiply(result, power);
+            }
+        }
+
+        return (null == result) ? BigInteger.ONE.mod(this.modulus) : result;
+    }
+
+    /**
+     * @return The window size w in bits, or 0 if no powers are precomputed.
+     */
+    public int getWindowSize() {
+        return this.windowSize;
+    }
+
+    /**
+     * @return The bit length of the largest exponent powers are precomputed for.
+     */
+    public int getMaxExponentBits() {
+        return this.maxExponentBits;
+    }
+
+    /**
+     * Estimate the number of bytes occupied by the precomputed powers for the given parameters.
+     *
+     * @param maxExponentBits The bit length of the largest exponent.
+     * @param modulusBits     The bit length of the modulus.
+     * @param windowSize      The window size in bits.
+     * @return The estimated size of the table in bytes.
+     */
+    public static long estimateMemory(int maxExponentBits, int modulusBits, int windowSize) {
+        long windows = (maxExponentBits + windowSize - 1) / windowSize;
+        long entries = windows * ((1L << windowSize) - 1);
+
+        return entries * ((modulusBits + 7) / 8 + BIG_INTEGER_OVERHEAD);
+    }
+
+    private static int windowSizeFor(int maxExponentBits, int modulusBits, long memoryBudget) {
+        int windowSize = 0;
+
+        for (int w = 1; w <= MAX_WINDOW_SIZE; w++) {
+            if (estimateMemory(maxExponentBits, modulusBits, w) > memoryBudget) {
+                break;
+            }
+            windowSize = w;
+        }
+
+        return windowSize;
+    }
+
+    private BigInteger[][] precompute() {
+        int windows = (this.maxExponentBits + this.windowSize - 1) / this.windowSize;
+        int digits = (1 << this.windowSize) - 1;
+
+        BigInteger[][] powers = new BigInteger[windows][digits];
+
+        // each window only depends on its base base^(2^(w*i)), hence the windows are independent
+        IntStream.range(0, windows).parallel().forEach(window -> {
+            BigInteger windowBase = this.base.modPow(BigInteger.ONE.shiftLeft(window * this.windowSize), this.modulus);
+
+            powers[window][0] = windowBase;
+            for (int d = 1; d < digits; d++) {
+                powers[window][d] = this.reduction.multiply(powers[window][d - 1], windowBase);
+            }
+        });
+
+        return powers;
+    }
+
+    /**
+     * Extract the given number of bits of the given non-negative value starting at the given bit offset.
+     */
+    private static int digitAt(BigInteger value, int offset, int bits) {
+        int digit = 0;
+
+        for (int i = bits - 1; i >= 0; i--) {
+            digit = (digit << 1) | (value.testBit(offset + i) ? 1 : 0);
+        }
+
+        return digit;
+    }
+}
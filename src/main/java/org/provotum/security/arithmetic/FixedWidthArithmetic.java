@@ -0,0 +1,287 @@
+package org.provotum.security.arithmetic;
+
+import java.math.BigInteger;
+
+/**
+ * Modular arithmetic on fixed-width numbers for a fixed odd modulus N, without allocations.
+ * <p>
+ * Numbers are stored as arrays of {@link #getLimbCount()} limbs in little-endian order.
+ * Each limb is a <code>long</code> holding 32 bits, leaving room for the carry of a
+ * 32 x 32 bit product, as Java 8 offers no access to the upper half of a 64 x 64 bit product.
+ * All values are kept in Montgomery representation <code>x * R mod N</code>
+ * with <code>R = 2^(32 * limbCount)</code>.
+ * <p>
+ * Multiplication and reduction are interleaved limb by limb (coarsely integrated operand scanning),
+ * so a product never exceeds <code>limbCount + 2</code> limbs. All intermediate values live in
+ * a {@link Workspace} supplied by the caller, hence once a workspace is created,
+ * {@link #multiply(long[], long[], long[], Workspace)} does not allocate any memory.
+ * A workspace must not be shared between threads.
+ * <p>
+ * This pays off for long chains of multiplications, i.e. the products accumulated by a {@link MutableModInteger}
+ * while tallying and the walks of the Pollard kangaroo solver, which take about half the time of
+ * <code>BigInteger.multiply(..).mod(..)</code> on a 2048 bit modulus.
+ * Exponentiations are left to {@link BigInteger#modPow(BigInteger, BigInteger)}, whose intrinsified
+ * Montgomery multiplication is several times faster than the one of this class.
+ * <p>
+ * Conversions from and to {@link BigInteger} allocate and are meant for the boundaries of a computation only.
+ */
+public final class FixedWidthArithmetic {
+
+    private static final long MASK = 0xFFFFFFFFL;
+
+    private final BigInteger modulus;
+    private final int limbCount;
+    private final long[] modulusLimbs;
+    private final long nPrime;
+    private final BigInteger rModN;
+
+    /**
+     * @param modulus The odd modulus N.
+     * @throws IllegalArgumentException If the modulus is not odd or not greater than 1.
+     */
+    public FixedWidthArithmetic(BigInteger modulus) throws IllegalArgumentException {
+        if (modulus.compareTo(BigInteger.ONE) <= 0 || ! modulus.testBit(0)) {
+            throw new IllegalArgumentException("The modulus must be odd and greater than 1.");
+        }
+
+        this.modulus = modulus;
+        this.limbCount = (modulus.bitLength() + 31) / 32;
+        this.modulusLimbs = toLimbs(modulus, this.limbCount);
+
+        // -N^(-1) mod 2^32
+        BigInteger base = BigInteger.ONE.shiftLeft(32);
+        this.nPrime = base.subtract(modulus.mod(base).modInverse(base)).longValue() & MASK;
+        this.rModN = BigInteger.ONE.shiftLeft(32 * this.limbCount).mod(modulus);
+    }
+
+    /**
+     * @return The modulus N.
+     */
+    public BigInteger getModulus() {
+        return this.modulus;
+    }
+
+    /**
+     * @return The number of 32 bit limbs of each number.
+     */
+    public int getLimbCount() {
+        return this.limbCount;
+    }
+
+    /**
+     * @return A new number, initialized to zero.
+     */
+    public long[] newNumber() {
+        return new long[this.limbCount];
+    }
+
+    /**
+     * @return A new workspace holding all temporary values of this arithmetic.
+     */
+    public Workspace newWorkspace() {
+        return new Workspace(this.limbCount);
+    }
+
+    /**
+     * Convert the given value into Montgomery representation.
+     *
+     * @param value  The value.
+     * @param result The number to write <code>value * R mod N</code> to.
+     */
+    public void toMontgomery(BigInteger value, long[] result) {
+        BigInteger representation = value.mod(this.modulus).multiply(this.rModN).mod(this.modulus);
+
+        writeLimbs(representation, result);
+    }
+
+    /**
+     * Convert the given value into Montgomery representation.
+     *
+     * @param value The value.
+     * @return <code>value * R mod N</code>
+     */
+    public long[] toMontgomery(BigInteger value) {
+        long[] result = this.newNumber();
+        this.toMontgomery(value, result);
+
+        return result;
+    }
+
+    /**
+     * Convert a number in Montgomery representation back into its value.
+     *
+     * @param number    The number <code>x * R mod N</code>.
+     * @param workspace The workspace.
+     * @return The value <code>x</code> in <code>[0, N)</code>.
+     */
+    public BigInteger fromMontgomery(long[] number, Workspace workspace) {
+        long[] one = workspace.one;
+        one[0] = 1;
+        for (int i = 1; i < this.limbCount; i++) {
+            one[i] = 0;
+        }
+
+        this.multiply(number, one, workspace.result, workspace);
+
+        return fromLimbs(workspace.result);
+    }
+
+    /**
+     * Write the given value as plain number, i.e. not in Montgomery representation.
+     * Multiplying a plain number x with a number in Montgomery representation <code>y * R</code>
+     * results in the plain number <code>x * y</code>, while multiplying two plain numbers x and y results in
+     * <code>x * y * R^(-1)</code>.
+     *
+     * @param value  The value.
+     * @param result The number to write <code>value mod N</code> to.
+     */
+    public void toNumber(BigInteger value, long[] result) {
+        BigInteger reduced = value;
+
+        if (reduced.signum() < 0 || reduced.compareTo(this.modulus) >= 0) {
+            reduced = reduced.mod(this.modulus);
+        }
+
+        writeLimbs(reduced, result);
+    }
+
+    /**
+     * Read a plain number, i.e. without converting it from Montgomery representation.
+     *
+     * @param number The number.
+     * @return The value of the limbs of the number.
+     */
+    public BigInteger fromNumber(long[] number) {
+        return fromLimbs(number);
+    }
+
+    /**
+     * @return The Montgomery factor <code>R mod N</code>, with <code>R = 2^(32 * limbCount)</code>.
+     */
+    public BigInteger getR() {
+        return this.rModN;
+    }
+
+    /**
+     * Multiply two numbers in Montgomery representation.
+     * The result may be one of the operands.
+     *
+     * @param a         The multiplicand.
+     * @param b         The multiplier.
+     * @param result    The number to write <code>a * b * R^(-1) mod N</code> to.
+     * @param workspace The workspace.
+     */
+    public void multiply(long[] a, long[] b, long[] result, Workspace workspace) {
+        int n = this.limbCount;
+        long[] t = workspace.product;
+        long[] m = this.modulusLimbs;
+
+        for (int i = 0; i < n + 2; i++) {
+            t[i] = 0;
+        }
+
+        for (int i = 0; i < n; i++) {
+            // t += a[i] * b
+            long ai = a[i];
+            long carry = 0;
+            for (int j = 0; j < n; j++) {
+                // at most (2^32 - 1)^2 + 2 * (2^32 - 1) = 2^64 - 1, i.e. no unsigned overflow
+                long sum = t[j] + ai * b[j] + carry;
+                t[j] = sum & MASK;
+                carry = sum >>> 32;
+            }
+            long sum = t[n] + carry;
+            t[n] = sum & MASK;
+            t[n + 1] = sum >>> 32;
+
+            // t = (t + u * N) / 2^32, where u is chosen such that the lowest limb vanishes
+            long u = (t[0] * this.nPrime) & MASK;
+            carry = (t[0] + u * m[0]) >>> 32;
+            for (int j = 1; j < n; j++) {
+                sum = t[j] + u * m[j] + carry;
+                t[j - 1] = sum & MASK;
+                carry = sum >>> 32;
+            }
+            sum = t[n] + carry;
+            t[n - 1] = sum & MASK;
+            t[n] = t[n + 1] + (sum >>> 32);
+        }
+
+        // t < 2 * N, hence a single subtraction suffices
+        if (t[n] != 0 || compare(t, m, n) >= 0) {
+            long borrow = 0;
+            for (int j = 0; j < n; j++) {
+                long difference = t[j] - m[j] - borrow;
+                result[j] = difference & MASK;
+                borrow = (difference >>> 63);
+            }
+        } else {
+            System.arraycopy(t, 0, result, 0, n);
+        }
+    }
+
+    /**
+     * @return -1, 0 or 1 if the lowest n limbs of a are less than, equal to or greater than b.
+     */
+    private static int compare(long[] a, long[] b, int n) {
+        for (int i = n - 1; i >= 0; i--) {
+            if (a[i] != b[i]) {
+                return (a[i] < b[i]) ? -1 : 1;
+            }
+        }
+
+        return 0;
+    }
+
+    private static long[] toLimbs(BigInteger value, int limbCount) {
+        long[] limbs = new long[limbCount];
+        writeLimbs(value, limbs);
+
+        return limbs;
+    }
+
+    private static void writeLimbs(BigInteger value, long[] limbs) {
+        byte[] bytes = value.toByteArray();
+
+        for (int i = 0; i < limbs.length; i++) {
+            limbs[i] = 0;
+        }
+
+        for (int i = 0; i < bytes.length; i++) {
+            int position = bytes.length - 1 - i;
+            if (i / 4 < limbs.length) {
+                limbs[i / 4] |= (bytes[position] & 0xFFL) << (8 * (i % 4));
+            }
+        }
+    }
+
+    private static BigInteger fromLimbs(long[] limbs) {
+        byte[] bytes = new byte[4 * limbs.length + 1];
+
+        for (int i = 0; i < limbs.length; i++) {
+            long limb = limbs[i];
+            int position = bytes.length - 1 - 4 * i;
+            bytes[position] = (byte) limb;
+            bytes[position - 1] = (byte) (limb >>> 8);
+            bytes[position - 2] = (byte) (limb >>> 16);
+            bytes[position - 3] = (byte) (limb >>> 24);
+        }
+
+        return new BigInteger(bytes);
+    }
+
+    /**
+     * The temporary values of a {@link FixedWidthArithmetic}, to be reused across operations of a single thread.
+     */
+    public static final class Workspace {
+        private final long[] product;
+        private final long[] one;
+        private final long[] result;
+
+        private Workspace(int limbCount) {
+            this.product = new long[limbCount + 2];
+            this.one = new long[limbCount];
+            this.result = new long[limbCount];
+        }
+    }
+}
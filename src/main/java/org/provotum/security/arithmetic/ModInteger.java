@@ -3,6 +3,9 @@ package org.provotum.security.arithmetic;
 import org.provotum.security.random.Context;
 
 import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 /**
  * This class provides an abstraction
@@ -280,6 +283,169 @@ public class ModInteger implements Comparable<ModInteger> {
         return pow(new ModInteger(Integer.toString(exponent)));
     }
 
+    /**
+     * Exponentiate this ModInteger and the given base and multiply the results:
+     * <pre>this^exponent * base^baseExponent mod modulus</pre>
+     * As there are fewer than {@link MultiExponentiation#SIMULTANEOUS_THRESHOLD} bases,
+     * both powers are computed separately.
+     * Note, that the moduli of the given base and exponents are ignored.
+     *
+     * @param exponent     The exponent of this ModInteger.
+     * @param base         The second base.
+     * @param baseExponent The exponent of the second base.
+     * @return The product of both exponentiations.
+     * @see MultiExponentiation
+     */
+    public ModInteger multiPow(ModInteger exponent, ModInteger base, ModInteger baseExponent) {
+        return multiPow(Arrays.asList(this, base), Arrays.asList(exponent, baseExponent));
+    }
+
+    /**
+     * Exponentiate all given bases simultaneously and multiply the results:
+     * <pre>prod_i( bases[i]^exponents[i] ) mod modulus</pre>
+     * The modulus of the first base is used.
+     *
+     * @param bases     The bases.
+     * @param exponents The exponents, one per base.
+     * @return The product of all exponentiations.
+     * @throws IllegalArgumentException If no bases are given, or the number of bases and exponents differ.
+     * @see MultiExponentiation
+     */
+    public static ModInteger multiPow(List<ModInteger> bases, List<ModInteger> exponents) throws IllegalArgumentException {
+        if (bases.isEmpty()) {
+            throw new IllegalArgumentException("At least one base is required.");
+        }
+
+        BigInteger modulus = bases.get(0).modulus;
+
+        if (modulus.equals(BigInteger.ZERO)) {
+            ModInteger result = ONE;
+            for (int i = 0; i < bases.size(); i++) {
+                result = result.multiply(bases.get(i).pow(exponents.get(i)));
+            }
+
+            return result;
+        }
+
+        List<BigInteger> values = new ArrayList<>(bases.size());
+        for (ModInteger base : bases) {
+            values.add(base.value);
+        }
+
+        List<BigInteger> powers = new ArrayList<>(exponents.size());
+        for (ModInteger exponent : exponents) {
+            powers.add(exponent.value);
+        }
+
+        return new ModInteger(MultiExponentiation.pow(values, powers, modulus), modulus);
+    }
+
+    /**
+     * Invert all given values simultaneously, requiring a single modular inversion only.
+     * The modulus of the first value is used.
+     *
+     * @param values The values to invert.
+     * @return The inverses, in the order of the given values.
+     * @throws IllegalArgumentException If the values do not share a common, non-zero modulus.
+     * @throws ArithmeticException      If any of the values is not invertible.
+     * @see BatchInversion
+     */
+    public static List<ModInteger> invertAll(List<ModInteger> values) throws IllegalArgumentException, ArithmeticException {
+        if (values.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        BigInteger modulus = values.get(0).modulus;
+
+        if (modulus.signum() <= 0) {
+            throw new IllegalArgumentException("Only values with a positive modulus can be inverted.");
+        }
+
+        List<BigInteger> numbers = new ArrayList<>(values.size());
+        for (ModInteger value : values) {
+            if (! value.modulus.equals(modulus)) {
+                throw new IllegalArgumentException("All values to invert must have the same modulus.");
+            }
+
+            numbers.add(value.value);
+        }
+
+        List<ModInteger> inverses = new ArrayList<>(values.size());
+        for (BigInteger inverse : BatchInversion.invert(numbers, modulus)) {
+            inverses.add(new ModInteger(inverse, modulus));
+        }
+
+        return inverses;
+    }
+
+    /**
+     * Calculates the Jacobi symbol of this ModInteger with respect to its modulus.
+     * For a prime modulus, this is the Legendre symbol, i.e. 1 if this value is a non-zero
+     * quadratic residue, -1 if it is a non-residue and 0 if it is a multiple of the modulus.
+     *
+     * @return The Jacobi symbol (value / modulus).
+     * @throws IllegalArgumentException If the modulus is not an odd positive number.
+     */
+    public int jacobi() throws IllegalArgumentException {
+        if (this.modulus.signum() <= 0 || ! this.modulus.testBit(0)) {
+            throw new IllegalArgumentException("The Jacobi symbol is only defined for an odd positive modulus.");
+        }
+
+        BigInteger a = this.finalized();
+        BigInteger n = this.modulus;
+        int result = 1;
+
+        // binary Jacobi algorithm, switching to primitive arithmetic once both values fit into a long
+        while (n.bitLength() >= Long.SIZE - 1) {
+            if (a.signum() == 0) {
+                return 0;
+            }
+
+            int twos = a.getLowestSetBit();
+            a = a.shiftRight(twos);
+
+            int nMod8 = n.intValue() & 7;
+            if ((twos & 1) == 1 && (nMod8 == 3 || nMod8 == 5)) {
+                result = - result;
+            }
+
+            // apply quadratic reciprocity and swap both values
+            if ((a.intValue() & 3) == 3 && (nMod8 & 3) == 3) {
+                result = - result;
+            }
+
+            BigInteger tmp = a;
+            a = n.mod(tmp);
+            n = tmp;
+        }
+
+        return result * jacobi(a.longValue(), n.longValue());
+    }
+
+    private static int jacobi(long a, long n) {
+        int result = 1;
+
+        while (a != 0) {
+            int twos = Long.numberOfTrailingZeros(a);
+            a >>>= twos;
+
+            int nMod8 = (int) (n & 7);
+            if ((twos & 1) == 1 && (nMod8 == 3 || nMod8 == 5)) {
+                result = - result;
+            }
+
+            if ((a & 3) == 3 && (nMod8 & 3) == 3) {
+                result = - result;
+            }
+
+            long tmp = a;
+            a = n % tmp;
+            n = tmp;
+        }
+
+        return (n == 1) ? result : 0;
+    }
+
     /**
      * @return A BigInteger representation of this ModInteger.
      */
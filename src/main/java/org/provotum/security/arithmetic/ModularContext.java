@@ -0,0 +1,136 @@
+package org.provotum.security.arithmetic;
+
+import java.math.BigInteger;
+
+/**
+ * Arithmetic modulo a fixed odd modulus N, keeping values in Montgomery representation.
+ * <p>
+ * A value x is represented by <code>x * R mod N</code> for <code>R = 2^k &gt; N</code>.
+ * Two such representations are multiplied and reduced using Montgomery's reduction:
+ * <pre>
+ *     m = ((T mod R) * N') mod R
+ *     t = (T + m * N) / R
+ * </pre>
+ * where <code>N' = -N^(-1) mod R</code> is precomputed once.
+ * As R is a power of two, the reductions modulo R and the division by R are
+ * masks and shifts, so no division by N is required.
+ * <p>
+ * Values are converted into Montgomery representation using {@link #toMontgomery(ModInteger)} and
+ * back using {@link MontgomeryInteger#toModInteger()}, which should only happen at the boundaries
+ * of a computation, e.g. before serializing or comparing with a {@link ModInteger}.
+ */
+public final class ModularContext {
+
+    private final BigInteger modulus;
+    private final int k;
+    private final BigInteger mask;
+    private final BigInteger nPrime;
+    private final BigInteger rSquared;
+
+    private final MontgomeryInteger zero;
+    private final MontgomeryInteger one;
+
+    /**
+     * @param modulus The odd modulus N.
+     * @throws IllegalArgumentException If the modulus is not odd or not greater than 1.
+     */
+    public ModularContext(BigInteger modulus) throws IllegalArgumentException {
+        if (modulus.compareTo(BigInteger.ONE) <= 0 || ! modulus.testBit(0)) {
+            throw new IllegalArgumentException("The modulus must be odd and greater than 1.");
+        }
+
+        this.modulus = modulus;
+        this.k = modulus.bitLength();
+
+        BigInteger r = BigInteger.ONE.shiftLeft(this.k);
+        this.mask = r.subtract(BigInteger.ONE);
+        this.nPrime = r.subtract(modulus.modInverse(r));
+        this.rSquared = BigInteger.ONE.shiftLeft(2 * this.k).mod(modulus);
+
+        this.zero = new MontgomeryInteger(this, BigInteger.ZERO);
+        this.one = new MontgomeryInteger(this, r.mod(modulus));
+    }
+
+    /**
+     * @param modulus The odd modulus N.
+     * @throws IllegalArgumentException If the modulus is not odd or not greater than 1.
+     */
+    public ModularContext(ModInteger modulus) throws IllegalArgumentException {
+        this(modulus.asBigInteger());
+    }
+
+    /**
+     * @return The modulus N.
+     */
+    public BigInteger getModulus() {
+        return this.modulus;
+    }
+
+    /**
+     * @return The representation of 0.
+     */
+    public MontgomeryInteger zero() {
+        return this.zero;
+    }
+
+    /**
+     * @return The representation of 1.
+     */
+    public MontgomeryInteger one() {
+        return this.one;
+    }
+
+    /**
+     * Convert the given value into Montgomery representation.
+     * The modulus of the given value is ignored.
+     *
+     * @param value The value.
+     * @return The Montgomery representation of <code>value mod N</code>.
+     */
+    public MontgomeryInteger toMontgomery(ModInteger value) {
+        return this.toMontgomery(value.asBigInteger());
+    }
+
+    /**
+     * Convert the given value into Montgomery representation.
+     *
+     * @param value The value.
+     * @return The Montgomery representation of <code>value mod N</code>.
+     */
+    public MontgomeryInteger toMontgomery(BigInteger value) {
+        BigInteger reduced = value;
+
+        if (reduced.signum() < 0 || reduced.compareTo(this.modulus) >= 0) {
+            reduced = reduced.mod(this.modulus);
+        }
+
+        return new MontgomeryInteger(this, this.reduce(reduced.multiply(this.rSquared)));
+    }
+
+    /**
+     * Convert a Montgomery representation back into its value.
+     *
+     * @param representation The representation <code>x * R mod N</code>.
+     * @return The value <code>x</code> in <code>[0, N)</code>.
+     */
+    BigInteger fromMontgomery(BigInteger representation) {
+        return this.reduce(representation);
+    }
+
+    /**
+     * Apply Montgomery's reduction to the given value.
+     *
+     * @param value A value in <code>[0, N * R)</code>.
+     * @return <code>value * R^(-1) mod N</code>
+     */
+    BigInteger reduce(BigInteger value) {
+        BigInteger m = value.and(this.mask).multiply(this.nPrime).and(this.mask);
+        BigInteger t = value.add(m.multiply(this.modulus)).shiftRight(this.k);
+
+        if (t.compareTo(this.modulus) >= 0) {
+            t = t.subtract(this.modulus);
+        }
+
+        return t;
+    }
+}
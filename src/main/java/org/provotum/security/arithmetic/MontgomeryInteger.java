@@ -0,0 +1,152 @@
+package org.provotum.security.arithmetic;
+
+import java.math.BigInteger;
+
+/**
+ * An immutable value modulo the modulus of a {@link ModularContext}, held in Montgomery representation.
+ * <p>
+ * Values of different contexts must not be combined.
+ */
+public final class MontgomeryInteger {
+
+    private final ModularContext context;
+    private final BigInteger representation;
+
+    /**
+     * @param context        The context this value belongs to.
+     * @param representation The Montgomery representation in <code>[0, N)</code>.
+     */
+    MontgomeryInteger(ModularContext context, BigInteger representation) {
+        this.context = context;
+        this.representation = representation;
+    }
+
+    /**
+     * @return The context this value belongs to.
+     */
+    public ModularContext getContext() {
+        return this.context;
+    }
+
+    /**
+     * @param multiplier The multiplier.
+     * @return <code>this * multiplier mod N</code>
+     * @throws IllegalArgumentException If the multiplier belongs to another context.
+     */
+    public MontgomeryInteger multiply(MontgomeryInteger multiplier) throws IllegalArgumentException {
+        this.checkContext(multiplier);
+
+        return new MontgomeryInteger(this.context, this.context.reduce(this.representation.multiply(multiplier.representation)));
+    }
+
+    /**
+     * @return <code>this^2 mod N</code>
+     */
+    public MontgomeryInteger square() {
+        return new MontgomeryInteger(this.context, this.context.reduce(this.representation.multiply(this.representation)));
+    }
+
+    /**
+     * @param summand The summand.
+     * @return <code>this + summand mod N</code>
+     * @throws IllegalArgumentException If the summand belongs to another context.
+     */
+    public MontgomeryInteger add(MontgomeryInteger summand) throws IllegalArgumentException {
+        this.checkContext(summand);
+
+        BigInteger sum = this.representation.add(summand.representation);
+        if (sum.compareTo(this.context.getModulus()) >= 0) {
+            sum = sum.subtract(this.context.getModulus());
+        }
+
+        return new MontgomeryInteger(this.context, sum);
+    }
+
+    /**
+     * @param subtrahend The subtrahend.
+     * @return <code>this - subtrahend mod N</code>
+     * @throws IllegalArgumentException If the subtrahend belongs to another context.
+     */
+    public MontgomeryInteger subtract(MontgomeryInteger subtrahend) throws IllegalArgumentException {
+        this.checkContext(subtrahend);
+
+        BigInteger difference = this.representation.subtract(subtrahend.representation);
+        if (difference.signum() < 0) {
+            difference = difference.add(this.context.getModulus());
+        }
+
+        return new MontgomeryInteger(this.context, difference);
+    }
+
+    /**
+     * @return <code>-this mod N</code>
+     */
+    public MontgomeryInteger negate() {
+        if (this.representation.signum() == 0) {
+            return this;
+        }
+
+        return new MontgomeryInteger(this.context, this.context.getModulus().subtract(this.representation));
+    }
+
+    /**
+     * Exponentiate this value. Uses {@link BigInteger#modPow(BigInteger, BigInteger)},
+     * which already runs on Montgomery multiplication internally.
+     *
+     * @param exponent The exponent. A negative exponent requires this value to be invertible.
+     * @return <code>this^exponent mod N</code>
+     */
+    public MontgomeryInteger pow(BigInteger exponent) {
+        BigInteger value = this.context.fromMontgomery(this.representation);
+
+        return this.context.toMontgomery(value.modPow(exponent, this.context.getModulus()));
+    }
+
+    /**
+     * @return <code>this^(-1) mod N</code>
+     * @throws ArithmeticException If this value is not invertible.
+     */
+    public MontgomeryInteger inverse() throws ArithmeticException {
+        BigInteger value = this.context.fromMontgomery(this.representation);
+
+        return this.context.toMontgomery(value.modInverse(this.context.getModulus()));
+    }
+
+    /**
+     * @return The value in <code>[0, N)</code>.
+     */
+    public BigInteger asBigInteger() {
+        return this.context.fromMontgomery(this.representation);
+    }
+
+    /**
+     * @return The value as ModInteger modulo N.
+     */
+    public ModInteger toModInteger() {
+        return new ModInteger(this.asBigInteger(), this.context.getModulus());
+    }
+
+    private void checkContext(MontgomeryInteger other) throws IllegalArgumentException {
+        if (this.context != other.context && ! this.context.getModulus().equals(other.context.getModulus())) {
+            throw new IllegalArgumentException("Values of different moduli cannot be combined.");
+        }
+    }
+
+    @Override
+    public int hashCode() {
+        return this.representation.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        // the representation is unique for a given modulus
+        return (this == o) || (o instanceof MontgomeryInteger) &&
+            this.representation.equals(((MontgomeryInteger) o).representation) &&
+            this.context.getModulus().equals(((MontgomeryInteger) o).context.getModulus());
+    }
+
+    @Override
+    public String toString() {
+        return this.asBigInteger().toString();
+    }
+}
@@ -0,0 +1,167 @@
+package org.provotum.security.arithmetic;
+
+import java.math.BigInteger;
+
+/**
+ * A mutable value modulo a fixed odd modulus N, to accumulate long products in place.
+ * <p>
+ * The value is held in a fixed number of limbs of a {@link FixedWidthArithmetic}, which are
+ * overwritten by each multiplication. Factors are multiplied using Montgomery's multiplication
+ * without converting them into Montgomery representation first, so that each multiplication
+ * introduces a factor of <code>R^(-1)</code>. These factors are only counted and
+ * corrected once, when the value is read using {@link #asBigInteger()}:
+ * <pre>
+ *     value = limbs * R^d mod N
+ * </pre>
+ * where d is the number of multiplications since the value was last set.
+ * <p>
+ * Apart from reading the limbs of a factor given as {@link BigInteger}, multiplying does not allocate any memory.
+ * Instances must not be shared between threads.
+ */
+public final class MutableModInteger {
+
+    private final FixedWidthArithmetic arithmetic;
+    private final FixedWidthArithmetic.Workspace workspace;
+
+    private final long[] value;
+    private final long[] operand;
+
+    /**
+     * The exponent d of the pending correction <code>R^d</code>.
+     */
+    private long deferred;
+
+    /**
+     * Create a mutable value of 1.
+     *
+     * @param arithmetic The arithmetic of the modulus.
+     */
+    public MutableModInteger(FixedWidthArithmetic arithmetic) {
+        this.arithmetic = arithmetic;
+        this.workspace = arithmetic.newWorkspace();
+        this.value = arithmetic.newNumber();
+        this.operand = arithmetic.newNumber();
+
+        this.setOne();
+    }
+
+    /**
+     * Create a mutable value of 1.
+     *
+     * @param modulus The odd modulus N.
+     * @throws IllegalArgumentException If the modulus is not odd or not greater than 1.
+     */
+    public MutableModInteger(BigInteger modulus) throws IllegalArgumentException {
+        this(new FixedWidthArithmetic(modulus));
+    }
+
+    /**
+     * @return The modulus N.
+     */
+    public BigInteger getModulus() {
+        return this.arithmetic.getModulus();
+    }
+
+    /**
+     * Set this value to 1.
+     *
+     * @return This value.
+     */
+    public MutableModInteger setOne() {
+        return this.set(BigInteger.ONE);
+    }
+
+    /**
+     * Set this value. The modulus of the given value is ignored.
+     *
+     * @param value The new value.
+     * @return This value.
+     */
+    public MutableModInteger set(ModInteger value) {
+        return this.set(value.asBigInteger());
+    }
+
+    /**
+     * Set this value.
+     *
+     * @param value The new value.
+     * @return This value.
+     */
+    public MutableModInteger set(BigInteger value) {
+        this.arithmetic.toNumber(value, this.value);
+        this.deferred = 0;
+
+        return this;
+    }
+
+    /**
+     * Multiply this value in place. The modulus of the given factor is ignored.
+     *
+     * @param factor The factor.
+     * @return This value.
+     */
+    public MutableModInteger multiply(ModInteger factor) {
+        return this.multiply(factor.asBigInteger());
+    }
+
+    /**
+     * Multiply this value in place.
+     *
+     * @param factor The factor.
+     * @return This value.
+     */
+    public MutableModInteger multiply(BigInteger factor) {
+        this.arithmetic.toNumber(factor, this.operand);
+        this.arithmetic.multiply(this.value, this.operand, this.value, this.workspace);
+        this.deferred++;
+
+        return this;
+    }
+
+    /**
+     * Multiply this value in place by another mutable value of the same modulus.
+     * The other value is not modified.
+     *
+     * @param factor The factor.
+     * @return This value.
+     * @throws IllegalArgumentException If the factor has another modulus.
+     */
+    public MutableModInteger multiply(MutableModInteger factor) throws IllegalArgumentException {
+        if (! this.getModulus().equals(factor.getModulus())) {
+            throw new IllegalArgumentException("Values of different moduli cannot be multiplied.");
+        }
+
+        this.arithmetic.multiply(this.value, factor.value, this.value, this.workspace);
+        this.deferred += factor.deferred + 1;
+
+        return this;
+    }
+
+    /**
+     * @return The value in <code>[0, N)</code>.
+     */
+    public BigInteger asBigInteger() {
+        BigInteger modulus = this.arithmetic.getModulus();
+        BigInteger limbs = this.arithmetic.fromNumber(this.value);
+
+        if (this.deferred == 0) {
+            return limbs;
+        }
+
+        BigInteger correction = this.arithmetic.getR().modPow(BigInteger.valueOf(this.deferred), modulus);
+
+        return limbs.multiply(correction).mod(modulus);
+    }
+
+    /**
+     * @return An immutable copy of this value modulo N.
+     */
+    public ModInteger toModInteger() {
+        return new ModInteger(this.asBigInteger(), this.arithmetic.getModulus());
+    }
+
+    @Override
+    public String toString() {
+        return this.asBigInteger().toString();
+    }
+}
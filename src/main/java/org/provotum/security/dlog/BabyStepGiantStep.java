@@ -0,0 +1,330 @@
+package org.provotum.security.dlog;
+
+import org.provotum.security.api.IDiscreteLogSolver;
+import org.provotum.security.arithmetic.BatchInversion;
+import org.provotum.security.arithmetic.ModInteger;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Solves discrete logarithms within a bounded interval using Shanks' baby-step giant-step algorithm.
+ * <p>
+ * For an interval of size n, a table of <code>k = ceil(sqrt(n))</code> baby steps <code>g^j</code> is built once per
+ * generator and reused for all subsequent calls. The target is then shifted by giant steps of <code>g^(-k)</code>
+ * until it matches one of the baby steps:
+ * <pre>
+ *     target * g^(-i*k) = g^j  =&gt;  m = i*k + j
+ * </pre>
+ * resulting in <code>O(sqrt(n))</code> group operations per call.
+ * <p>
+ * The size of a table is capped. Intervals larger than the square of the cap
+ * are still solved correctly, but require proportionally more giant steps.
+ * <p>
+ * The number of tables is capped as well. If tables for more generators are requested,
+ * the least recently used one is evicted and rebuilt on its next use.
+ * Tables are built outside of any lock shared between generators: Concurrent calls for the same generator
+ * wait for the table being built, while calls for other generators proceed.
+ * Tables passed to {@link #register(IBabyStepTable)} are neither evicted nor replaced.
+ */
+public class BabyStepGiantStep implements IDiscreteLogSolver {
+
+    /**
+     * The default maximum number of baby steps held per generator (~24 MB of heap).
+     */
+    public static final int DEFAULT_MAX_BABY_STEPS = 1 << 20;
+
+    /**
+     * The upper limit for the maximum number of baby steps, bound by the size of the backing arrays.
+     */
+    public static final int MAX_BABY_STEPS = 1 << 28;
+
+    /**
+     * The default maximum number of generators a table of baby steps is held for.
+     */
+    public static final int DEFAULT_MAX_TABLES = 2;
+
+    /**
+     * The minimal number of baby steps computed for a generator,
+     * avoiding to rebuild tiny tables when the requested intervals grow.
+     */
+    private static final int MIN_BABY_STEPS = 1 << 8;
+
+    private final int maxBabySteps;
+    private final int maxTables;
+
+    /**
+     * The tables built by this solver, subject to eviction.
+     */
+    private final ConcurrentMap<List<BigInteger>, CachedTable> tables = new ConcurrentHashMap<>();
+
+    /**
+     * The tables registered explicitly, which are never evicted.
+     */
+    private final ConcurrentMap<List<BigInteger>, IBabyStepTable> registeredTables = new ConcurrentHashMap<>();
+
+    /**
+     * A logical clock ordering the uses of the cached tables.
+     */
+    private final AtomicLong clock = new AtomicLong();
+
+    public BabyStepGiantStep() {
+        this(DEFAULT_MAX_BABY_STEPS);
+    }
+
+    /**
+     * @param maxBabySteps The maximum number of baby steps held per generator.
+     * @throws IllegalArgumentException If the maximum is not within [1, {@link #MAX_BABY_STEPS}].
+     */
+    public BabyStepGiantStep(int maxBabySteps) throws IllegalArgumentException {
+        this(maxBabySteps, DEFAULT_MAX_TABLES);
+    }
+
+    /**
+     * @param maxBabySteps The maximum number of baby steps held per generator.
+     * @param maxTables    The maximum number of generators a table of baby steps is held for.
+     * @throws IllegalArgumentException If the maximum number of baby steps is not within [1, {@link #MAX_BABY_STEPS}]
+     *                                  or the maximum number of tables is less than 1.
+     */
+    public BabyStepGiantStep(int maxBabySteps, int maxTables) throws IllegalArgumentException {
+        if (maxBabySteps < 1 || maxBabySteps > MAX_BABY_STEPS) {
+            throw new IllegalArgumentException("The maximum number of baby steps must be within [1, " + MAX_BABY_STEPS + "].");
+        }
+
+        if (maxTables < 1) {
+            throw new IllegalArgumentException("The maximum number of tables must be at least 1.");
+        }
+
+        this.maxBabySteps = maxBabySteps;
+        this.maxTables = maxTables;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ModInteger solve(ModInteger generator, ModInteger target, long lowerBound, long upperBound) throws IllegalArgumentException {
+        if (lowerBound < 0 || upperBound < lowerBound) {
+            throw new IllegalArgumentException("The interval [" + lowerBound + ", " + upperBound + "] is invalid.");
+        }
+
+        BigInteger p = generator.getModulus().asBigInteger();
+        if (p.signum() <= 0) {
+            throw new IllegalArgumentException("The generator must be relative to a prime modulus.");
+        }
+
+        BigInteger g = generator.asBigInteger();
+        BigInteger y = target.asBigInteger().mod(p);
+
+        // the number of exponents to search, may only overflow for the full range of [0, Long.MAX_VALUE]
+        long range = upperBound - lowerBound + 1;
+        if (range <= 0) {
+            range = Long.MAX_VALUE;
+        }
+
+        IBabyStepTable table = getTable(generator, babyStepsFor(range));
+        long k = table.size();
+
+        // shift the target by the lower bound, so that we
+        // are looking for an exponent in [0, range) instead.
+        List<BigInteger> inverses = BatchInversion.invert(Arrays.asList(
+            g.modPow(BigInteger.valueOf(lowerBound), p),
+            g.modPow(BigInteger.valueOf(k), p)
+        ), p);
+        BigInteger gamma = y.multiply(inverses.get(0)).mod(p);
+        BigInteger giantStep = inverses.get(1);
+
+        long giantSteps = (range - 1) / k + 1;
+        for (long i = 0; i < giantSteps; i++) {
+            int j = table.lookup(IBabyStepTable.fingerprint(gamma));
+
+            if (j >= 0) {
+                long exponent = i * k + j;
+
+                // fingerprints may collide, hence verify the candidate explicitly
+                if (exponent < range && g.modPow(BigInteger.valueOf(lowerBound + exponent), p).equals(y)) {
+                    return new ModInteger(BigInteger.valueOf(lowerBound + exponent));
+                }
+            }
+
+            gamma = gamma.multiply(giantStep).mod(p);
+        }
+
+        return null;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Builds the table of baby steps for the given interval, unless a large enough table already exists.
+     */
+    @Override
+    public void prepare(ModInteger generator, long lowerBound, long upperBound) throws IllegalArgumentException {
+        if (lowerBound < 0 || upperBound < lowerBound) {
+            throw new IllegalArgumentException("The interval [" + lowerBound + ", " + upperBound + "] is invalid.");
+        }
+
+        long range = upperBound - lowerBound + 1;
+        if (range <= 0) {
+            range = Long.MAX_VALUE;
+        }
+
+        getTable(generator, babyStepsFor(range));
+    }
+
+    /**
+     * Register a precomputed table of baby steps for its generator.
+     * All subsequent calls for the same generator will use this table, even if a larger one would
+     * save giant steps. Registered tables do not count towards the maximum number of tables and are never evicted.
+     *
+     * @param table The table to use.
+     */
+    public void register(IBabyStepTable table) {
+        List<BigInteger> key = keyOf(table.getGenerator());
+
+        this.registeredTables.put(key, table);
+        this.tables.remove(key);
+    }
+
+    /**
+     * @return The number of generators a table of baby steps is currently held for, including registered tables.
+     */
+    public int getTableCount() {
+        return this.tables.size() + this.registeredTables.size();
+    }
+
+    /**
+     * Returns the table of baby steps for the given generator, holding at least the given number of baby steps,
+     * unless a table was registered for the generator.
+     * Tables are built on first use and rebuilt only if a larger one is requested or the table was evicted.
+     *
+     * @param generator The generator g, relative to the prime modulus p.
+     * @param size      The minimal number of baby steps the table has to hold.
+     * @return The table of baby steps.
+     */
+    IBabyStepTable getTable(ModInteger generator, int size) {
+        List<BigInteger> key = keyOf(generator);
+
+        IBabyStepTable registered = this.registeredTables.get(key);
+        if (null != registered) {
+            return registered;
+        }
+
+        while (true) {
+            CachedTable existing = this.tables.get(key);
+
+            if (null != existing && existing.size >= size) {
+                existing.lastUse = this.clock.incrementAndGet();
+
+                return existing.get();
+            }
+
+            // claim the slot of the generator, the table is built by the thread succeeding
+            CachedTable created = new CachedTable(generator, size, this.clock.incrementAndGet());
+            boolean claimed = (null == existing) ?
+                null == this.tables.putIfAbsent(key, created) :
+                this.tables.replace(key, existing, created);
+
+            if (! claimed) {
+                continue;
+            }
+
+            this.evict();
+
+            try {
+                created.task.run();
+
+                return created.get();
+            } catch (RuntimeException e) {
+                this.tables.remove(key, created);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Remove the least recently used tables until at most the maximum number of tables remain.
+     */
+    private void evict() {
+        while (this.tables.size() > this.maxTables) {
+            Map.Entry<List<BigInteger>, CachedTable> eldest = null;
+
+            for (Map.Entry<List<BigInteger>, CachedTable> entry : this.tables.entrySet()) {
+                if (null == eldest || entry.getValue().lastUse < eldest.getValue().lastUse) {
+                    eldest = entry;
+                }
+            }
+
+            if (null == eldest) {
+                return;
+            }
+
+            this.tables.remove(eldest.getKey(), eldest.getValue());
+        }
+    }
+
+    /**
+     * @param range The number of exponents to search.
+     * @return The number of baby steps to use for the given range, i.e. <code>ceil(sqrt(range))</code> within the configured limits.
+     */
+    private int babyStepsFor(long range) {
+        long steps = (long) Math.ceil(Math.sqrt((double) range));
+
+        return (int) Math.min(this.maxBabySteps, Math.max(Math.min(MIN_BABY_STEPS, range), steps));
+    }
+
+    private static List<BigInteger> keyOf(ModInteger generator) {
+        return Arrays.asList(generator.asBigInteger(), generator.getModulus().asBigInteger());
+    }
+
+    /**
+     * A table of baby steps, built by the first thread requesting it.
+     * Other threads requesting the same table wait for it to complete.
+     */
+    private static final class CachedTable {
+        private final int size;
+        private final FutureTask<IBabyStepTable> task;
+        private volatile long lastUse;
+
+        private CachedTable(ModInteger generator, int size, long lastUse) {
+            this.size = size;
+            this.task = new FutureTask<>(() -> new InMemoryBabyStepTable(generator, size));
+            this.lastUse = lastUse;
+        }
+
+        private IBabyStepTable get() {
+            boolean interrupted = false;
+
+            try {
+                while (true) {
+                    try {
+                        return this.task.get();
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+
+                throw new IllegalStateException("Failed to build the table of baby steps.", cause);
+            } finally {
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package org.provotum.security.dlog;
+
+import java.util.Arrays;
+
+/**
+ * An open addressing hash table mapping the 64 bit fingerprints of baby steps to their exponents,
+ * independent of the group the baby steps were computed in.
+ * <p>
+ * If several exponents share a fingerprint, the smallest one is kept.
+ * As fingerprints may collide, a match is only a candidate and must be verified by the caller.
+ */
+public final class FingerprintTable {
+
+    /**
+     * Multiplicative constant (2^64 / golden ratio) used to spread the fingerprints over all slots.
+     */
+    private static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    private static final int EMPTY = - 1;
+
+    private final int size;
+
+    private final long[] fingerprints;
+    private final int[] exponents;
+    private final int shift;
+
+    /**
+     * @param fingerprints The fingerprints of the baby steps, indexed by their exponent.
+     */
+    public FingerprintTable(long[] fingerprints) {
+        this.size = fingerprints.length;
+
+        // keep the load factor of the table below 0.5
+        int capacity = Integer.highestOneBit(Math.max(this.size, 2) - 1) << 2;
+        this.shift = 64 - Integer.numberOfTrailingZeros(capacity);
+        this.fingerprints = new long[capacity];
+        this.exponents = new int[capacity];
+        Arrays.fill(this.exponents, EMPTY);
+
+        for (int j = 0; j < this.size; j++) {
+            insert(fingerprints[j], j);
+        }
+    }
+
+    /**
+     * @return The number of baby steps held by this table.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Look up the exponent j of the baby step with the given fingerprint.
+     *
+     * @param fingerprint The fingerprint of the group element to look up.
+     * @return The exponent j in the range of [0, size) or -1, if no baby step matches the fingerprint.
+     */
+    public int lookup(long fingerprint) {
+        int slot = slotOf(fingerprint);
+
+        while (this.exponents[slot] != EMPTY) {
+            if (this.fingerprints[slot] == fingerprint) {
+                return this.exponents[slot];
+            }
+            slot = (slot + 1) & (this.exponents.length - 1);
+        }
+
+        return EMPTY;
+    }
+
+    private void insert(long fingerprint, int exponent) {
+        int slot = slotOf(fingerprint);
+
+        while (this.exponents[slot] != EMPTY) {
+            if (this.fingerprints[slot] == fingerprint) {
+                // keep the smaller exponent on collisions, the caller verifies any match anyway
+                return;
+            }
+            slot = (slot + 1) & (this.exponents.length - 1);
+        }
+
+        this.fingerprints[slot] = fingerprint;
+        this.exponents[slot] = exponent;
+    }
+
+    private int slotOf(long fingerprint) {
+        return (int) ((fingerprint * HASH_MULTIPLIER) >>> this.shift);
+    }
+}
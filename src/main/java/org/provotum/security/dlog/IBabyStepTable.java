@@ -0,0 +1,44 @@
+package org.provotum.security.dlog;
+
+import org.provotum.security.arithmetic.ModInteger;
+
+import java.math.BigInteger;
+
+/**
+ * A lookup table of the baby steps <code>g^j mod p</code> for all <code>j in [0, size)</code>.
+ * <p>
+ * Group elements are not stored in full. Instead, each entry is keyed by a compact
+ * fingerprint of the element, mapping it back to its exponent j.
+ * As fingerprints may collide, a match returned by {@link #lookup(long)}
+ * is only a candidate and must be verified by the caller.
+ */
+public interface IBabyStepTable {
+
+    /**
+     * @return The generator g (relative to the prime modulus p) the baby steps are computed for.
+     */
+    ModInteger getGenerator();
+
+    /**
+     * @return The number of baby steps held by this table.
+     */
+    int size();
+
+    /**
+     * Look up the exponent j of the baby step with the given fingerprint.
+     *
+     * @param fingerprint The fingerprint of the group element to look up.
+     * @return The exponent j in the range of [0, size) or -1, if no baby step matches the fingerprint.
+     */
+    int lookup(long fingerprint);
+
+    /**
+     * Creates the compact fingerprint of the given group element, i.e. its lowest 64 bits.
+     *
+     * @param element The group element, reduced modulo p.
+     * @return The fingerprint of the element.
+     */
+    static long fingerprint(BigInteger element) {
+        return element.longValue();
+    }
+}
@@ -0,0 +1,104 @@
+package org.provotum.security.dlog;
+
+import org.provotum.security.arithmetic.ModInteger;
+
+import java.math.BigInteger;
+import java.util.stream.IntStream;
+
+/**
+ * A baby step table held on the heap as a {@link FingerprintTable},
+ * mapping the fingerprint of <code>g^j mod p</code> to its exponent j.
+ * <p>
+ * The fingerprints are computed in parallel: the exponent range is split into chunks,
+ * each of them starting with a single exponentiation followed by one multiplication per baby step.
+ */
+public class InMemoryBabyStepTable implements IBabyStepTable {
+
+    /**
+     * The number of baby steps computed by a single task while building the table.
+     */
+    private static final int CHUNK_SIZE = 1 << 12;
+
+    private final ModInteger generator;
+    private final FingerprintTable table;
+
+    /**
+     * Computes the baby steps <code>g^j mod p</code> for all <code>j in [0, size)</code>.
+     *
+     * @param generator The generator g, relative to the prime modulus p.
+     * @param size      The number of baby steps to compute.
+     * @throws IllegalArgumentException If the size is smaller than 1 or the generator has no modulus.
+     */
+    public InMemoryBabyStepTable(ModInteger generator, int size) throws IllegalArgumentException {
+        this(generator, computeFingerprints(generator, size));
+    }
+
+    /**
+     * @param generator    The generator g, relative to the prime modulus p.
+     * @param fingerprints The fingerprints of the baby steps, indexed by their exponent.
+     */
+    InMemoryBabyStepTable(ModInteger generator, long[] fingerprints) {
+        this.generator = generator;
+        this.table = new FingerprintTable(fingerprints);
+    }
+
+    /**
+     * Computes the fingerprints of <code>g^j mod p</code> for all <code>j in [0, size)</code> in parallel.
+     *
+     * @param generator The generator g, relative to the prime modulus p.
+     * @param size      The number of baby steps.
+     * @return The fingerprints, indexed by their exponent.
+     * @throws IllegalArgumentException If the size is smaller than 1 or the generator has no modulus.
+     */
+    static long[] computeFingerprints(ModInteger generator, int size) throws IllegalArgumentException {
+        if (size < 1) {
+            throw new IllegalArgumentException("The table must hold at least one baby step.");
+        }
+
+        BigInteger p = generator.getModulus().asBigInteger();
+        if (p.signum() <= 0) {
+            throw new IllegalArgumentException("The generator must be relative to a prime modulus.");
+        }
+
+        BigInteger g = generator.asBigInteger();
+        long[] steps = new long[size];
+        int chunks = (size + CHUNK_SIZE - 1) / CHUNK_SIZE;
+
+        IntStream.range(0, chunks).parallel().forEach(chunk -> {
+            int start = chunk * CHUNK_SIZE;
+            int end = Math.min(size, start + CHUNK_SIZE);
+
+            BigInteger current = g.modPow(BigInteger.valueOf(start), p);
+            for (int j = start; j < end; j++) {
+                steps[j] = IBabyStepTable.fingerprint(current);
+                current = current.multiply(g).mod(p);
+            }
+        });
+
+        return steps;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ModInteger getGenerator() {
+        return this.generator;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size() {
+        return this.table.size();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int lookup(long fingerprint) {
+        return this.table.lookup(fingerprint);
+    }
+}
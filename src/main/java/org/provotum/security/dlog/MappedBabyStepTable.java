@@ -0,0 +1,210 @@
+package org.provotum.security.dlog;
+
+import org.provotum.security.arithmetic.ModInteger;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+/**
+ * A baby step table persisted on disk and memory-mapped on use.
+ * <p>
+ * The table is precomputed once per generator using {@link #write(Path, ModInteger, int)}
+ * and opened with {@link #open(Path, ModInteger)} without any further computation.
+ * As the file is mapped read-only, its pages are shared among all processes on the same host.
+ * <p>
+ * The file consists of a fixed-size header followed by the entries sorted by their fingerprint:
+ * <pre>
+ *     header: magic (4 bytes) | version (4 bytes) | SHA-256(p, g) (32 bytes) | size (4 bytes) | reserved (4 bytes)
+ *     entry:  fingerprint (8 bytes) | exponent (4 bytes)
+ * </pre>
+ * All values are stored in big-endian byte order.
+ */
+public class MappedBabyStepTable implements IBabyStepTable {
+
+    private static final int MAGIC = 0x50564253; // "PVBS"
+    private static final int VERSION = 1;
+
+    private static final int KEY_FINGERPRINT_LENGTH = 32;
+    private static final int HEADER_LENGTH = 48;
+    private static final int ENTRY_LENGTH = 12;
+
+    /**
+     * The maximum number of baby steps a single file may hold, bound by the maximum size of a mapped region.
+     */
+    public static final int MAX_SIZE = (Integer.MAX_VALUE - HEADER_LENGTH) / ENTRY_LENGTH;
+
+    private final ModInteger generator;
+    private final int size;
+    private final ByteBuffer entries;
+
+    private MappedBabyStepTable(ModInteger generator, int size, ByteBuffer entries) {
+        this.generator = generator;
+        this.size = size;
+        this.entries = entries;
+    }
+
+    /**
+     * Precompute the baby steps <code>g^j mod p</code> for all <code>j in [0, size)</code>
+     * and write them to the given file. An existing file is replaced atomically.
+     *
+     * @param file      The file to write the table to.
+     * @param generator The generator g, relative to the prime modulus p.
+     * @param size      The number of baby steps to compute.
+     * @throws IOException              If writing the file fails.
+     * @throws IllegalArgumentException If the size is not within [1, {@link #MAX_SIZE}].
+     */
+    public static void write(Path file, ModInteger generator, int size) throws IOException, IllegalArgumentException {
+        if (size < 1 || size > MAX_SIZE) {
+            throw new IllegalArgumentException("The table must hold between 1 and " + MAX_SIZE + " baby steps.");
+        }
+
+        // the hash table maps the sorted fingerprints back to their exponents
+        long[] fingerprints = InMemoryBabyStepTable.computeFingerprints(generator, size);
+        InMemoryBabyStepTable table = new InMemoryBabyStepTable(generator, fingerprints);
+        Arrays.parallelSort(fingerprints);
+
+        Path tmp = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName().toString(), ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.write(keyFingerprint(generator));
+            out.writeInt(size);
+            out.writeInt(0);
+
+            for (long fingerprint : fingerprints) {
+                out.writeLong(fingerprint);
+                out.writeInt(table.lookup(fingerprint));
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Open a table previously written by {@link #write(Path, ModInteger, int)} for the given generator.
+     *
+     * @param file      The file holding the table.
+     * @param generator The generator g, relative to the prime modulus p.
+     * @return The memory-mapped table.
+     * @throws IOException              If reading the file fails.
+     * @throws IllegalArgumentException If the file is malformed or was computed for another generator or prime modulus.
+     */
+    public static MappedBabyStepTable open(Path file, ModInteger generator) throws IOException, IllegalArgumentException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length < HEADER_LENGTH || length > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Provided table is invalid. Unexpected file length " + length + ".");
+            }
+
+            // the mapping stays valid after the channel is closed
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+
+            if (buffer.getInt(0) != MAGIC) {
+                throw new IllegalArgumentException("Provided table is invalid. Magic number does not match.");
+            }
+
+            if (buffer.getInt(4) != VERSION) {
+                throw new IllegalArgumentException("Provided table is invalid. Unsupported version " + buffer.getInt(4) + ".");
+            }
+
+            byte[] keyFingerprint = new byte[KEY_FINGERPRINT_LENGTH];
+            ((ByteBuffer) buffer.duplicate().position(8)).get(keyFingerprint);
+            if (! MessageDigest.isEqual(keyFingerprint, keyFingerprint(generator))) {
+                throw new IllegalArgumentException("Provided table was computed for another generator or prime modulus.");
+            }
+
+            int size = buffer.getInt(8 + KEY_FINGERPRINT_LENGTH);
+            if (size < 1 || length != HEADER_LENGTH + (long) size * ENTRY_LENGTH) {
+                throw new IllegalArgumentException("Provided table is invalid. Size does not match the file length.");
+            }
+
+            ByteBuffer entries = ((ByteBuffer) buffer.position(HEADER_LENGTH)).slice();
+
+            return new MappedBabyStepTable(generator, size, entries);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ModInteger getGenerator() {
+        return this.generator;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int lookup(long fingerprint) {
+        // binary search over the sorted entries, using absolute reads only
+        int low = 0;
+        int high = this.size - 1;
+
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long current = this.entries.getLong(mid * ENTRY_LENGTH);
+
+            if (current < fingerprint) {
+                low = mid + 1;
+            } else if (current > fingerprint) {
+                high = mid - 1;
+            } else {
+                return this.entries.getInt(mid * ENTRY_LENGTH + 8);
+            }
+        }
+
+        return - 1;
+    }
+
+    /**
+     * Creates the SHA-256 digest identifying the prime modulus p and the generator g of a table.
+     *
+     * @param generator The generator g, relative to the prime modulus p.
+     * @return The digest of p and g.
+     */
+    private static byte[] keyFingerprint(ModInteger generator) {
+        MessageDigest digest;
+
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+
+        update(digest, generator.getModulus().asBigInteger());
+        update(digest, generator.asBigInteger());
+
+        return digest.digest();
+    }
+
+    private static void update(MessageDigest digest, BigInteger value) {
+        byte[] bytes = value.toByteArray();
+
+        digest.update(ByteBuffer.allocate(4).putInt(bytes.length).array());
+        digest.update(bytes);
+    }
+}
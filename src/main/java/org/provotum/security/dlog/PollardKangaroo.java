@@ -0,0 +1,325 @@
+package org.provotum.security.dlog;
+
+import org.provotum.security.api.IDiscreteLogSolver;
+import org.provotum.security.arithmetic.FixedWidthArithmetic;
+import org.provotum.security.arithmetic.ModInteger;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Solves discrete logarithms within a bounded interval using Pollard's lambda (kangaroo) method,
+ * parallelized using distinguished points as described by van Oorschot and Wiener.
+ * <p>
+ * For an interval [a, b] of size n, tame kangaroos start at known exponents around the middle of the interval,
+ * while wild kangaroos start at the target. All kangaroos jump by pseudo-randomly chosen powers of the generator,
+ * where each jump only depends on the current group element. Once a tame and a wild kangaroo land on
+ * the same element, they follow the same path afterwards and the exponent of the target is the difference of
+ * the distances they have travelled:
+ * <pre>
+ *     g^(a + tame) = target * g^(wild)  =&gt;  m = a + tame - wild
+ * </pre>
+ * Collisions are detected at distinguished points, i.e. elements whose low bits are zero,
+ * which are the only elements ever stored. This requires <code>O(sqrt(n))</code> group operations per call,
+ * a small constant factor more than {@link BabyStepGiantStep}, but only a few dozen stored points
+ * per kangaroo instead of a table of <code>sqrt(n)</code> baby steps.
+ * <p>
+ * The kangaroos are split into pairs of one tame and one wild kangaroo, which jump in parallel on an {@link Executor}.
+ * The method is probabilistic: if no collision is found within a multiple of the expected number of jumps,
+ * the exponent is considered to lie outside the interval.
+ */
+public class PollardKangaroo implements IDiscreteLogSolver {
+
+    /**
+     * The number of lowest bits of a group element selecting its jump.
+     */
+    private static final int JUMP_BITS = 5;
+
+    /**
+     * The number of distinct jumps.
+     */
+    private static final int JUMPS = 1 << JUMP_BITS;
+
+    /**
+     * The number of jumps per kangaroo pair in between checks whether another pair has found the exponent.
+     */
+    private static final int JUMPS_PER_ROUND = 256;
+
+    /**
+     * The maximum number of jumps of all kangaroos, in multiples of the square root of the interval size.
+     * Twice the square root is expected.
+     */
+    private static final int JUMP_BUDGET = 32;
+
+    /**
+     * The interval size up to which the exponent is searched linearly.
+     */
+    private static final long LINEAR_SEARCH_LIMIT = 256;
+
+    private final int pairs;
+    private final Executor executor;
+
+    /**
+     * Create a solver using one pair of kangaroos per available processor, jumping on the common fork-join pool.
+     */
+    public PollardKangaroo() {
+        this(Runtime.getRuntime().availableProcessors(), ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param pairs    The number of pairs of one tame and one wild kangaroo.
+     * @param executor The executor to let all but the first pair jump on. The first pair jumps on the calling thread.
+     * @throws IllegalArgumentException If the number of pairs is not positive.
+     */
+    public PollardKangaroo(int pairs, Executor executor) throws IllegalArgumentException {
+        if (pairs < 1) {
+            throw new IllegalArgumentException("At least one pair of kangaroos is required.");
+        }
+
+        this.pairs = pairs;
+        this.executor = executor;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ModInteger solve(ModInteger generator, ModInteger target, long lowerBound, long upperBound) throws IllegalArgumentException {
+        if (lowerBound < 0 || upperBound < lowerBound) {
+            throw new IllegalArgumentException("The interval [" + lowerBound + ", " + upperBound + "] is invalid.");
+        }
+
+        BigInteger p = generator.getModulus().asBigInteger();
+        if (p.signum() <= 0) {
+            throw new IllegalArgumentException("The generator must be relative to a prime modulus.");
+        }
+
+        BigInteger g = generator.asBigInteger();
+        BigInteger y = target.asBigInteger().mod(p);
+
+        // the number of exponents to search, may only overflow for the full range of [0, Long.MAX_VALUE]
+        long range = upperBound - lowerBound + 1;
+        if (range <= 0) {
+            range = Long.MAX_VALUE;
+        }
+
+        // shift the target by the lower bound, so that we
+        // are looking for an exponent in [0, range) instead.
+        BigInteger shifted = y.multiply(g.modPow(BigInteger.valueOf(lowerBound), p).modInverse(p)).mod(p);
+
+        Long exponent = (range <= LINEAR_SEARCH_LIMIT) ?
+            linearSearch(g, shifted, p, range) :
+            new Search(g, shifted, p, range, 2 * this.pairs).run(this.pairs, this.executor);
+
+        if (null == exponent) {
+            return null;
+        }
+
+        return new ModInteger(BigInteger.valueOf(lowerBound + exponent));
+    }
+
+    private static Long linearSearch(BigInteger g, BigInteger target, BigInteger p, long range) {
+        BigInteger current = BigInteger.ONE;
+
+        for (long i = 0; i < range; i++) {
+            if (current.equals(target)) {
+                return i;
+            }
+
+            current = current.multiply(g).mod(p);
+        }
+
+        return null;
+    }
+
+    /**
+     * The state shared by all kangaroos searching for a single exponent.
+     * Group elements are held in Montgomery representation of a {@link FixedWidthArithmetic},
+     * which is unique for each element, hence may be compared and hashed directly.
+     */
+    private static final class Search {
+        private final FixedWidthArithmetic arithmetic;
+        private final BigInteger g;
+        private final BigInteger target;
+        private final BigInteger p;
+        private final long range;
+
+        private final long[] distances = new long[JUMPS];
+        private final long[][] jumps = new long[JUMPS][];
+        private final long meanJump;
+        private final int distinguishedBits;
+        private final long budget;
+
+        private final ConcurrentMap<BigInteger, Trail> trails = new ConcurrentHashMap<>();
+        private final AtomicReference<Long> result = new AtomicReference<>();
+        private final AtomicLong jumpCount = new AtomicLong();
+
+        private Search(BigInteger g, BigInteger target, BigInteger p, long range, int kangaroos) {
+            this.arithmetic = new FixedWidthArithmetic(p);
+            this.g = g;
+            this.target = target;
+            this.p = p;
+            this.range = range;
+
+            double sqrtRange = Math.sqrt((double) range);
+
+            // a mean jump of k * sqrt(n) / 4 for k kangaroos minimizes the expected number of jumps
+            this.meanJump = Math.max(1, (long) (kangaroos * sqrtRange / 4));
+
+            // expect about sqrt(n) / (16 * k) jumps in between distinguished points, so that kangaroos
+            // only travel a few percent further than necessary until a collision is detected.
+            long distinguishedDistance = Math.max(1, (long) (sqrtRange / (16 * kangaroos)));
+            this.distinguishedBits = 63 - Long.numberOfLeadingZeros(distinguishedDistance);
+
+            this.budget = (long) (JUMP_BUDGET * sqrtRange) + (long) kangaroos * JUMPS_PER_ROUND * (1L << this.distinguishedBits);
+
+            Random random = ThreadLocalRandom.current();
+            for (int i = 0; i < JUMPS; i++) {
+                this.distances[i] = 1 + (long) (random.nextDouble() * (2 * this.meanJump - 1));
+                this.jumps[i] = this.arithmetic.toMontgomery(g.modPow(BigInteger.valueOf(this.distances[i]), p));
+            }
+        }
+
+        /**
+         * Let the given number of kangaroo pairs jump until the exponent is found or the budget is exhausted.
+         *
+         * @return The exponent within [0, range), or null if none was found.
+         */
+        private Long run(int pairs, Executor executor) {
+            List<CompletableFuture<Void>> others = new ArrayList<>(pairs - 1);
+            for (int i = 1; i < pairs; i++) {
+                others.add(CompletableFuture.runAsync(this::jump, executor));
+            }
+
+            this.jump();
+
+            // the result is already known, so the remaining pairs stop within their current round
+            for (CompletableFuture<Void> other : others) {
+                try {
+                    other.join();
+                } catch (CompletionException e) {
+                    if (e.getCause() instanceof RuntimeException) {
+                        throw (RuntimeException) e.getCause();
+                    }
+
+                    throw e;
+                }
+            }
+
+            Long exponent = this.result.get();
+
+            return (null == exponent || exponent < 0) ? null : exponent;
+        }
+
+        /**
+         * Let one pair of a tame and a wild kangaroo jump until either has found the exponent,
+         * another pair has found it, or the budget is exhausted.
+         */
+        private void jump() {
+            FixedWidthArithmetic.Workspace workspace = this.arithmetic.newWorkspace();
+            Kangaroo tame = new Kangaroo(true, this.arithmetic.newNumber());
+            Kangaroo wild = new Kangaroo(false, this.arithmetic.newNumber());
+
+            this.start(tame);
+            this.start(wild);
+
+            while (null == this.result.get() && this.jumpCount.addAndGet(2 * JUMPS_PER_ROUND) <= this.budget) {
+                for (int i = 0; i < JUMPS_PER_ROUND; i++) {
+                    if (this.step(tame, workspace) || this.step(wild, workspace)) {
+                        return;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Move the given kangaroo to a random starting point: tame kangaroos start
+         * at the middle of the interval, wild kangaroos at the target.
+         */
+        private void start(Kangaroo kangaroo) {
+            long offset = ThreadLocalRandom.current().nextLong(this.meanJump);
+
+            if (kangaroo.tame) {
+                kangaroo.distance = this.range / 2 + offset;
+                this.arithmetic.toMontgomery(this.g.modPow(BigInteger.valueOf(kangaroo.distance), this.p), kangaroo.position);
+            } else {
+                kangaroo.distance = offset;
+                this.arithmetic.toMontgomery(this.target.multiply(this.g.modPow(BigInteger.valueOf(offset), this.p)), kangaroo.position);
+            }
+        }
+
+        /**
+         * Let the given kangaroo jump once, and record its position if it is distinguished.
+         *
+         * @return True, if the search has finished.
+         */
+        private boolean step(Kangaroo kangaroo, FixedWidthArithmetic.Workspace workspace) {
+            long[] position = kangaroo.position;
+            int index = (int) (position[0] & (JUMPS - 1));
+
+            this.arithmetic.multiply(position, this.jumps[index], position, workspace);
+            kangaroo.distance += this.distances[index];
+
+            // the lowest bits select the jump, hence distinguished points are told apart by the bits above
+            long bits = (position.length > 1) ? (position[0] | (position[1] << 32)) : position[0];
+            if (((bits >>> JUMP_BITS) & ((1L << this.distinguishedBits) - 1)) != 0) {
+                return false;
+            }
+
+            Trail trail = new Trail(kangaroo.tame, kangaroo.distance);
+            Trail other = this.trails.putIfAbsent(this.arithmetic.fromNumber(position), trail);
+
+            if (null == other) {
+                return false;
+            }
+
+            if (other.tame == trail.tame) {
+                // both kangaroos follow the same path from here on, hence one of them has to start over
+                this.start(kangaroo);
+                return false;
+            }
+
+            long tameDistance = trail.tame ? trail.distance : other.distance;
+            long wildDistance = trail.tame ? other.distance : trail.distance;
+            long exponent = tameDistance - wildDistance;
+
+            // the exponent of the target is only congruent to the difference, which is outside the interval
+            // if the target is. A negative result marks the search as finished without an exponent.
+            this.result.compareAndSet(null, (exponent >= 0 && exponent < this.range) ? exponent : -1L);
+
+            return true;
+        }
+    }
+
+    private static final class Kangaroo {
+        private final boolean tame;
+        private final long[] position;
+        private long distance;
+
+        private Kangaroo(boolean tame, long[] position) {
+            this.tame = tame;
+            this.position = position;
+        }
+    }
+
+    private static final class Trail {
+        private final boolean tame;
+        private final long distance;
+
+        private Trail(boolean tame, long distance) {
+            this.tame = tame;
+            this.distance = distance;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package org.provotum.security.elgamal;
 
+import org.bouncycastle.crypto.params.DSAPrivateKeyParameters;
 import org.bouncycastle.jce.interfaces.ElGamalPrivateKey;
 import org.provotum.security.arithmetic.ModInteger;
 
@@ -26,9 +27,18 @@ public class PrivateKey {
         this.x = new ModInteger(privateKey.getX());
     }
 
+    /**
+     * Create a key of a Schnorr group, i.e. of DSA parameters.
+     *
+     * @param privateKey The DSA private key to use, holding p, the order q and the generator g.
+     */
+    public PrivateKey(DSAPrivateKeyParameters privateKey) {
+        this(privateKey.getParameters().getP(), privateKey.getParameters().getQ(), privateKey.getParameters().getG(), privateKey.getX());
+    }
+
     /**
      * @param p The prime modulus p.
-     * @param q The number q wrt. to p: (p - 1) / 2
+     * @param q The prime order q of g, i.e. <code>(p - 1) / 2</code> for safe primes
      * @param g The generator g.
      * @param x The private key x.
      */
@@ -51,7 +61,7 @@ public class PrivateKey {
     /**
      * A value representing the prime modulus <b>p</b>.
      * <p>
-     * <code>p = 2*q + 1</code>
+     * <code>p = 2*q + 1</code> for safe primes, <code>p = k*q + 1</code> for Schnorr groups.
      *
      * @return The prime modulus <b>p</b>.
      */
@@ -60,9 +70,9 @@ public class PrivateKey {
     }
 
     /**
-     * A value representing the component of p <b>q</b>.
+     * A value representing the prime order <b>q</b> of the generator.
      * <p>
-     * <code>q = (p - 1) / 2</code>
+     * <code>q = (p - 1) / 2</code> for safe primes, a divisor of <code>p - 1</code> for Schnorr groups.
      *
      * @return The component <b>q</b>.
      */
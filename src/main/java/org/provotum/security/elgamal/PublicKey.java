@@ -1,19 +1,63 @@
 package org.provotum.security.elgamal;
 
+import org.bouncycastle.crypto.params.DSAPublicKeyParameters;
 import org.bouncycastle.jce.interfaces.ElGamalPublicKey;
+import org.provotum.security.arithmetic.FixedBaseExponentiation;
 import org.provotum.security.arithmetic.ModInteger;
+import org.provotum.security.serializer.Transcript;
 
 import java.math.BigInteger;
 
 /**
  * An ElGamal public key.
+ * <p>
+ * The key works in the subgroup of prime order q generated by g. For safe primes <code>p = 2*q + 1</code>,
+ * this subgroup consists of the quadratic residues mod p. For Schnorr groups, as used by DSA,
+ * q is a much shorter prime dividing <code>p - 1</code>, e.g. of 256 bits for a prime p of 2048 bits.
+ * All exponents, such as the randomness of encryptions and the responses of proofs, are reduced modulo q,
+ * hence a short q speeds up every exponentiation.
+ * <p>
+ * As the generator g and the public value h are fixed for the lifetime of a key,
+ * exponentiations of both may be served from precomputed tables, see {@link #powG(ModInteger)}
+ * and {@link #powH(ModInteger)}. Building the tables takes far longer than a single exponentiation,
+ * hence they are only built on request, using {@link #precompute(long)} or {@link #ensurePrecomputed()},
+ * by callers which exponentiate many times using the same key. Otherwise, regular exponentiations are used.
+ * <p>
+ * The key records the security profile of the randomness used to encrypt, see {@link #randomExponent()}.
+ * By default, the randomness r is drawn uniformly from <code>[0, q)</code>. Under the short exponent assumption,
+ * r may instead be drawn from <code>[0, 2^l)</code> for some l of at least twice the security level,
+ * bounded below by {@link #MIN_RANDOMNESS_BITS}. Shorter randomness could be recovered from <code>g^r</code>
+ * by a brute-force search, revealing the plaintext. For safe primes of 2048 bits and more, this shortens each
+ * exponentiation during encryption by a large factor. The format of cipher texts is not affected.
  */
 public class PublicKey {
 
+    /**
+     * The default number of bytes the precomputed tables for g and h may occupy in total.
+     */
+    public static final long DEFAULT_PRECOMPUTATION_BUDGET = 32L << 20;
+
+    /**
+     * The randomness of encryptions is drawn uniformly from <code>[0, q)</code>.
+     */
+    public static final int FULL_LENGTH_RANDOMNESS = 0;
+
+    /**
+     * The minimal bit length of short randomness, i.e. twice the security level of 128 bits.
+     */
+    public static final int MIN_RANDOMNESS_BITS = 256;
+
     private final ModInteger p;
     private final ModInteger q;
     private final ModInteger h;
     private final ModInteger g;
+    private final int randomnessBits;
+    private final ModInteger randomnessBound;
+
+    private volatile FixedBaseExponentiation gExponentiation;
+    private volatile FixedBaseExponentiation hExponentiation;
+    private volatile Transcript transcript;
+    private volatile ModInteger inverseG;
 
     /**
      * @param publicKey The ElGamal public key to use.
@@ -25,19 +69,63 @@ public class PublicKey {
         this.q = new ModInteger(q);
         this.g = new ModInteger(publicKey.getParameters().getG(), publicKey.getParameters().getP());
         this.h = new ModInteger(publicKey.getY(), publicKey.getParameters().getP());
+        this.randomnessBits = FULL_LENGTH_RANDOMNESS;
+        this.randomnessBound = this.q;
+    }
+
+    /**
+     * Create a key of a Schnorr group, i.e. of DSA parameters.
+     *
+     * @param publicKey The DSA public key to use, holding p, the order q and the generator g.
+     */
+    public PublicKey(DSAPublicKeyParameters publicKey) {
+        this(publicKey.getParameters().getP(), publicKey.getParameters().getQ(), publicKey.getParameters().getG(), publicKey.getY());
     }
 
     /**
      * @param p The prime modulus p.
-     * @param q The number q wrt. to p: (p - 1) / 2
+     * @param q The prime order q of g, i.e. <code>(p - 1) / 2</code> for safe primes
      * @param g The generator g.
      * @param h The public key value, i.e. <code>h := y := (g^x) mod p</code>.
      */
     public PublicKey(BigInteger p, BigInteger q, BigInteger g, BigInteger h) {
+        this(p, q, g, h, FULL_LENGTH_RANDOMNESS);
+    }
+
+    /**
+     * @param p              The prime modulus p.
+     * @param q              The prime order q of g, i.e. <code>(p - 1) / 2</code> for safe primes
+     * @param g              The generator g.
+     * @param h              The public key value, i.e. <code>h := y := (g^x) mod p</code>.
+     * @param randomnessBits The bit length l of the randomness of encryptions,
+     *                       or {@link #FULL_LENGTH_RANDOMNESS} to draw it from <code>[0, q)</code>.
+     * @throws IllegalArgumentException If the bit length is less than {@link #MIN_RANDOMNESS_BITS}
+     *                                  or not less than the bit length of q.
+     */
+    public PublicKey(BigInteger p, BigInteger q, BigInteger g, BigInteger h, int randomnessBits) throws IllegalArgumentException {
+        checkRandomnessBits(randomnessBits, q);
+
         this.p = new ModInteger(p);
         this.q = new ModInteger(q);
         this.g = new ModInteger(g, p);
         this.h = new ModInteger(h, p);
+        this.randomnessBits = randomnessBits;
+        this.randomnessBound = (FULL_LENGTH_RANDOMNESS == randomnessBits) ?
+            this.q :
+            new ModInteger(BigInteger.ONE.shiftLeft(randomnessBits));
+    }
+
+    /**
+     * Create a key of the same group and public value, with another security profile for the randomness of encryptions.
+     *
+     * @param randomnessBits The bit length l of the randomness of encryptions,
+     *                       or {@link #FULL_LENGTH_RANDOMNESS} to draw it from <code>[0, q)</code>.
+     * @return The key using the given profile.
+     * @throws IllegalArgumentException If the bit length is less than {@link #MIN_RANDOMNESS_BITS}
+     *                                  or not less than the bit length of q.
+     */
+    public PublicKey withRandomnessBits(int randomnessBits) throws IllegalArgumentException {
+        return new PublicKey(this.p.asBigInteger(), this.q.asBigInteger(), this.g.asBigInteger(), this.h.asBigInteger(), randomnessBits);
     }
 
     /**
@@ -61,7 +149,7 @@ public class PublicKey {
     /**
      * A value representing the prime modulus <b>p</b>.
      * <p>
-     * <code>p = 2*q + 1</code>
+     * <code>p = 2*q + 1</code> for safe primes, <code>p = k*q + 1</code> for Schnorr groups.
      *
      * @return The prime modulus <b>p</b>.
      */
@@ -70,9 +158,9 @@ public class PublicKey {
     }
 
     /**
-     * A value representing the prime <b>q</b> corresponding to <b>p</b>.
+     * A value representing the prime order <b>q</b> of the generator.
      * <p>
-     * <code>q = (p - 1)/ 2</code>
+     * <code>q = (p - 1)/ 2</code> for safe primes, a divisor of <code>p - 1</code> for Schnorr groups.
      *
      * @return The corresponding prime <b>q</b>.
      */
@@ -80,9 +168,181 @@ public class PublicKey {
         return q;
     }
 
+    /**
+     * Checks whether randomness of the given bit length may be used in the group of order q.
+     *
+     * @param randomnessBits The bit length l of the randomness, or {@link #FULL_LENGTH_RANDOMNESS}.
+     * @param q              The order q of the group.
+     * @throws IllegalArgumentException If the bit length is less than {@link #MIN_RANDOMNESS_BITS}
+     *                                  or not less than the bit length of q.
+     */
+    public static void checkRandomnessBits(int randomnessBits, BigInteger q) throws IllegalArgumentException {
+        if (FULL_LENGTH_RANDOMNESS == randomnessBits) {
+            return;
+        }
+
+        if (randomnessBits < MIN_RANDOMNESS_BITS) {
+            throw new IllegalArgumentException("The randomness must have at least " + MIN_RANDOMNESS_BITS + " bits.");
+        }
+
+        if (randomnessBits >= q.bitLength()) {
+            throw new IllegalArgumentException("The randomness must be shorter than the " + q.bitLength() + " bits of q.");
+        }
+    }
+
+    /**
+     * The inverse of the generator, computed once on first use.
+     *
+     * @return <code>g^(-1) mod p</code>
+     */
+    public ModInteger getInverseG() {
+        ModInteger inverse = this.inverseG;
+
+        if (null == inverse) {
+            inverse = new ModInteger(this.g.asBigInteger().modInverse(this.p.asBigInteger()), this.p.asBigInteger());
+            this.inverseG = inverse;
+        }
+
+        return inverse;
+    }
+
+    /**
+     * The bit length l of the randomness of encryptions.
+     *
+     * @return The bit length l, or {@link #FULL_LENGTH_RANDOMNESS} if the randomness is drawn from <code>[0, q)</code>.
+     */
+    public int getRandomnessBits() {
+        return this.randomnessBits;
+    }
+
+    /**
+     * Draw the randomness r of an encryption according to the security profile of this key,
+     * i.e. uniformly from <code>[0, q)</code> or from <code>[0, 2^l)</code> for short exponents.
+     *
+     * @return The randomness r, modulo q.
+     */
+    public ModInteger randomExponent() {
+        ModInteger random = ModInteger.random(this.randomnessBound);
+
+        return (this.randomnessBound == this.q) ? random : new ModInteger(random.asBigInteger(), this.q.asBigInteger());
+    }
+
+    /**
+     * Exponentiate the generator g to the power of the given exponent,
+     * using the precomputed table if available.
+     *
+     * @param exponent The exponent.
+     * @return <code>g^exponent mod p</code>
+     */
+    public ModInteger powG(ModInteger exponent) {
+        FixedBaseExponentiation exponentiation = this.gExponentiation;
+
+        if (null == exponentiation) {
+            return this.g.pow(exponent);
+        }
+
+        return exponentiation.pow(exponent);
+    }
+
+    /**
+     * Exponentiate the public value h to the power of the given exponent,
+     * using the precomputed table if available.
+     *
+     * @param exponent The exponent.
+     * @return <code>h^exponent mod p</code>
+     */
+    public ModInteger powH(ModInteger exponent) {
+        FixedBaseExponentiation exponentiation = this.hExponentiation;
+
+        if (null == exponentiation) {
+            return this.h.pow(exponent);
+        }
+
+        return exponentiation.pow(exponent);
+    }
+
+    /**
+     * Build the tables of precomputed powers of g and h within {@link #DEFAULT_PRECOMPUTATION_BUDGET},
+     * unless they were built before.
+     */
+    public void ensurePrecomputed() {
+        this.precompute(DEFAULT_PRECOMPUTATION_BUDGET, false);
+    }
+
+    /**
+     * (Re-)Build the tables of precomputed powers of g and h for exponents up to the bit length of q.
+     * The budget is split evenly between both tables. A budget too small to hold
+     * any precomputed power results in regular exponentiations.
+     *
+     * @param memoryBudget The number of bytes the precomputed tables may occupy in total.
+     */
+    public void precompute(long memoryBudget) {
+        this.precompute(memoryBudget, true);
+    }
+
+    private synchronized void precompute(long memoryBudget, boolean force) {
+        // h is assigned last, hence both tables are available if h is
+        if (! force && null != this.hExponentiation) {
+            return;
+        }
+
+        int maxExponentBits = Math.max(1, this.q.asBigInteger().bitLength());
+
+        FixedBaseExponentiation hExponentiation = new FixedBaseExponentiation(this.h, maxExponentBits, memoryBudget / 2);
+        this.gExponentiation = new FixedBaseExponentiation(this.g, maxExponentBits, memoryBudget / 2);
+        this.hExponentiation = hExponentiation;
+    }
+
+    /**
+     * Creates a transcript for a non-interactive proof relative to this key,
+     * already holding the prime modulus p, the order q, the generator g and the public value h.
+     * The digest state of these values is computed once and copied on each call.
+     *
+     * @return A new transcript.
+     */
+    public Transcript transcript() {
+        Transcript prefix = this.transcript;
+
+        if (null == prefix) {
+            prefix = new Transcript(this.p)
+                .append(this.p)
+                .append(this.q)
+                .append(this.g)
+                .append(this.h);
+            this.transcript = prefix;
+        }
+
+        return prefix.copy();
+    }
+
+    /**
+     * Checks whether the given value is an element of the subgroup of order q generated by g.
+     * <p>
+     * For safe primes <code>p = 2*q + 1</code> this subgroup consists of the quadratic residues mod p,
+     * allowing to use the Jacobi symbol instead of an exponentiation.
+     *
+     * @param element The value to check.
+     * @return True, if the value is within the subgroup of order q, false otherwise.
+     */
+    public boolean isGroupElement(ModInteger element) {
+        BigInteger p = this.p.asBigInteger();
+        BigInteger value = element.asBigInteger();
+
+        if (value.signum() <= 0 || value.compareTo(p) >= 0) {
+            return false;
+        }
+
+        BigInteger q = this.q.asBigInteger();
+        if (q.shiftLeft(1).add(BigInteger.ONE).equals(p)) {
+            return new ModInteger(value, p).jacobi() == 1;
+        }
+
+        return value.modPow(q, p).equals(BigInteger.ONE);
+    }
+
     @Override
     public int hashCode() {
-        return this.h.hashCode() | this.g.hashCode() | this.p.hashCode() | this.q.hashCode();
+        return this.h.hashCode() | this.g.hashCode() | this.p.hashCode() | this.q.hashCode() | this.randomnessBits;
     }
 
     @Override
@@ -91,6 +351,7 @@ public class PublicKey {
             this.h.equals(((PublicKey) o).h) &&
             this.g.equals(((PublicKey) o).g) &&
             this.p.equals(((PublicKey) o).p) &&
-            this.q.equals(((PublicKey) o).q);
+            this.q.equals(((PublicKey) o).q) &&
+            this.randomnessBits == ((PublicKey) o).randomnessBits;
     }
 }
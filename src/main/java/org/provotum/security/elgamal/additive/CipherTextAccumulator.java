@@ -0,0 +1,160 @@
+package org.provotum.security.elgamal.additive;
+
+import org.provotum.security.arithmetic.FixedWidthArithmetic;
+import org.provotum.security.arithmetic.ModInteger;
+import org.provotum.security.arithmetic.MutableModInteger;
+import org.provotum.security.elgamal.PublicKey;
+
+import java.math.BigInteger;
+
+/**
+ * Accumulates the homomorphic sum of many ciphertexts in place.
+ * <p>
+ * Folding ciphertexts using {@link CipherText#operate(CipherText)} creates a new ciphertext
+ * and several intermediate numbers for each operand. This accumulator instead multiplies
+ * the components G and H into two {@link MutableModInteger}s, and creates a single
+ * {@link CipherText} when the result is requested:
+ * <pre>
+ *     prod_i( E(m_i) ) = (prod_i( G_i ), prod_i( H_i )) = E(sum_i( m_i ))
+ * </pre>
+ * The random values r of the ciphertexts are summed as well, as long as all of them are known.
+ * <p>
+ * Instances must not be shared between threads.
+ */
+public class CipherTextAccumulator {
+
+    private final PublicKey publicKey;
+
+    private final MutableModInteger bigG;
+    private final MutableModInteger bigH;
+
+    private BigInteger r;
+    private BigInteger rModulus;
+    private long size;
+
+    /**
+     * Create an accumulator holding the encryption of 0.
+     *
+     * @param publicKey The public key used during encryption.
+     */
+    public CipherTextAccumulator(PublicKey publicKey) {
+        FixedWidthArithmetic arithmetic = new FixedWidthArithmetic(publicKey.getP().asBigInteger());
+
+        this.publicKey = publicKey;
+        this.bigG = new MutableModInteger(arithmetic);
+        this.bigH = new MutableModInteger(arithmetic);
+
+        this.reset();
+    }
+
+    /**
+     * @return The public key used during encryption.
+     */
+    public PublicKey getPublicKey() {
+        return this.publicKey;
+    }
+
+    /**
+     * @return The number of ciphertexts added since creation or the last reset.
+     */
+    public long size() {
+        return this.size;
+    }
+
+    /**
+     * Reset this accumulator to the encryption of 0.
+     */
+    public void reset() {
+        this.bigG.setOne();
+        this.bigH.setOne();
+        this.r = BigInteger.ZERO;
+        this.rModulus = null;
+        this.size = 0;
+    }
+
+    /**
+     * Homomorphically add the given ciphertext.
+     *
+     * @param cipherText The ciphertext to add.
+     * @return This accumulator.
+     */
+    public CipherTextAccumulator add(CipherText cipherText) {
+        this.bigG.multiply(cipherText.getG());
+        this.bigH.multiply(cipherText.getH());
+
+        if (null != this.r) {
+            ModInteger r = cipherText.getR();
+
+            if (null == r) {
+                this.r = null;
+            } else {
+                this.r = this.r.add(r.asBigInteger());
+                this.rModulus = r.getModulus().asBigInteger();
+            }
+        }
+
+        this.size++;
+
+        return this;
+    }
+
+    /**
+     * Homomorphically add all given ciphertexts.
+     *
+     * @param cipherTexts The ciphertexts to add.
+     * @return This accumulator.
+     */
+    public CipherTextAccumulator addAll(Iterable<CipherText> cipherTexts) {
+        for (CipherText cipherText : cipherTexts) {
+            this.add(cipherText);
+        }
+
+        return this;
+    }
+
+    /**
+     * Homomorphically add the sum of another accumulator. The other accumulator is not modified.
+     *
+     * @param other The accumulator to add.
+     * @return This accumulator.
+     * @throws IllegalArgumentException If the other accumulator belongs to another public key.
+     */
+    public CipherTextAccumulator merge(CipherTextAccumulator other) throws IllegalArgumentException {
+        if (! this.publicKey.equals(other.publicKey)) {
+            throw new IllegalArgumentException("Cannot merge accumulators of different public keys.");
+        }
+
+        this.bigG.multiply(other.bigG);
+        this.bigH.multiply(other.bigH);
+
+        if (null == other.r) {
+            this.r = null;
+        } else if (null != this.r) {
+            this.r = this.r.add(other.r);
+            this.rModulus = (null == this.rModulus) ? other.rModulus : this.rModulus;
+        }
+
+        this.size += other.size;
+
+        return this;
+    }
+
+    /**
+     * @return The ciphertext of the sum of all added ciphertexts. The random value r is null,
+     * if it was not known for any of them.
+     */
+    public CipherText toCipherText() {
+        BigInteger p = this.publicKey.getP().asBigInteger();
+
+        ModInteger r = null;
+        if (null != this.r) {
+            r = (null == this.rModulus) ? new ModInteger(this.r) : new ModInteger(this.r, this.rModulus);
+        }
+
+        return new CipherText(
+            new ModInteger(this.bigG.asBigInteger(), p),
+            new ModInteger(this.bigH.asBigInteger(), p),
+            r
+        );
+    }
+}
@@ -0,0 +1,102 @@
+package org.provotum.security.elgamal.additive;
+
+import org.provotum.security.api.IHomomorphicCipherText;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An additive homomorphic encryption of a value split into residues, as created by {@link CrtEncoding}.
+ * <p>
+ * Each component is a {@link CipherText} of the residue of the value modulo one of the moduli
+ * of the encoding:
+ * <pre>
+ *     E(m) = (E(m mod n_1), ..., E(m mod n_k))
+ * </pre>
+ * The homomorphic operation is applied component-wise. As the residues are not reduced by the
+ * homomorphic operation, each component of a sum of s encodings holds a plaintext within
+ * <code>[0, s * (n_i - 1)]</code>. Therefore, the number s of summed encodings is tracked as well.
+ */
+public class CrtCipherText implements IHomomorphicCipherText<CrtCipherText> {
+
+    private final List<CipherText> components;
+    private final long additions;
+
+    /**
+     * @param components The cipher texts of the residues, in the order of the moduli of the encoding.
+     * @param additions  The number of encodings summed into this cipher text, i.e. 1 for a fresh encryption.
+     * @throws IllegalArgumentException If there are no components or the number of additions is not positive.
+     */
+    public CrtCipherText(List<CipherText> components, long additions) throws IllegalArgumentException {
+        if (components.isEmpty()) {
+            throw new IllegalArgumentException("At least one component is required.");
+        }
+
+        if (additions < 1) {
+            throw new IllegalArgumentException("The number of additions must be positive.");
+        }
+
+        this.components = Collections.unmodifiableList(new ArrayList<>(components));
+        this.additions = additions;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Adds the given cipher text's plaintext value to this instance's value, component by component.
+     *
+     * @param operand The cipher text to add using multiplication.
+     * @return The resulting cipher text
+     * @throws IllegalArgumentException If the operand has a different number of components.
+     */
+    @Override
+    public CrtCipherText operate(CrtCipherText operand) throws IllegalArgumentException {
+        if (operand.components.size() != this.components.size()) {
+            throw new IllegalArgumentException("Cannot add cipher texts of " + this.components.size() + " and " + operand.components.size() + " components.");
+        }
+
+        List<CipherText> sum = new ArrayList<>(this.components.size());
+        for (int i = 0; i < this.components.size(); i++) {
+            sum.add(this.components.get(i).operate(operand.components.get(i)));
+        }
+
+        return new CrtCipherText(sum, this.additions + operand.additions);
+    }
+
+    /**
+     * @return The cipher texts of the residues, in the order of the moduli of the encoding.
+     */
+    public List<CipherText> getComponents() {
+        return this.components;
+    }
+
+    /**
+     * @return The number of encodings summed into this cipher text.
+     */
+    public long getAdditions() {
+        return this.additions;
+    }
+
+    @Override
+    public int hashCode() {
+        return this.components.hashCode() | Long.hashCode(this.additions);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return (this == o) || (o instanceof CrtCipherText) &&
+            this.additions == ((CrtCipherText) o).additions &&
+            this.components.equals(((CrtCipherText) o).components);
+    }
+
+    @Override
+    public CrtCipherText clone() {
+        List<CipherText> components = new ArrayList<>(this.components.size());
+        for (CipherText component : this.components) {
+            components.add(component.clone());
+        }
+
+        return new CrtCipherText(components, this.additions);
+    }
+}
@@ -0,0 +1,191 @@
+package org.provotum.security.elgamal.additive;
+
+import org.provotum.security.api.IHomomorphicEncryption;
+import org.provotum.security.arithmetic.ModInteger;
+import org.provotum.security.elgamal.PrivateKey;
+import org.provotum.security.elgamal.PublicKey;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Encodes large counters as several additive ciphertexts of their residues modulo small pairwise coprime moduli.
+ * <p>
+ * Decrypting an additive ElGamal ciphertext requires solving the discrete logarithm of g^m,
+ * whose cost grows with the square root of the largest possible plaintext. Instead, a value
+ * <code>m</code> within <code>[0, N)</code> with <code>N = n_1 * ... * n_k</code> is split into the residues
+ * <code>m mod n_i</code>, each encrypted separately as a {@link CrtCipherText}. Sums are computed component-wise.
+ * <p>
+ * To decrypt, each component is decrypted on its own, which only requires a search within
+ * <code>[0, s * (n_i - 1)]</code> for a sum of s encodings, independent of the size of the encoded values.
+ * The value is then recombined from its residues using the Chinese remainder theorem:
+ * <pre>
+ *     m = sum_i( (m mod n_i) * N_i * (N_i^(-1) mod n_i) ) mod N, with N_i = N / n_i
+ * </pre>
+ * As the result is only known modulo N, the sum of all encoded values must stay below N.
+ */
+public class CrtEncoding {
+
+    private final IHomomorphicEncryption<CipherText> encryption;
+    private final List<BigInteger> moduli;
+    private final List<BigInteger> coefficients;
+    private final BigInteger capacity;
+    private final long maxModulus;
+
+    /**
+     * @param encryption The encryption used for the components.
+     * @param moduli     The pairwise coprime moduli, each at least 2.
+     * @throws IllegalArgumentException If no moduli are given, any modulus is less than 2 or two moduli are not coprime.
+     */
+    public CrtEncoding(IHomomorphicEncryption<CipherText> encryption, long... moduli) throws IllegalArgumentException {
+        if (moduli.length == 0) {
+            throw new IllegalArgumentException("At least one modulus is required.");
+        }
+
+        List<BigInteger> values = new ArrayList<>(moduli.length);
+        BigInteger capacity = BigInteger.ONE;
+        long maxModulus = 0;
+
+        for (long modulus : moduli) {
+            if (modulus < 2) {
+                throw new IllegalArgumentException("Each modulus must be at least 2.");
+            }
+
+            BigInteger value = BigInteger.valueOf(modulus);
+            if (! capacity.gcd(value).equals(BigInteger.ONE)) {
+                throw new IllegalArgumentException("The moduli must be pairwise coprime.");
+            }
+
+            values.add(value);
+            capacity = capacity.multiply(value);
+            maxModulus = Math.max(maxModulus, modulus);
+        }
+
+        // N_i * (N_i^(-1) mod n_i), to recombine the residues
+        List<BigInteger> coefficients = new ArrayList<>(moduli.length);
+        for (BigInteger modulus : values) {
+            BigInteger cofactor = capacity.divide(modulus);
+            coefficients.add(cofactor.multiply(cofactor.modInverse(modulus)));
+        }
+
+        this.encryption = encryption;
+        this.moduli = Collections.unmodifiableList(values);
+        this.coefficients = coefficients;
+        this.capacity = capacity;
+        this.maxModulus = maxModulus;
+    }
+
+    /**
+     * Create an encoding of the given capacity, using the largest primes not exceeding the given bound as moduli.
+     *
+     * @param encryption The encryption used for the components.
+     * @param capacity   The minimal capacity N, i.e. the sum of all encoded values has to be less than N.
+     * @param maxModulus The largest modulus to use.
+     * @return The encoding.
+     * @throws IllegalArgumentException If the capacity is not positive, the maximum modulus is less than 2,
+     *                                  or there are not enough primes below the maximum modulus.
+     */
+    public static CrtEncoding forCapacity(IHomomorphicEncryption<CipherText> encryption, BigInteger capacity, long maxModulus) throws IllegalArgumentException {
+        if (capacity.signum() <= 0) {
+            throw new IllegalArgumentException("The capacity must be positive.");
+        }
+
+        if (maxModulus < 2) {
+            throw new IllegalArgumentException("The maximum modulus must be at least 2.");
+        }
+
+        List<Long> primes = new ArrayList<>();
+        BigInteger product = BigInteger.ONE;
+
+        for (long candidate = maxModulus; product.compareTo(capacity) < 0; candidate--) {
+            if (candidate < 2) {
+                throw new IllegalArgumentException("The primes up to " + maxModulus + " do not provide a capacity of " + capacity + ".");
+            }
+
+            if (BigInteger.valueOf(candidate).isProbablePrime(64)) {
+                primes.add(candidate);
+                product = product.multiply(BigInteger.valueOf(candidate));
+            }
+        }
+
+        long[] moduli = new long[primes.size()];
+        for (int i = 0; i < moduli.length; i++) {
+            moduli[i] = primes.get(i);
+        }
+
+        return new CrtEncoding(encryption, moduli);
+    }
+
+    /**
+     * @return The moduli, in the order of the components.
+     */
+    public List<BigInteger> getModuli() {
+        return this.moduli;
+    }
+
+    /**
+     * @return The capacity N, i.e. the product of all moduli.
+     */
+    public BigInteger getCapacity() {
+        return this.capacity;
+    }
+
+    /**
+     * Encrypt the given value.
+     *
+     * @param publicKey The public key used to encrypt.
+     * @param message   The value to encrypt.
+     * @return The cipher texts of the residues of the value.
+     * @throws IllegalArgumentException If the value is not within [0, N).
+     */
+    public CrtCipherText encrypt(PublicKey publicKey, ModInteger message) throws IllegalArgumentException {
+        BigInteger value = message.asBigInteger();
+
+        if (value.signum() < 0 || value.compareTo(this.capacity) >= 0) {
+            throw new IllegalArgumentException("The message must be within [0, " + this.capacity + ").");
+        }
+
+        List<ModInteger> residues = new ArrayList<>(this.moduli.size());
+        for (BigInteger modulus : this.moduli) {
+            residues.add(new ModInteger(value.mod(modulus)));
+        }
+
+        return new CrtCipherText(this.encryption.encryptAll(publicKey, residues), 1);
+    }
+
+    /**
+     * Decrypt the given cipher text.
+     *
+     * @param privateKey The private key used to decrypt.
+     * @param cipherText The cipher text to decrypt.
+     * @return The decrypted value within [0, N).
+     * @throws IllegalArgumentException If the cipher text does not hold one component per modulus,
+     *                                  or any component does not decrypt to a value within the expected bound.
+     */
+    public ModInteger decrypt(PrivateKey privateKey, CrtCipherText cipherText) throws IllegalArgumentException {
+        List<CipherText> components = cipherText.getComponents();
+
+        if (components.size() != this.moduli.size()) {
+            throw new IllegalArgumentException("Expected " + this.moduli.size() + " components, got " + components.size() + ".");
+        }
+
+        long upperBound;
+        try {
+            upperBound = Math.multiplyExact(cipherText.getAdditions(), this.maxModulus - 1);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("The components of a sum of " + cipherText.getAdditions() + " encodings cannot be decrypted.", e);
+        }
+
+        List<ModInteger> sums = this.encryption.decryptAll(privateKey, components, upperBound);
+
+        BigInteger value = BigInteger.ZERO;
+        for (int i = 0; i < sums.size(); i++) {
+            BigInteger residue = sums.get(i).asBigInteger().mod(this.moduli.get(i));
+            value = value.add(residue.multiply(this.coefficients.get(i)));
+        }
+
+        return new ModInteger(value.mod(this.capacity));
+    }
+}
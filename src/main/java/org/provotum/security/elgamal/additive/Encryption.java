@@ -1,10 +1,26 @@
 package org.provotum.security.elgamal.additive;
 
+import org.provotum.security.api.IDiscreteLogSolver;
 import org.provotum.security.api.IHomomorphicEncryption;
+import org.provotum.security.arithmetic.BatchInversion;
 import org.provotum.security.arithmetic.ModInteger;
+import org.provotum.security.dlog.BabyStepGiantStep;
 import org.provotum.security.elgamal.PrivateKey;
 import org.provotum.security.elgamal.PublicKey;
 
+import java.math.BigInteger;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+
 /**
  * This implementation provides additive homomorphic encryption using ElGamal.
  * <p>
@@ -23,49 +39,364 @@ import org.provotum.security.elgamal.PublicKey;
  *               = ( g^(r1+r2), g^(m1+m2) * h^(r1+r2) )
  *               = E(m1 + m2)
  * </pre>
+ * <p>
+ * Decryption requires solving the discrete logarithm of g^m, which is delegated
+ * to a {@link IDiscreteLogSolver}. By default, all instances share a single
+ * baby-step giant-step solver, so that its precomputed tables are reused across calls for the same key.
+ * The solver holds tables for at most {@link BabyStepGiantStep#DEFAULT_MAX_TABLES} keys at a time.
+ * For intervals too large to hold a table of baby steps in memory, a {@link org.provotum.security.dlog.PollardKangaroo} solver may be
+ * passed instead.
+ * <p>
+ * Batches of messages are encrypted and decrypted in parallel on an {@link Executor}, by default the common fork-join pool.
  */
 public class Encryption implements IHomomorphicEncryption<CipherText> {
 
+    private static final IDiscreteLogSolver DEFAULT_DISCRETE_LOG_SOLVER = new BabyStepGiantStep();
+
+    /**
+     * The upper bound of the first interval searched when decrypting without an explicit bound.
+     * The interval is doubled until the plaintext is found.
+     */
+    private static final long INITIAL_SEARCH_BOUND = (1L << 16) - 1;
+
+    /**
+     * The number of messages encrypted by a single task of a batch.
+     */
+    private static final int CHUNK_SIZE = 64;
+
+    /**
+     * The number of messages of a batch from which on the tables of precomputed powers of the public key are built,
+     * see {@link PublicKey#ensurePrecomputed()}. Building the tables costs about as much as a hundred encryptions.
+     */
+    private static final int PRECOMPUTATION_THRESHOLD = 256;
+
+    private final IDiscreteLogSolver discreteLogSolver;
+    private final Executor executor;
+    private final int parallelism;
+
+    public Encryption() {
+        this(DEFAULT_DISCRETE_LOG_SOLVER);
+    }
+
+    /**
+     * @param discreteLogSolver The solver used to recover the plaintext m from g^m during decryption.
+     */
+    public Encryption(IDiscreteLogSolver discreteLogSolver) {
+        this(discreteLogSolver, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param discreteLogSolver The solver used to recover the plaintext m from g^m during decryption.
+     * @param executor          The executor to encrypt batches of messages on.
+     */
+    public Encryption(IDiscreteLogSolver discreteLogSolver, Executor executor) {
+        this.discreteLogSolver = discreteLogSolver;
+        this.executor = executor;
+        this.parallelism = (executor instanceof ForkJoinPool) ?
+            ((ForkJoinPool) executor).getParallelism() :
+            Runtime.getRuntime().availableProcessors();
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
     public CipherText encrypt(PublicKey publicKey, ModInteger message) {
-        ModInteger random = ModInteger.random(publicKey.getQ());
+        ModInteger random = publicKey.randomExponent();
 
         // We split the second part, i.e. c21 into two
         // for easier calculation of the multiplication.
         // So this becomes:
         // E(m) = (c1, c211 * c212) = (g^r, h^r * g^m)
 
-        ModInteger c1 = publicKey.getG().pow(random);
-        ModInteger c21 = publicKey.getH().pow(random);
-        ModInteger c22 = publicKey.getG().pow(message);
+        ModInteger c1 = publicKey.powG(random);
+        ModInteger c21 = publicKey.powH(random);
+        ModInteger c22 = publicKey.powG(message);
 
         return new CipherText(c1, c21.multiply(c22), random);
     }
 
     /**
      * {@inheritDoc}
+     * <p>
+     * The messages are split into chunks, which are encrypted in parallel on the executor of this instance.
+     * For large batches, the tables of precomputed powers of the public key are built beforehand.
+     */
+    @Override
+    public List<CipherText> encryptAll(PublicKey publicKey, List<ModInteger> messages) {
+        if (messages.size() >= PRECOMPUTATION_THRESHOLD) {
+            publicKey.ensurePrecomputed();
+        }
+
+        return this.mapChunks(messages, chunk -> this.encryptChunk(publicKey, chunk));
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The messages are read in chunks, of which at most two per thread of the executor are encrypted ahead.
+     * Once enough messages were read, the tables of precomputed powers of the public key are built.
+     */
+    @Override
+    public Iterator<CipherText> encryptAll(PublicKey publicKey, Iterator<ModInteger> messages) {
+        return new Iterator<CipherText>() {
+            private final Deque<CompletableFuture<List<CipherText>>> pending = new ArrayDeque<>();
+            private Iterator<CipherText> current = new ArrayList<CipherText>().iterator();
+            private long read = 0;
+
+            @Override
+            public boolean hasNext() {
+                this.fill();
+
+                return this.current.hasNext() || ! this.pending.isEmpty();
+            }
+
+            @Override
+            public CipherText next() {
+                this.fill();
+
+                if (! this.current.hasNext()) {
+                    if (this.pending.isEmpty()) {
+                        throw new NoSuchElementException();
+                    }
+
+                    this.current = join(this.pending.poll()).iterator();
+                    this.fill();
+                }
+
+                return this.current.next();
+            }
+
+            private void fill() {
+                while (this.pending.size() < 2 * parallelism && messages.hasNext()) {
+                    List<ModInteger> chunk = new ArrayList<>(CHUNK_SIZE);
+                    while (chunk.size() < CHUNK_SIZE && messages.hasNext()) {
+                        chunk.add(messages.next());
+                    }
+
+                    this.read += chunk.size();
+                    if (this.read >= PRECOMPUTATION_THRESHOLD) {
+                        publicKey.ensurePrecomputed();
+                    }
+
+                    this.pending.add(CompletableFuture.supplyAsync(() -> encryptChunk(publicKey, chunk), executor));
+                }
+            }
+        };
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * As the plaintext is not bounded, the searched interval is doubled until the plaintext is found.
+     * Each round searches the full interval [0, upperBound], so that a probabilistic solver such as
+     * {@link org.provotum.security.dlog.PollardKangaroo} missing the plaintext in one round retries it in the next.
+     * Prefer {@link #decrypt(PrivateKey, CipherText, long, long)} if bounds are known.
      */
     @Override
     public ModInteger decrypt(PrivateKey privateKey, CipherText cipherText) {
-        // g^m = (h^r * g^m) / (g^r)^x
-        ModInteger gToM = cipherText.getH().divide(cipherText.getG().pow(privateKey.getX()));
+        return this.solve(privateKey, this.toGroupElement(privateKey, cipherText));
+    }
 
-        // Decrypting is solving the discrete log:
-        // We compare for each possible value of m whether it is equal to g^m.
-        // Note, that this operation is linear in the message space.
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ModInteger decrypt(PrivateKey privateKey, CipherText cipherText, long upperBound) throws IllegalArgumentException {
+        return this.decrypt(privateKey, cipherText, 0, upperBound);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ModInteger decrypt(PrivateKey privateKey, CipherText cipherText, long lowerBound, long upperBound) throws IllegalArgumentException {
+        return this.solve(privateKey, this.toGroupElement(privateKey, cipherText), lowerBound, upperBound);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The cipher texts are split into chunks, which are decrypted in parallel on the executor of this instance.
+     * Within each chunk, the powers <code>G^x</code> of all cipher texts are inverted at once.
+     */
+    @Override
+    public List<ModInteger> decryptAll(PrivateKey privateKey, List<CipherText> cipherTexts) {
+        return this.mapChunks(cipherTexts, chunk -> {
+            List<ModInteger> messages = new ArrayList<>(chunk.size());
+            for (ModInteger gToM : this.toGroupElements(privateKey, chunk)) {
+                messages.add(this.solve(privateKey, gToM));
+            }
 
-        int i = 0;
+            return messages;
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The cipher texts are split into chunks, which are decrypted in parallel on the executor of this instance.
+     * Within each chunk, the powers <code>G^x</code> of all cipher texts are inverted at once.
+     * The discrete logarithm solver is prepared for the full interval once, before the chunks are decrypted,
+     * so that all of them share the same precomputed table.
+     */
+    @Override
+    public List<ModInteger> decryptAll(PrivateKey privateKey, List<CipherText> cipherTexts, long upperBound) throws IllegalArgumentException {
+        return this.decryptAll(privateKey, cipherTexts, 0, upperBound);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The cipher texts are split into chunks, which are decrypted in parallel on the executor of this instance.
+     * Within each chunk, the powers <code>G^x</code> of all cipher texts are inverted at once.
+     * The discrete logarithm solver is prepared for the full interval once, before the chunks are decrypted,
+     * so that all of them share the same precomputed table.
+     */
+    @Override
+    public List<ModInteger> decryptAll(PrivateKey privateKey, List<CipherText> cipherTexts, long lowerBound, long upperBound) throws IllegalArgumentException {
+        if (! cipherTexts.isEmpty()) {
+            // build the table for the full interval before it is used concurrently
+            ModInteger p = cipherTexts.get(0).getH().getModulus();
+            this.discreteLogSolver.prepare(new ModInteger(privateKey.getG(), p), lowerBound, upperBound);
+        }
+
+        return this.mapChunks(cipherTexts, chunk -> {
+            List<ModInteger> messages = new ArrayList<>(chunk.size());
+            for (ModInteger gToM : this.toGroupElements(privateKey, chunk)) {
+                messages.add(this.solve(privateKey, gToM, lowerBound, upperBound));
+            }
+
+            return messages;
+        });
+    }
+
+    /**
+     * Solve the discrete logarithm of g^m, doubling the searched interval until it is found.
+     * Every round searches from 0, as the solver may be probabilistic and miss the plaintext
+     * within the interval containing it. Skipping that interval would then search all larger intervals in vain.
+     */
+    private ModInteger solve(PrivateKey privateKey, ModInteger gToM) {
+        ModInteger g = new ModInteger(privateKey.getG(), gToM.getModulus());
+
+        long upperBound = INITIAL_SEARCH_BOUND;
         while (true) {
-            ModInteger target = new ModInteger(privateKey.getG(), gToM.getModulus()).pow(i);
+            ModInteger message = this.discreteLogSolver.solve(g, gToM, 0, upperBound);
+
+            if (null != message) {
+                return message;
+            }
+
+            if (upperBound == Long.MAX_VALUE) {
+                throw new IllegalArgumentException("The plaintext of the given cipher text is not within [0, " + Long.MAX_VALUE + "].");
+            }
+
+            upperBound = (upperBound > Long.MAX_VALUE / 2) ? Long.MAX_VALUE : upperBound * 2 + 1;
+        }
+    }
+
+    /**
+     * Solve the discrete logarithm of g^m within [lowerBound, upperBound].
+     */
+    private ModInteger solve(PrivateKey privateKey, ModInteger gToM, long lowerBound, long upperBound) throws IllegalArgumentException {
+        ModInteger g = new ModInteger(privateKey.getG(), gToM.getModulus());
+
+        // Decrypting is solving the discrete log of g^m,
+        // restricted to all possible values of m within [lowerBound, upperBound].
+        ModInteger message = this.discreteLogSolver.solve(g, gToM, lowerBound, upperBound);
+
+        if (null == message) {
+            throw new IllegalArgumentException("The plaintext of the given cipher text is not within [" + lowerBound + ", " + upperBound + "].");
+        }
 
-            if (target.equals(gToM)) {
-                return new ModInteger(Integer.toString(i));
+        return message;
+    }
+
+    private List<CipherText> encryptChunk(PublicKey publicKey, List<ModInteger> messages) {
+        List<CipherText> cipherTexts = new ArrayList<>(messages.size());
+        for (ModInteger message : messages) {
+            cipherTexts.add(this.encrypt(publicKey, message));
+        }
+
+        return cipherTexts;
+    }
+
+    /**
+     * Split the given values into chunks, apply the given function to all chunks in parallel
+     * on the executor of this instance, and concatenate the results in the order of the values.
+     */
+    private <T, R> List<R> mapChunks(List<T> values, Function<List<T>, List<R>> function) {
+        int chunkSize = Math.max(1, Math.min(CHUNK_SIZE, values.size() / (4 * this.parallelism)));
+
+        List<CompletableFuture<List<R>>> chunks = new ArrayList<>();
+        for (int from = 0; from < values.size(); from += chunkSize) {
+            List<T> chunk = values.subList(from, Math.min(values.size(), from + chunkSize));
+            chunks.add(CompletableFuture.supplyAsync(() -> function.apply(chunk), this.executor));
+        }
+
+        List<R> results = new ArrayList<>(values.size());
+        for (CompletableFuture<List<R>> chunk : chunks) {
+            results.addAll(join(chunk));
+        }
+
+        return results;
+    }
+
+    /**
+     * Wait for the given future, rethrowing the exception it completed with, if any.
+     */
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
             }
 
-            i++;
+            throw e;
         }
     }
+
+    /**
+     * Removes the randomness from the given cipher text.
+     *
+     * @param privateKey The private key used for decryption.
+     * @param cipherText The cipher text to decrypt.
+     * @return The plaintext in the exponent of the generator, i.e. g^m.
+     */
+    private ModInteger toGroupElement(PrivateKey privateKey, CipherText cipherText) {
+        // g^m = (h^r * g^m) / (g^r)^x
+        return cipherText.getH().divide(cipherText.getG().pow(privateKey.getX()));
+    }
+
+    /**
+     * Removes the randomness from all given cipher texts, using a single inversion.
+     *
+     * @param privateKey  The private key used for decryption.
+     * @param cipherTexts The cipher texts to decrypt, sharing the same modulus.
+     * @return The plaintexts in the exponent of the generator, i.e. g^m, in the order of the cipher texts.
+     */
+    private List<ModInteger> toGroupElements(PrivateKey privateKey, List<CipherText> cipherTexts) {
+        if (cipherTexts.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        BigInteger p = cipherTexts.get(0).getH().getModulus().asBigInteger();
+        BigInteger x = privateKey.getX().asBigInteger();
+
+        List<BigInteger> powers = new ArrayList<>(cipherTexts.size());
+        for (CipherText cipherText : cipherTexts) {
+            powers.add(cipherText.getG().asBigInteger().modPow(x, p));
+        }
+
+        List<BigInteger> inverses = BatchInversion.invert(powers, p);
+
+        // g^m = (h^r * g^m) * ((g^r)^x)^(-1)
+        List<ModInteger> elements = new ArrayList<>(cipherTexts.size());
+        for (int i = 0; i < cipherTexts.size(); i++) {
+            elements.add(new ModInteger(cipherTexts.get(i).getH().asBigInteger().multiply(inverses.get(i)), p));
+        }
+
+        return elements;
+    }
 }
@@ -0,0 +1,202 @@
+package org.provotum.security.elgamal.additive;
+
+import org.provotum.security.arithmetic.ModInteger;
+import org.provotum.security.elgamal.PublicKey;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A pool of precomputed randomness for encryptions using a particular public key.
+ * <p>
+ * Encrypting a message m requires a random value r and the powers <code>g^r</code> and <code>h^r</code>,
+ * which dominate the cost of an encryption. This pool computes such triples <code>(r, g^r, h^r)</code>
+ * ahead of time on background threads, up to a fixed capacity. An encryption then only requires
+ * to take a triple from the pool and to multiply <code>h^r</code> by <code>g^m</code>:
+ * <pre>
+ *     E(m) = (g^r, h^r * g^m)
+ * </pre>
+ * Each triple is removed from the pool when used, hence never used twice. If the pool is drained,
+ * the triple is computed inline instead.
+ * <p>
+ * As the random values allow to decrypt the resulting ciphertexts, the pool must be kept as private
+ * as the plaintexts themselves. Background threads are stopped using {@link #close()}.
+ */
+public class EncryptionPool implements AutoCloseable {
+
+    private final PublicKey publicKey;
+    private final int capacity;
+    private final BlockingQueue<Randomness> queue;
+    private final ExecutorService executor;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong refills = new AtomicLong();
+
+    /**
+     * Create a pool refilled by a single background thread.
+     *
+     * @param publicKey The public key to encrypt with.
+     * @param capacity  The maximum number of precomputed triples.
+     * @throws IllegalArgumentException If the capacity is not positive.
+     */
+    public EncryptionPool(PublicKey publicKey, int capacity) throws IllegalArgumentException {
+        this(publicKey, capacity, 1);
+    }
+
+    /**
+     * @param publicKey The public key to encrypt with.
+     * @param capacity  The maximum number of precomputed triples.
+     * @param threads   The number of background threads refilling the pool.
+     *                  If 0, the pool is only refilled by calling {@link #fill()}.
+     * @throws IllegalArgumentException If the capacity is not positive or the number of threads is negative.
+     */
+    public EncryptionPool(PublicKey publicKey, int capacity, int threads) throws IllegalArgumentException {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("The capacity must be positive.");
+        }
+
+        if (threads < 0) {
+            throw new IllegalArgumentException("The number of threads must not be negative.");
+        }
+
+        this.publicKey = publicKey;
+        this.capacity = capacity;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+
+        if (threads == 0) {
+            this.executor = null;
+            return;
+        }
+
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "encryption-pool");
+            thread.setDaemon(true);
+
+            return thread;
+        });
+
+        for (int i = 0; i < threads; i++) {
+            this.executor.execute(this::refill);
+        }
+    }
+
+    /**
+     * Encrypt the given message using a precomputed triple, or an inline computed one if the pool is drained.
+     *
+     * @param message The message to encrypt.
+     * @return The encrypted cipher text.
+     */
+    public CipherText encrypt(ModInteger message) {
+        Randomness randomness = this.queue.poll();
+
+        if (null == randomness) {
+            this.misses.incrementAndGet();
+            randomness = this.compute();
+        } else {
+            this.hits.incrementAndGet();
+        }
+
+        return new CipherText(randomness.gToR, randomness.hToR.multiply(this.publicKey.powG(message)), randomness.r);
+    }
+
+    /**
+     * Fill the pool up to its capacity on the calling thread.
+     */
+    public void fill() {
+        while (this.queue.remainingCapacity() > 0) {
+            if (this.queue.offer(this.compute())) {
+                this.refills.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * @return The public key to encrypt with.
+     */
+    public PublicKey getPublicKey() {
+        return this.publicKey;
+    }
+
+    /**
+     * @return The maximum number of precomputed triples.
+     */
+    public int getCapacity() {
+        return this.capacity;
+    }
+
+    /**
+     * @return The number of precomputed triples currently available.
+     */
+    public int size() {
+        return this.queue.size();
+    }
+
+    /**
+     * @return The number of encryptions which used a precomputed triple.
+     */
+    public long getHits() {
+        return this.hits.get();
+    }
+
+    /**
+     * @return The number of encryptions which had to compute their triple inline, as the pool was drained.
+     */
+    public long getMisses() {
+        return this.misses.get();
+    }
+
+    /**
+     * @return The number of triples precomputed and added to the pool.
+     */
+    public long getRefills() {
+        return this.refills.get();
+    }
+
+    /**
+     * Stop all background threads and discard all precomputed triples.
+     */
+    @Override
+    public void close() {
+        if (null != this.executor) {
+            this.executor.shutdownNow();
+        }
+
+        this.queue.clear();
+    }
+
+    /**
+     * Compute triples until interrupted, blocking while the pool is full.
+     */
+    private void refill() {
+        try {
+            while (! Thread.currentThread().isInterrupted()) {
+                this.queue.put(this.compute());
+                this.refills.incrementAndGet();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Randomness compute() {
+        ModInteger r = this.publicKey.randomExponent();
+
+        return new Randomness(r, this.publicKey.powG(r), this.publicKey.powH(r));
+    }
+
+    private static final class Randomness {
+        private final ModInteger r;
+        private final ModInteger gToR;
+        private final ModInteger hToR;
+
+        private Randomness(ModInteger r, ModInteger gToR, ModInteger hToR) {
+            this.r = r;
+            this.gToR = gToR;
+            this.hToR = hToR;
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package org.provotum.security.elgamal.additive;
+
+import org.provotum.security.api.IHomomorphicEncryption;
+import org.provotum.security.arithmetic.ModInteger;
+import org.provotum.security.elgamal.PrivateKey;
+import org.provotum.security.elgamal.PublicKey;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Packs the votes for all candidates of a contest into the plaintext of a single additive ciphertext.
+ * <p>
+ * The vote <code>v_i</code> for candidate i is placed in the i-th digit of the plaintext with respect to a base B:
+ * <pre>
+ *     m = sum_i( v_i * B^i )
+ * </pre>
+ * As long as the sum of all votes for each candidate stays below B, the homomorphic operation
+ * {@link CipherText#operate(CipherText)} adds the votes of all candidates at once without carrying
+ * into the next digit. Hence, B has to be larger than the number of votes a candidate may receive,
+ * e.g. the size of the electorate. After decryption, the tally of each candidate is read from its digit.
+ * <p>
+ * The plaintext of a tally lies within <code>[0, B^k)</code> for k candidates, which also has to be
+ * less than the order q of the group. Decryption requires solving a discrete logarithm within this range,
+ * so this encoding suits contests with few candidates, or a solver such as
+ * {@link org.provotum.security.dlog.PollardKangaroo} for larger ranges.
+ * <p>
+ * A ballot for exactly one candidate i encrypts <code>B^i</code>. Its validity can be proven with a single
+ * membership proof over the values returned by {@link #getSingleChoiceValues()}, instead of one proof per candidate.
+ */
+public class PackedEncoding {
+
+    private final IHomomorphicEncryption<CipherText> encryption;
+    private final int candidates;
+    private final BigInteger base;
+    private final BigInteger capacity;
+    private final List<ModInteger> singleChoiceValues;
+
+    /**
+     * @param encryption The encryption used for the packed ciphertexts.
+     * @param candidates The number of candidates k.
+     * @param base       The base B, larger than the number of votes any candidate may receive.
+     * @throws IllegalArgumentException If the number of candidates is not positive or the base is less than 2.
+     */
+    public PackedEncoding(IHomomorphicEncryption<CipherText> encryption, int candidates, long base) throws IllegalArgumentException {
+        if (candidates < 1) {
+            throw new IllegalArgumentException("At least one candidate is required.");
+        }
+
+        if (base < 2) {
+            throw new IllegalArgumentException("The base must be at least 2.");
+        }
+
+        this.encryption = encryption;
+        this.candidates = candidates;
+        this.base = BigInteger.valueOf(base);
+        this.capacity = this.base.pow(candidates);
+
+        List<ModInteger> values = new ArrayList<>(candidates);
+        for (int i = 0; i < candidates; i++) {
+            values.add(new ModInteger(this.base.pow(i)));
+        }
+
+        this.singleChoiceValues = Collections.unmodifiableList(values);
+    }
+
+    /**
+     * @return The number of candidates k.
+     */
+    public int getCandidates() {
+        return this.candidates;
+    }
+
+    /**
+     * @return The base B.
+     */
+    public BigInteger getBase() {
+        return this.base;
+    }
+
+    /**
+     * @return The plaintexts <code>B^i</code> of ballots for exactly one candidate i, in the order of the candidates.
+     */
+    public List<ModInteger> getSingleChoiceValues() {
+        return this.singleChoiceValues;
+    }
+
+    /**
+     * Pack the given votes into a single plaintext.
+     *
+     * @param votes The votes, one per candidate.
+     * @return The plaintext <code>sum_i( v_i * B^i )</code>.
+     * @throws IllegalArgumentException If not exactly one vote per candidate is given, or any vote is not within [0, B).
+     */
+    public ModInteger pack(List<Long> votes) throws IllegalArgumentException {
+        if (votes.size() != this.candidates) {
+            throw new IllegalArgumentException("Expected " + this.candidates + " votes, got " + votes.size() + ".");
+        }
+
+        BigInteger value = BigInteger.ZERO;
+        for (int i = this.candidates - 1; i >= 0; i--) {
+            BigInteger vote = BigInteger.valueOf(votes.get(i));
+
+            if (vote.signum() < 0 || vote.compareTo(this.base) >= 0) {
+                throw new IllegalArgumentException("The vote for candidate " + i + " must be within [0, " + this.base + ").");
+            }
+
+            value = value.multiply(this.base).add(vote);
+        }
+
+        return new ModInteger(value);
+    }
+
+    /**
+     * Unpack the votes from a plaintext.
+     *
+     * @param message The plaintext.
+     * @return The votes, one per candidate.
+     * @throws IllegalArgumentException If the plaintext is not within <code>[0, B^k)</code>.
+     */
+    public List<Long> unpack(ModInteger message) throws IllegalArgumentException {
+        BigInteger value = message.asBigInteger();
+
+        if (value.signum() < 0 || value.compareTo(this.capacity) >= 0) {
+            throw new IllegalArgumentException("The message must be within [0, " + this.capacity + ").");
+        }
+
+        List<Long> votes = new ArrayList<>(this.candidates);
+        for (int i = 0; i < this.candidates; i++) {
+            BigInteger[] quotientAndRemainder = value.divideAndRemainder(this.base);
+
+            votes.add(quotientAndRemainder[1].longValue());
+            value = quotientAndRemainder[0];
+        }
+
+        return votes;
+    }
+
+    /**
+     * Encrypt a ballot holding the given votes.
+     *
+     * @param publicKey The public key used to encrypt.
+     * @param votes     The votes, one per candidate.
+     * @return The cipher text of the packed votes.
+     * @throws IllegalArgumentException If the votes cannot be packed, or <code>B^k</code> exceeds the order of the group.
+     */
+    public CipherText encrypt(PublicKey publicKey, List<Long> votes) throws IllegalArgumentException {
+        this.checkPublicKey(publicKey);
+
+        return this.encryption.encrypt(publicKey, this.pack(votes));
+    }
+
+    /**
+     * Encrypt a ballot holding a single vote for the given candidate.
+     *
+     * @param publicKey The public key used to encrypt.
+     * @param candidate The index of the candidate.
+     * @return The cipher text of <code>B^candidate</code>.
+     * @throws IllegalArgumentException If the candidate does not exist, or <code>B^k</code> exceeds the order of the group.
+     */
+    public CipherText encrypt(PublicKey publicKey, int candidate) throws IllegalArgumentException {
+        if (candidate < 0 || candidate >= this.candidates) {
+            throw new IllegalArgumentException("Candidate " + candidate + " does not exist.");
+        }
+
+        this.checkPublicKey(publicKey);
+
+        return this.encryption.encrypt(publicKey, this.singleChoiceValues.get(candidate));
+    }
+
+    /**
+     * Decrypt a packed ciphertext, e.g. the tally of all ballots, and unpack its votes.
+     *
+     * @param privateKey The private key used to decrypt.
+     * @param cipherText The cipher text to decrypt.
+     * @return The votes, one per candidate.
+     * @throws IllegalArgumentException If the plaintext is not within <code>[0, B^k)</code>.
+     */
+    public List<Long> decrypt(PrivateKey privateKey, CipherText cipherText) throws IllegalArgumentException {
+        long upperBound = (this.capacity.bitLength() < Long.SIZE) ?
+            this.capacity.longValue() - 1 :
+            Long.MAX_VALUE;
+
+        return this.decrypt(privateKey, cipherText, upperBound);
+    }
+
+    /**
+     * Decrypt a packed ciphertext, given that its plaintext is known to lie within [0, upperBound].
+     * For a tally of n single-choice ballots, the plaintext is at most <code>n * B^(k-1)</code>.
+     *
+     * @param privateKey The private key used to decrypt.
+     * @param cipherText The cipher text to decrypt.
+     * @param upperBound The largest value the plaintext may take on (inclusive).
+     * @return The votes, one per candidate.
+     * @throws IllegalArgumentException If the plaintext is not within [0, upperBound] or not within <code>[0, B^k)</code>.
+     */
+    public List<Long> decrypt(PrivateKey privateKey, CipherText cipherText, long upperBound) throws IllegalArgumentException {
+        return this.unpack(this.encryption.decrypt(privateKey, cipherText, upperBound));
+    }
+
+    private void checkPublicKey(PublicKey publicKey) throws IllegalArgumentException {
+        if (this.capacity.compareTo(publicKey.getQ().asBigInteger()) > 0) {
+            throw new IllegalArgumentException("The packed plaintexts exceed the order of the group.");
+        }
+    }
+}
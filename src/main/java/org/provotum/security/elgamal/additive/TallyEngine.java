@@ -0,0 +1,255 @@
+package org.provotum.security.elgamal.additive;
+
+import org.provotum.security.elgamal.PublicKey;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Computes the encrypted tally of an election, i.e. the homomorphic sum of all ciphertexts per candidate.
+ * <p>
+ * Ciphertexts may be added concurrently from many threads. To avoid contention on a single lock,
+ * the engine holds several stripes, each consisting of one {@link CipherTextAccumulator} per candidate
+ * guarded by its own lock. A thread prefers the stripe derived from its id, and moves on to the next stripe
+ * if that one is currently held by another thread. The stripes are only merged once the tally is requested
+ * using {@link #tally()}.
+ * <p>
+ * Large lists of ciphertexts can be added at once using {@link #addAll(int, List)}, which splits the list
+ * and reduces its parts in parallel on a {@link ForkJoinPool}.
+ */
+public class TallyEngine {
+
+    /**
+     * The number of ciphertexts below which a part of a list is summed on a single thread.
+     */
+    private static final int SEQUENTIAL_THRESHOLD = 1024;
+
+    private final PublicKey publicKey;
+    private final int candidates;
+    private final Stripe[] stripes;
+    private final ForkJoinPool pool;
+
+    /**
+     * Create an engine with one stripe per available processor, using the common fork-join pool.
+     *
+     * @param publicKey  The public key used during encryption.
+     * @param candidates The number of candidates.
+     * @throws IllegalArgumentException If the number of candidates is not positive.
+     */
+    public TallyEngine(PublicKey publicKey, int candidates) throws IllegalArgumentException {
+        this(publicKey, candidates, Runtime.getRuntime().availableProcessors(), ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param publicKey  The public key used during encryption.
+     * @param candidates The number of candidates.
+     * @param stripes    The number of stripes, i.e. the number of threads which may add ciphertexts without contention.
+     * @param pool       The pool to reduce lists of ciphertexts on.
+     * @throws IllegalArgumentException If the number of candidates or stripes is not positive.
+     */
+    public TallyEngine(PublicKey publicKey, int candidates, int stripes, ForkJoinPool pool) throws IllegalArgumentException {
+        if (candidates < 1) {
+            throw new IllegalArgumentException("At least one candidate is required.");
+        }
+
+        if (stripes < 1) {
+            throw new IllegalArgumentException("At least one stripe is required.");
+        }
+
+        this.publicKey = publicKey;
+        this.candidates = candidates;
+        this.pool = pool;
+
+        this.stripes = new Stripe[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new Stripe(publicKey, candidates);
+        }
+    }
+
+    /**
+     * @return The number of candidates.
+     */
+    public int getCandidates() {
+        return this.candidates;
+    }
+
+    /**
+     * Add a ciphertext to the tally of a candidate.
+     *
+     * @param candidate  The index of the candidate.
+     * @param cipherText The ciphertext to add.
+     * @throws IllegalArgumentException If the candidate does not exist.
+     */
+    public void add(int candidate, CipherText cipherText) throws IllegalArgumentException {
+        this.checkCandidate(candidate);
+
+        Stripe stripe = this.acquire();
+        try {
+            stripe.accumulators[candidate].add(cipherText);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Add a ballot, consisting of one ciphertext per candidate.
+     *
+     * @param ballot The ciphertexts, in the order of the candidates.
+     * @throws IllegalArgumentException If the ballot does not hold one ciphertext per candidate.
+     */
+    public void addBallot(List<CipherText> ballot) throws IllegalArgumentException {
+        if (ballot.size() != this.candidates) {
+            throw new IllegalArgumentException("Expected " + this.candidates + " ciphertexts per ballot, got " + ballot.size() + ".");
+        }
+
+        Stripe stripe = this.acquire();
+        try {
+            for (int i = 0; i < this.candidates; i++) {
+                stripe.accumulators[i].add(ballot.get(i));
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Add all given ciphertexts to the tally of a candidate.
+     * The list is summed in parallel on the pool of this engine, before the sum is added to a stripe.
+     *
+     * @param candidate   The index of the candidate.
+     * @param cipherTexts The ciphertexts to add.
+     * @throws IllegalArgumentException If the candidate does not exist.
+     */
+    public void addAll(int candidate, List<CipherText> cipherTexts) throws IllegalArgumentException {
+        this.checkCandidate(candidate);
+
+        CipherTextAccumulator sum = this.pool.invoke(new SumTask(this.publicKey, cipherTexts));
+
+        Stripe stripe = this.acquire();
+        try {
+            stripe.accumulators[candidate].merge(sum);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Merge all stripes into the current tally. Ciphertexts added concurrently to this call
+     * may or may not be contained in the result.
+     *
+     * @return The encrypted tally, one ciphertext per candidate.
+     */
+    public List<CipherText> tally() {
+        List<CipherTextAccumulator> totals = new ArrayList<>(this.candidates);
+        for (int i = 0; i < this.candidates; i++) {
+            totals.add(new CipherTextAccumulator(this.publicKey));
+        }
+
+        for (Stripe stripe : this.stripes) {
+            stripe.lock.lock();
+            try {
+                for (int i = 0; i < this.candidates; i++) {
+                    totals.get(i).merge(stripe.accumulators[i]);
+                }
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+
+        List<CipherText> tally = new ArrayList<>(this.candidates);
+        for (CipherTextAccumulator total : totals) {
+            tally.add(total.toCipherText());
+        }
+
+        return tally;
+    }
+
+    /**
+     * Sum all given ciphertexts in parallel on the common fork-join pool.
+     *
+     * @param publicKey   The public key used during encryption.
+     * @param cipherTexts The ciphertexts to sum.
+     * @return The homomorphic sum of all ciphertexts.
+     */
+    public static CipherText sum(PublicKey publicKey, List<CipherText> cipherTexts) {
+        return ForkJoinPool.commonPool().invoke(new SumTask(publicKey, cipherTexts)).toCipherText();
+    }
+
+    /**
+     * Lock a stripe, preferring the one derived from the id of the current thread.
+     * Stripes held by other threads are skipped, unless all of them are held.
+     *
+     * @return The locked stripe.
+     */
+    private Stripe acquire() {
+        long id = Thread.currentThread().getId();
+        // spread consecutive thread ids across stripes
+        int home = (int) (((id * 0x9E3779B97F4A7C15L) >>> 32) % this.stripes.length);
+
+        for (int i = 0; i < this.stripes.length; i++) {
+            Stripe stripe = this.stripes[(home + i) % this.stripes.length];
+
+            if (stripe.lock.tryLock()) {
+                return stripe;
+            }
+        }
+
+        Stripe stripe = this.stripes[home];
+        stripe.lock.lock();
+
+        return stripe;
+    }
+
+    private void checkCandidate(int candidate) throws IllegalArgumentException {
+        if (candidate < 0 || candidate >= this.candidates) {
+            throw new IllegalArgumentException("Candidate " + candidate + " does not exist.");
+        }
+    }
+
+    private static final class Stripe {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final CipherTextAccumulator[] accumulators;
+
+        private Stripe(PublicKey publicKey, int candidates) {
+            this.accumulators = new CipherTextAccumulator[candidates];
+            for (int i = 0; i < candidates; i++) {
+                this.accumulators[i] = new CipherTextAccumulator(publicKey);
+            }
+        }
+    }
+
+    /**
+     * Sums a range of a list of ciphertexts by recursively splitting it in halves.
+     */
+    private static final class SumTask extends RecursiveTask<CipherTextAccumulator> {
+        private static final long serialVersionUID = 1L;
+
+        private final PublicKey publicKey;
+        private final List<CipherText> cipherTexts;
+
+        private SumTask(PublicKey publicKey, List<CipherText> cipherTexts) {
+            this.publicKey = publicKey;
+            this.cipherTexts = cipherTexts;
+        }
+
+        @Override
+        protected CipherTextAccumulator compute() {
+            int size = this.cipherTexts.size();
+
+            if (size <= SEQUENTIAL_THRESHOLD) {
+                return new CipherTextAccumulator(this.publicKey).addAll(this.cipherTexts);
+            }
+
+            SumTask left = new SumTask(this.publicKey, this.cipherTexts.subList(0, size / 2));
+            SumTask right = new SumTask(this.publicKey, this.cipherTexts.subList(size / 2, size));
+
+            left.fork();
+            CipherTextAccumulator sum = right.compute();
+
+            return sum.merge(left.join());
+        }
+    }
+}
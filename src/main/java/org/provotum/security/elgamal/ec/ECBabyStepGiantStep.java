@@ -0,0 +1,185 @@
+package org.provotum.security.elgamal.ec;
+
+import org.bouncycastle.math.ec.ECPoint;
+import org.provotum.security.arithmetic.ModInteger;
+import org.provotum.security.dlog.FingerprintTable;
+
+import java.math.BigInteger;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.IntStream;
+
+/**
+ * Solves discrete logarithms on an elliptic curve within a bounded interval using Shanks' baby-step giant-step algorithm.
+ * <p>
+ * The counterpart of {@link org.provotum.security.dlog.BabyStepGiantStep} for points: a table of
+ * <code>k = ceil(sqrt(n))</code> baby steps <code>j * G</code> is built once per base point, keyed by the lowest
+ * 64 bits of their affine x-coordinate. The target is then shifted by giant steps of <code>-k * G</code>
+ * until it matches one of the baby steps:
+ * <pre>
+ *     target - i*k * G = j * G  =&gt;  m = i*k + j
+ * </pre>
+ */
+public class ECBabyStepGiantStep {
+
+    /**
+     * The default maximum number of baby steps held per base point (~24 MB of heap).
+     */
+    public static final int DEFAULT_MAX_BABY_STEPS = 1 << 20;
+
+    /**
+     * The minimal number of baby steps computed for a base point,
+     * avoiding to rebuild tiny tables when the requested intervals grow.
+     */
+    private static final int MIN_BABY_STEPS = 1 << 8;
+
+    /**
+     * The number of baby steps computed by a single task while building a table.
+     * The points of a chunk are normalized at once, requiring a single field inversion.
+     */
+    private static final int CHUNK_SIZE = 1 << 12;
+
+    private final int maxBabySteps;
+    private final ConcurrentMap<ECPoint, FingerprintTable> tables = new ConcurrentHashMap<>();
+
+    public ECBabyStepGiantStep() {
+        this(DEFAULT_MAX_BABY_STEPS);
+    }
+
+    /**
+     * @param maxBabySteps The maximum number of baby steps held per base point.
+     * @throws IllegalArgumentException If the maximum is not positive.
+     */
+    public ECBabyStepGiantStep(int maxBabySteps) throws IllegalArgumentException {
+        if (maxBabySteps < 1) {
+            throw new IllegalArgumentException("The maximum number of baby steps must be positive.");
+        }
+
+        this.maxBabySteps = maxBabySteps;
+    }
+
+    /**
+     * Find the exponent m within [lowerBound, upperBound] such that:
+     * <pre>m * generator = target</pre>
+     *
+     * @param generator  The base point G.
+     * @param target     The point m * G.
+     * @param lowerBound The smallest value the exponent may take on (inclusive).
+     * @param upperBound The largest value the exponent may take on (inclusive).
+     * @return The exponent m, or null if no exponent within the given interval matches the target.
+     * @throws IllegalArgumentException If the interval is empty.
+     */
+    public ModInteger solve(ECPoint generator, ECPoint target, long lowerBound, long upperBound) throws IllegalArgumentException {
+        long range = rangeOf(lowerBound, upperBound);
+
+        FingerprintTable table = this.getTable(generator, this.babyStepsFor(range));
+        long k = table.size();
+
+        // shift the target by the lower bound, so that we
+        // are looking for an exponent in [0, range) instead.
+        ECPoint gamma = target.subtract(generator.multiply(BigInteger.valueOf(lowerBound)));
+        ECPoint giantStep = generator.multiply(BigInteger.valueOf(k)).negate();
+
+        long giantSteps = (range - 1) / k + 1;
+        for (long i = 0; i < giantSteps; i++) {
+            int j = table.lookup(fingerprint(gamma));
+
+            if (j >= 0) {
+                long exponent = i * k + j;
+
+                // fingerprints may collide, hence verify the candidate explicitly
+                if (exponent < range && generator.multiply(BigInteger.valueOf(j)).equals(gamma)) {
+                    return new ModInteger(BigInteger.valueOf(lowerBound + exponent));
+                }
+            }
+
+            gamma = gamma.add(giantStep);
+        }
+
+        return null;
+    }
+
+    /**
+     * Build the table of baby steps for the given interval, unless a large enough table already exists.
+     *
+     * @param generator  The base point G.
+     * @param lowerBound The smallest value the exponents may take on (inclusive).
+     * @param upperBound The largest value the exponents may take on (inclusive).
+     * @throws IllegalArgumentException If the interval is empty.
+     */
+    public void prepare(ECPoint generator, long lowerBound, long upperBound) throws IllegalArgumentException {
+        this.getTable(generator, this.babyStepsFor(rangeOf(lowerBound, upperBound)));
+    }
+
+    private FingerprintTable getTable(ECPoint generator, int size) {
+        return this.tables.compute(generator.normalize(), (key, existing) -> {
+            if (null != existing && existing.size() >= size) {
+                return existing;
+            }
+
+            return new FingerprintTable(computeFingerprints(key, size));
+        });
+    }
+
+    /**
+     * Computes the fingerprints of <code>j * G</code> for all <code>j in [0, size)</code> in parallel.
+     */
+    private static long[] computeFingerprints(ECPoint generator, int size) {
+        long[] steps = new long[size];
+        int chunks = (size + CHUNK_SIZE - 1) / CHUNK_SIZE;
+
+        IntStream.range(0, chunks).parallel().forEach(chunk -> {
+            int start = chunk * CHUNK_SIZE;
+            int end = Math.min(size, start + CHUNK_SIZE);
+
+            ECPoint[] points = new ECPoint[end - start];
+            ECPoint current = generator.multiply(BigInteger.valueOf(start));
+            for (int j = start; j < end; j++) {
+                points[j - start] = current;
+                current = current.add(generator);
+            }
+
+            generator.getCurve().normalizeAll(points);
+
+            for (int j = start; j < end; j++) {
+                steps[j] = fingerprint(points[j - start]);
+            }
+        });
+
+        return steps;
+    }
+
+    /**
+     * @return The lowest 64 bits of the affine x-coordinate of the point, or 0 for the point at infinity.
+     */
+    private static long fingerprint(ECPoint point) {
+        if (point.isInfinity()) {
+            return 0;
+        }
+
+        return point.normalize().getAffineXCoord().toBigInteger().longValue();
+    }
+
+    /**
+     * @return The number of exponents within the interval, may only overflow for the full range of [0, Long.MAX_VALUE].
+     */
+    private static long rangeOf(long lowerBound, long upperBound) throws IllegalArgumentException {
+        if (lowerBound < 0 || upperBound < lowerBound) {
+            throw new IllegalArgumentException("The interval [" + lowerBound + ", " + upperBound + "] is invalid.");
+        }
+
+        long range = upperBound - lowerBound + 1;
+
+        return (range <= 0) ? Long.MAX_VALUE : range;
+    }
+
+    /**
+     * @param range The number of exponents to search.
+     * @return The number of baby steps to use for the given range, i.e. <code>ceil(sqrt(range))</code> within the configured limits.
+     */
+    private int babyStepsFor(long range) {
+        long steps = (long) Math.ceil(Math.sqrt((double) range));
+
+        return (int) Math.min(this.maxBabySteps, Math.max(Math.min(MIN_BABY_STEPS, range), steps));
+    }
+}
@@ -0,0 +1,107 @@
+package org.provotum.security.elgamal.ec;
+
+import org.bouncycastle.math.ec.ECPoint;
+import org.provotum.security.api.IHomomorphicCipherText;
+import org.provotum.security.arithmetic.ModInteger;
+
+/**
+ * An additive homomorphic ElGamal ciphertext over an elliptic curve.
+ * The homomorphic operation is an addition of the encrypted points
+ * resulting in an addition of the plaintext values.
+ * <p>
+ * <pre>
+ *   E(m) = (r * G, r * H + m * G)
+ * </pre>
+ * <p>
+ * with:
+ * <ul>
+ * <li>G = base point</li>
+ * <li>m = message</li>
+ * <li>H = x * G i.e. the public key whereas x = private key</li>
+ * <li>r = [0, n-1]</li>
+ * </ul>
+ * <pre>
+ * E(m1) + E(m2) = ((r1+r2) * G, (r1+r2) * H + (m1+m2) * G)
+ *               = E(m1 + m2)
+ * </pre>
+ */
+public class ECCipherText implements IHomomorphicCipherText<ECCipherText> {
+
+    private final ModInteger r;
+    private final ECPoint bigG;
+    private final ECPoint bigH;
+
+    /**
+     * Creates a new ciphertext of the form:
+     * <pre>
+     *     E = (G', H') = (r * G, r * H + m * G)
+     * </pre>
+     *
+     * @param bigG r * G, with G being the base point of the curve.
+     * @param bigH r * H + m * G, with H being the public value of the private key and m the message to encrypt.
+     * @param r    The random value r used in the components above, in the range [0, n - 1], or null if unknown.
+     */
+    public ECCipherText(ECPoint bigG, ECPoint bigH, ModInteger r) {
+        this.bigG = bigG;
+        this.bigH = bigH;
+        this.r = r;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Add the given cipher text to this instance: In terms
+     * of arithmetic, adds the given cipher text's plaintext value to this instance's value.
+     * The random value of the result is only known if it is known for both operands.
+     *
+     * @param operand The cipher text to add.
+     * @return The resulting cipher text
+     */
+    @Override
+    public ECCipherText operate(ECCipherText operand) {
+        return new ECCipherText(
+            this.bigG.add(operand.bigG),
+            this.bigH.add(operand.bigH),
+            (null == this.r || null == operand.r) ? null : this.r.add(operand.r)
+        );
+    }
+
+    /**
+     * @return The first component of the encrypted message, i.e. <code>r * G</code>.
+     */
+    public ECPoint getG() {
+        return this.bigG;
+    }
+
+    /**
+     * @return The second component of the encrypted message, i.e. <code>r * H + m * G</code>.
+     */
+    public ECPoint getH() {
+        return this.bigH;
+    }
+
+    /**
+     * @return The random value r used in the encrypted message, or null if unknown.
+     */
+    public ModInteger getR() {
+        return this.r;
+    }
+
+    @Override
+    public int hashCode() {
+        return this.bigG.hashCode() | this.bigH.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return (this == o) || (o instanceof ECCipherText) &&
+            this.bigG.equals(((ECCipherText) o).bigG) &&
+            this.bigH.equals(((ECCipherText) o).bigH) &&
+            ((null == this.r) ? (null == ((ECCipherText) o).r) : this.r.equals(((ECCipherText) o).r));
+    }
+
+    @Override
+    public ECCipherText clone() {
+        return new ECCipherText(this.bigG, this.bigH, (null == this.r) ? null : this.r.clone());
+    }
+}
@@ -0,0 +1,204 @@
+package org.provotum.security.elgamal.ec;
+
+import org.bouncycastle.math.ec.ECPoint;
+import org.provotum.security.api.IHomomorphicScheme;
+import org.provotum.security.arithmetic.ModInteger;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * This implementation provides additive homomorphic encryption using ElGamal over an elliptic curve.
+ * <p>
+ * The notation used within this class is as follows:
+ * G = base point of order n
+ * m = message to encrypt
+ * x = private key
+ * H = x * G, i.e. the public key
+ * <p>
+ * An encrypted message is denoted by E(m) = (r * G, r * H + m * G)
+ * <p>
+ * Additive homomorphic encryption works then as follows:
+ * <pre>
+ * E(m1) + E(m2) = (r1 * G, r1 * H + m1 * G) + (r2 * G, r2 * H + m2 * G)
+ *               = ( (r1+r2) * G, (r1+r2) * H + (m1+m2) * G )
+ *               = E(m1 + m2)
+ * </pre>
+ * <p>
+ * Compared to {@link org.provotum.security.elgamal.additive.Encryption} over a 2048 bit prime field,
+ * a curve of 256 bits offers similar security with much smaller ciphertexts and cheaper operations.
+ * Decryption requires solving the discrete logarithm of m * G, which is delegated to a {@link ECBabyStepGiantStep}.
+ * By default, all instances share a single solver, so that its precomputed tables are reused across calls.
+ * Batches of cipher texts are encrypted and decrypted in parallel on the common fork-join pool.
+ */
+public class ECEncryption implements IHomomorphicScheme<ECCipherText, ECPublicKey, ECPrivateKey> {
+
+    private static final ECBabyStepGiantStep DEFAULT_DISCRETE_LOG_SOLVER = new ECBabyStepGiantStep();
+
+    /**
+     * The upper bound of the first interval searched when decrypting without an explicit bound.
+     * The interval is doubled until the plaintext is found.
+     */
+    private static final long INITIAL_SEARCH_BOUND = (1L << 16) - 1;
+
+    private final ECBabyStepGiantStep discreteLogSolver;
+
+    public ECEncryption() {
+        this(DEFAULT_DISCRETE_LOG_SOLVER);
+    }
+
+    /**
+     * @param discreteLogSolver The solver used to recover the plaintext m from m * G during decryption.
+     */
+    public ECEncryption(ECBabyStepGiantStep discreteLogSolver) {
+        this.discreteLogSolver = discreteLogSolver;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ECCipherText encrypt(ECPublicKey publicKey, ModInteger message) {
+        ModInteger random = ModInteger.random(publicKey.getN());
+
+        // E(m) = (r * G, r * H + m * G)
+        ECPoint c1 = publicKey.multiplyG(random);
+        ECPoint c2 = publicKey.multiplyH(random).add(publicKey.multiplyG(message));
+
+        return new ECCipherText(c1, c2, random);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The messages are encrypted in parallel on the common fork-join pool.
+     */
+    @Override
+    public List<ECCipherText> encryptAll(ECPublicKey publicKey, List<ModInteger> messages) {
+        // build the combs of the public key once, before they are used concurrently
+        publicKey.multiplyG(ModInteger.ONE);
+        publicKey.multiplyH(ModInteger.ONE);
+
+        return messages.parallelStream()
+            .map(message -> this.encrypt(publicKey, message))
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The messages are encrypted one by one, whenever the returned iterator is advanced.
+     */
+    @Override
+    public Iterator<ECCipherText> encryptAll(ECPublicKey publicKey, Iterator<ModInteger> messages) {
+        return new Iterator<ECCipherText>() {
+            @Override
+            public boolean hasNext() {
+                return messages.hasNext();
+            }
+
+            @Override
+            public ECCipherText next() {
+                return encrypt(publicKey, messages.next());
+            }
+        };
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The plaintext is searched within increasing intervals, starting at [0, 2^16 - 1].
+     * Prefer {@link #decrypt(ECPrivateKey, ECCipherText, long)} if an upper bound is known.
+     */
+    @Override
+    public ModInteger decrypt(ECPrivateKey privateKey, ECCipherText cipherText) {
+        ECPoint mG = this.toPlainPoint(privateKey, cipherText);
+
+        long lowerBound = 0;
+        long upperBound = INITIAL_SEARCH_BOUND;
+        while (true) {
+            ModInteger message = this.discreteLogSolver.solve(privateKey.getG(), mG, lowerBound, upperBound);
+
+            if (null != message) {
+                return message;
+            }
+
+            if (upperBound == Long.MAX_VALUE) {
+                throw new IllegalArgumentException("The plaintext of the given cipher text is not within [0, " + Long.MAX_VALUE + "].");
+            }
+
+            lowerBound = upperBound + 1;
+            upperBound = (upperBound > Long.MAX_VALUE / 2) ? Long.MAX_VALUE : upperBound * 2 + 1;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ModInteger decrypt(ECPrivateKey privateKey, ECCipherText cipherText, long upperBound) throws IllegalArgumentException {
+        return this.decrypt(privateKey, cipherText, 0, upperBound);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ModInteger decrypt(ECPrivateKey privateKey, ECCipherText cipherText, long lowerBound, long upperBound) throws IllegalArgumentException {
+        ModInteger message = this.discreteLogSolver.solve(privateKey.getG(), this.toPlainPoint(privateKey, cipherText), lowerBound, upperBound);
+
+        if (null == message) {
+            throw new IllegalArgumentException("The plaintext of the given cipher text is not within [" + lowerBound + ", " + upperBound + "].");
+        }
+
+        return message;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The cipher texts are decrypted in parallel on the common fork-join pool.
+     */
+    @Override
+    public List<ModInteger> decryptAll(ECPrivateKey privateKey, List<ECCipherText> cipherTexts) {
+        return cipherTexts.parallelStream()
+            .map(cipherText -> this.decrypt(privateKey, cipherText))
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The cipher texts are decrypted in parallel on the common fork-join pool,
+     * sharing a table of baby steps which is built once before.
+     */
+    @Override
+    public List<ModInteger> decryptAll(ECPrivateKey privateKey, List<ECCipherText> cipherTexts, long upperBound) throws IllegalArgumentException {
+        return this.decryptAll(privateKey, cipherTexts, 0, upperBound);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The cipher texts are decrypted in parallel on the common fork-join pool,
+     * sharing a table of baby steps which is built once before.
+     */
+    @Override
+    public List<ModInteger> decryptAll(ECPrivateKey privateKey, List<ECCipherText> cipherTexts, long lowerBound, long upperBound) throws IllegalArgumentException {
+        this.discreteLogSolver.prepare(privateKey.getG(), lowerBound, upperBound);
+
+        return cipherTexts.parallelStream()
+            .map(cipherText -> this.decrypt(privateKey, cipherText, lowerBound, upperBound))
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Removes the randomness from the given cipher text.
+     *
+     * @return The plaintext as multiple of the base point, i.e. <code>m * G = (r * H + m * G) - x * (r * G)</code>.
+     */
+    private ECPoint toPlainPoint(ECPrivateKey privateKey, ECCipherText cipherText) {
+        return cipherText.getH().subtract(cipherText.getG().multiply(privateKey.getX().asBigInteger()));
+    }
+}
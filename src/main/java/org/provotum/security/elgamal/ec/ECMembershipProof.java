@@ -0,0 +1,168 @@
+package org.provotum.security.elgamal.ec;
+
+import org.bouncycastle.math.ec.ECPoint;
+import org.provotum.security.api.IDomainProof;
+import org.provotum.security.arithmetic.ModInteger;
+import org.provotum.security.serializer.Transcript;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A proof that an elliptic curve ElGamal encrypted value is within a particular range.
+ * This proof is based on the Chaum-Pedersen protocol, made non-interactive using the Fiat-Shamir heuristic,
+ * with the challenge derived from a {@link Transcript} of all points.
+ * <p>
+ * As the commitments y and z of all branches can be recomputed from the responses s and c,
+ * only the responses are held by a proof, i.e. two scalars per domain value.
+ */
+public class ECMembershipProof implements IDomainProof<ECCipherText, ECPublicKey> {
+
+    private final List<ModInteger> sResponses;
+    private final List<ModInteger> cResponses;
+
+    /**
+     * @param publicKey        The public key used during encryption.
+     * @param plainTextMessage The plaintext message which is encrypted.
+     * @param cipherText       The ciphertext encrypting the plaintext message.
+     * @param domain           A list of values the plaintext message can take on.
+     * @return A proof, that the plaintext message is within the given domain.
+     */
+    public static ECMembershipProof commit(ECPublicKey publicKey, ModInteger plainTextMessage, ECCipherText cipherText, List<ModInteger> domain) {
+        ModInteger n = publicKey.getN();
+
+        List<ECPoint> yValues = new ArrayList<>(domain.size());
+        List<ECPoint> zValues = new ArrayList<>(domain.size());
+        List<ModInteger> sResponses = new ArrayList<>(domain.size());
+        List<ModInteger> cResponses = new ArrayList<>(domain.size());
+
+        // generate a random value we use
+        // while committing to the real vote
+        ModInteger t = ModInteger.random(n);
+
+        int messageIndex = 0;
+
+        for (int i = 0; i < domain.size(); i++) {
+            ECPoint y;
+            ECPoint z;
+
+            if (domain.get(i).equals(plainTextMessage)) {
+                // add fake values, will be set after we got the challenge
+                sResponses.add(ModInteger.ZERO);
+                cResponses.add(ModInteger.ZERO);
+
+                // create according to one execution of the Schnorr protocol
+                y = publicKey.multiplyG(t);
+                z = publicKey.multiplyH(t);
+
+                messageIndex = i;
+            } else {
+                ModInteger s = ModInteger.random(n);
+                ModInteger c = ModInteger.random(n);
+
+                sResponses.add(s);
+                cResponses.add(c);
+
+                y = commitmentY(publicKey, cipherText, s, c);
+                z = commitmentZ(publicKey, cipherText, domain.get(i), s, c);
+            }
+
+            yValues.add(y);
+            zValues.add(z);
+        }
+
+        ModInteger c0 = challenge(publicKey, cipherText, yValues, zValues);
+
+        //  Subtract all fake c from the real one.
+        for (ModInteger fakeC : cResponses) {
+            c0 = c0.subtract(fakeC);
+        }
+
+        // s = t0 + c0 * r
+        sResponses.set(messageIndex, c0.multiply(cipherText.getR()).add(t));
+        cResponses.set(messageIndex, c0);
+
+        return new ECMembershipProof(sResponses, cResponses);
+    }
+
+    /**
+     * @param sResponses The list of s values of all branches, modulo the order n.
+     * @param cResponses The list of challenges of all branches, modulo the order n.
+     */
+    public ECMembershipProof(List<ModInteger> sResponses, List<ModInteger> cResponses) {
+        this.sResponses = Collections.unmodifiableList(new ArrayList<>(sResponses));
+        this.cResponses = Collections.unmodifiableList(new ArrayList<>(cResponses));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean verify(ECPublicKey publicKey, ECCipherText cipherText, List<ModInteger> domain) {
+        if (domain.size() != this.cResponses.size() || domain.size() != this.sResponses.size()) {
+            return false;
+        }
+
+        if (! publicKey.isGroupElement(cipherText.getG()) || ! publicKey.isGroupElement(cipherText.getH())) {
+            return false;
+        }
+
+        ModInteger n = publicKey.getN();
+        ModInteger cChoices = new ModInteger(ModInteger.ZERO, n);
+
+        List<ECPoint> yValues = new ArrayList<>(domain.size());
+        List<ECPoint> zValues = new ArrayList<>(domain.size());
+
+        for (int i = 0; i < domain.size(); i++) {
+            ModInteger s = this.sResponses.get(i);
+            ModInteger c = this.cResponses.get(i);
+
+            cChoices = cChoices.add(c);
+
+            yValues.add(commitmentY(publicKey, cipherText, s, c));
+            zValues.add(commitmentZ(publicKey, cipherText, domain.get(i), s, c));
+        }
+
+        return cChoices.equals(challenge(publicKey, cipherText, yValues, zValues));
+    }
+
+    /**
+     * @return y = s * G - c * G', with G' being the first component of the ciphertext.
+     */
+    private static ECPoint commitmentY(ECPublicKey publicKey, ECCipherText cipherText, ModInteger s, ModInteger c) {
+        return publicKey.multiplyG(s).subtract(cipherText.getG().multiply(c.asBigInteger()));
+    }
+
+    /**
+     * @return z = s * H - c * (H' - m * G), with H' being the second component of the ciphertext.
+     */
+    private static ECPoint commitmentZ(ECPublicKey publicKey, ECCipherText cipherText, ModInteger domainValue, ModInteger s, ModInteger c) {
+        return publicKey.multiplyH(s).subtract(cipherText.getH().subtract(publicKey.multiplyG(domainValue)).multiply(c.asBigInteger()));
+    }
+
+    /**
+     * Create the challenge according to the Fiat-Shamir heuristic, i.e. the hash
+     * over the public values and the commitments of all branches of the proof.
+     */
+    private static ModInteger challenge(ECPublicKey publicKey, ECCipherText cipherText, List<ECPoint> yValues, List<ECPoint> zValues) {
+        Transcript transcript = publicKey.transcript();
+        ECPublicKey.append(transcript, cipherText.getG());
+        ECPublicKey.append(transcript, cipherText.getH());
+
+        for (int i = 0; i < yValues.size(); i++) {
+            ECPublicKey.append(transcript, yValues.get(i));
+            ECPublicKey.append(transcript, zValues.get(i));
+        }
+
+        return transcript.challenge(publicKey.getN());
+    }
+
+    public List<ModInteger> getsResponses() {
+        return this.sResponses;
+    }
+
+    public List<ModInteger> getcResponses() {
+        return this.cResponses;
+    }
+}
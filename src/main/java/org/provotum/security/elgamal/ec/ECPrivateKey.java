@@ -0,0 +1,69 @@
+package org.provotum.security.elgamal.ec;
+
+import org.bouncycastle.crypto.params.ECDomainParameters;
+import org.bouncycastle.crypto.params.ECPrivateKeyParameters;
+import org.bouncycastle.math.ec.ECPoint;
+import org.provotum.security.arithmetic.ModInteger;
+
+import java.math.BigInteger;
+
+/**
+ * An ElGamal private key over an elliptic curve.
+ */
+public class ECPrivateKey {
+
+    private final ECDomainParameters parameters;
+    private final ModInteger x;
+
+    /**
+     * @param privateKey The elliptic curve private key to use.
+     */
+    public ECPrivateKey(ECPrivateKeyParameters privateKey) {
+        this(privateKey.getParameters(), privateKey.getD());
+    }
+
+    /**
+     * @param parameters The curve, its base point G and the order n of G.
+     * @param x          The private key x.
+     */
+    public ECPrivateKey(ECDomainParameters parameters, BigInteger x) {
+        this.parameters = parameters;
+        this.x = new ModInteger(x, parameters.getN());
+    }
+
+    /**
+     * The private key value.
+     *
+     * @return The private key.
+     */
+    public ModInteger getX() {
+        return this.x;
+    }
+
+    /**
+     * @return The curve, its base point G and the order n of G.
+     */
+    public ECDomainParameters getParameters() {
+        return this.parameters;
+    }
+
+    /**
+     * @return The base point <b>G</b>.
+     */
+    public ECPoint getG() {
+        return this.parameters.getG();
+    }
+
+    @Override
+    public int hashCode() {
+        return this.x.hashCode() | this.parameters.getG().hashCode();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return (this == o) || (o instanceof ECPrivateKey) &&
+            this.x.equals(((ECPrivateKey) o).x) &&
+            this.parameters.getCurve().equals(((ECPrivateKey) o).parameters.getCurve()) &&
+            this.parameters.getG().equals(((ECPrivateKey) o).parameters.getG());
+    }
+}
@@ -0,0 +1,176 @@
+package org.provotum.security.elgamal.ec;
+
+import org.bouncycastle.crypto.params.ECDomainParameters;
+import org.bouncycastle.crypto.params.ECPublicKeyParameters;
+import org.bouncycastle.math.ec.ECMultiplier;
+import org.bouncycastle.math.ec.ECPoint;
+import org.bouncycastle.math.ec.FixedPointCombMultiplier;
+import org.provotum.security.arithmetic.ModInteger;
+import org.provotum.security.serializer.Transcript;
+
+import java.math.BigInteger;
+
+/**
+ * An ElGamal public key over an elliptic curve.
+ * <p>
+ * The group is the subgroup of prime order n generated by the base point G of the curve,
+ * the public value is the point <code>H = x * G</code> for the private key x.
+ * As both points are fixed for the lifetime of a key, multiples of them are computed using
+ * a comb of precomputed points, see {@link #multiplyG(ModInteger)} and {@link #multiplyH(ModInteger)}.
+ * The combs are built on first use and attached to the points.
+ */
+public class ECPublicKey {
+
+    private static final ECMultiplier FIXED_POINT_MULTIPLIER = new FixedPointCombMultiplier();
+
+    private final ECDomainParameters parameters;
+    private final ECPoint h;
+    private final ModInteger n;
+
+    private volatile Transcript transcript;
+
+    /**
+     * @param publicKey The elliptic curve public key to use.
+     */
+    public ECPublicKey(ECPublicKeyParameters publicKey) {
+        this(publicKey.getParameters(), publicKey.getQ());
+    }
+
+    /**
+     * @param parameters The curve, its base point G and the order n of G.
+     * @param h          The public key value, i.e. <code>H = x * G</code>.
+     */
+    public ECPublicKey(ECDomainParameters parameters, ECPoint h) {
+        this.parameters = parameters;
+        this.h = h.normalize();
+        this.n = new ModInteger(parameters.getN());
+    }
+
+    /**
+     * @return The curve, its base point G and the order n of G.
+     */
+    public ECDomainParameters getParameters() {
+        return this.parameters;
+    }
+
+    /**
+     * @return The base point <b>G</b>.
+     */
+    public ECPoint getG() {
+        return this.parameters.getG();
+    }
+
+    /**
+     * @return The public key value <b>H</b>.
+     */
+    public ECPoint getH() {
+        return this.h;
+    }
+
+    /**
+     * @return The prime order <b>n</b> of the base point.
+     */
+    public ModInteger getN() {
+        return this.n;
+    }
+
+    /**
+     * Multiply the base point G by the given scalar.
+     *
+     * @param scalar The scalar.
+     * @return <code>scalar * G</code>
+     */
+    public ECPoint multiplyG(ModInteger scalar) {
+        return this.multiply(this.parameters.getG(), scalar);
+    }
+
+    /**
+     * Multiply the public value H by the given scalar.
+     *
+     * @param scalar The scalar.
+     * @return <code>scalar * H</code>
+     */
+    public ECPoint multiplyH(ModInteger scalar) {
+        return this.multiply(this.h, scalar);
+    }
+
+    /**
+     * Checks whether the given point lies on the curve and within the subgroup of order n.
+     *
+     * @param point The point to check.
+     * @return True, if the point is a valid group element, false otherwise.
+     */
+    public boolean isGroupElement(ECPoint point) {
+        if (! point.getCurve().equals(this.parameters.getCurve()) || ! point.isValid()) {
+            return false;
+        }
+
+        // curves of cofactor 1 have no points outside the subgroup
+        return BigInteger.ONE.equals(this.parameters.getH()) || point.multiply(this.parameters.getN()).isInfinity();
+    }
+
+    /**
+     * Creates a transcript for a non-interactive proof relative to this key,
+     * already holding the coefficients of the curve, the base point G and the public value H.
+     * Points are written as their affine coordinates, each of the width of the field.
+     *
+     * @return A new transcript.
+     */
+    public Transcript transcript() {
+        Transcript prefix = this.transcript;
+
+        if (null == prefix) {
+            prefix = new Transcript(new ModInteger(this.parameters.getCurve().getField().getCharacteristic()))
+                .append(new ModInteger(this.parameters.getCurve().getA().toBigInteger()))
+                .append(new ModInteger(this.parameters.getCurve().getB().toBigInteger()));
+            append(prefix, this.parameters.getG());
+            append(prefix, this.h);
+            this.transcript = prefix;
+        }
+
+        return prefix.copy();
+    }
+
+    /**
+     * Append the affine coordinates of the given point to a transcript,
+     * writing the point at infinity as <code>(0, 0)</code>.
+     *
+     * @param transcript The transcript.
+     * @param point      The point.
+     * @return The transcript.
+     */
+    static Transcript append(Transcript transcript, ECPoint point) {
+        if (point.isInfinity()) {
+            return transcript.append(ModInteger.ZERO).append(ModInteger.ZERO);
+        }
+
+        ECPoint normalized = point.normalize();
+
+        return transcript
+            .append(new ModInteger(normalized.getAffineXCoord().toBigInteger()))
+            .append(new ModInteger(normalized.getAffineYCoord().toBigInteger()));
+    }
+
+    private ECPoint multiply(ECPoint point, ModInteger scalar) {
+        BigInteger k = scalar.asBigInteger().mod(this.parameters.getN());
+
+        if (k.signum() == 0) {
+            return this.parameters.getCurve().getInfinity();
+        }
+
+        return FIXED_POINT_MULTIPLIER.multiply(point, k);
+    }
+
+    @Override
+    public int hashCode() {
+        return this.h.hashCode() | this.parameters.getG().hashCode();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return (this == o) || (o instanceof ECPublicKey) &&
+            this.h.equals(((ECPublicKey) o).h) &&
+            this.parameters.getCurve().equals(((ECPublicKey) o).parameters.getCurve()) &&
+            this.parameters.getG().equals(((ECPublicKey) o).parameters.getG());
+    }
+}
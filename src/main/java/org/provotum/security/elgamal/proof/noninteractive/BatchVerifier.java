@@ -0,0 +1,327 @@
+package org.provotum.security.elgamal.proof.noninteractive;
+
+import org.provotum.security.arithmetic.ModInteger;
+import org.provotum.security.arithmetic.MultiExponentiation;
+import org.provotum.security.elgamal.PublicKey;
+import org.provotum.security.elgamal.additive.CipherText;
+import org.provotum.security.random.Context;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Verifies many {@link MembershipProof}s at once.
+ * <p>
+ * For each branch j of a proof for the ciphertext (G, H) the verifier has to check that the
+ * commitments y and z contained in the proof satisfy:
+ * <pre>
+ *     y_j = g^s_j * G^(-c_j)
+ *     z_j = h^s_j * (H / g^m_j)^(-c_j)
+ * </pre>
+ * Instead of checking each equation on its own, all equations are raised to the power of small random
+ * exponents a_j, b_j and multiplied, resulting in a single equation per batch:
+ * <pre>
+ *     prod( y_j^a_j * z_j^b_j * G^(a_j * c_j) * H^(b_j * c_j) ) * g^(-sum( a_j * s_j + b_j * m_j * c_j )) * h^(-sum( b_j * s_j )) = 1
+ * </pre>
+ * which is evaluated using one simultaneous exponentiation. A batch containing an invalid proof
+ * satisfies this equation with a probability of at most 2^(-{@link #SECURITY_PARAMETER}).
+ * The Fiat-Shamir challenge is still checked per proof, over the commitments contained in the proof.
+ * <p>
+ * The exponents of G and H are reduced modulo q, hence both are checked to be elements of the group of order q
+ * beforehand. For safe primes, this only takes a Jacobi symbol. For other groups, e.g. Schnorr groups of DSA
+ * parameters, it takes one exponentiation by q for each of G and H.
+ * <p>
+ * The commitments y and z are not checked by an exponentiation. As q does not divide the cofactor (p-1)/q,
+ * every element of Z_p^* splits uniquely into a part within the group of order q and a part outside of it.
+ * The combined equation holds only if the parts within the group do, i.e. the statement about G and H is proven
+ * regardless of any part outside of the group. Such a part cannot help to forge a proof, as it is bound by the
+ * challenge, but it makes the proof differ from the one the prover computed. Hence, the commitments are checked
+ * to be quadratic residues, which the group of odd order q is contained in. For safe primes, this is exactly the
+ * group of order q. For other groups, a part outside of the group of order q which is a quadratic residue is only
+ * detected by the combined equation, with a probability depending on its order, and by the individual
+ * verification of a proof once the batch is bisected.
+ * <p>
+ * If a batch does not hold, it is bisected down to the failing proofs.
+ */
+public class BatchVerifier {
+
+    /**
+     * The bit length of the random exponents used to combine the equations.
+     */
+    public static final int SECURITY_PARAMETER = 64;
+
+    /**
+     * The number of proofs combined into one simultaneous exponentiation.
+     * Larger chunks share more squarings, smaller ones allow more parallelism.
+     */
+    private static final int CHUNK_SIZE = 64;
+
+    private static final Context RANDOM_CONTEXT = new Context();
+
+    private final List<Entry> entries = new ArrayList<>();
+
+    /**
+     * Add a proof to verify.
+     *
+     * @param publicKey  The public key used during encryption.
+     * @param cipherText The ciphertext the proof was created for.
+     * @param proof      The proof to verify.
+     * @param domain     A list of plaintext values the encrypted plaintext may have.
+     * @return The index of the proof within this batch.
+     */
+    public int add(PublicKey publicKey, CipherText cipherText, MembershipProof proof, List<ModInteger> domain) {
+        return this.add(publicKey, cipherText, proof, new ProofDomain(publicKey, domain));
+    }
+
+    /**
+     * Add a proof to verify.
+     *
+     * @param publicKey  The public key used during encryption.
+     * @param cipherText The ciphertext the proof was created for.
+     * @param proof      The proof to verify.
+     * @param domain     The plaintext values the encrypted plaintext may have.
+     * @return The index of the proof within this batch.
+     * @throws IllegalArgumentException If the domain was created for another public key.
+     */
+    public int add(PublicKey publicKey, CipherText cipherText, MembershipProof proof, ProofDomain domain) throws IllegalArgumentException {
+        domain.checkPublicKey(publicKey);
+        this.entries.add(new Entry(publicKey, cipherText, proof, domain));
+
+        return this.entries.size() - 1;
+    }
+
+    /**
+     * @return The number of proofs added to this batch.
+     */
+    public int size() {
+        return this.entries.size();
+    }
+
+    /**
+     * Verify all proofs added to this batch.
+     *
+     * @return The sorted indices of all invalid proofs. An empty list, if all proofs are valid.
+     */
+    public List<Integer> verify() {
+        // Check the structure, the group membership and the challenge of each proof individually.
+        // Only the group membership of G and H requires an exponentiation, for groups other than safe primes.
+        boolean[] valid = new boolean[this.entries.size()];
+        IntStream.range(0, this.entries.size()).parallel().forEach(i -> valid[i] = this.entries.get(i).precheck());
+
+        List<Integer> candidates = new ArrayList<>();
+        List<Integer> invalid = new ArrayList<>();
+        for (int i = 0; i < valid.length; i++) {
+            if (valid[i]) {
+                candidates.add(i);
+            } else {
+                invalid.add(i);
+            }
+        }
+
+        invalid.addAll(this.bisect(candidates));
+        Collections.sort(invalid);
+
+        return invalid;
+    }
+
+    /**
+     * @return True, if all proofs added to this batch are valid.
+     */
+    public boolean verifyAll() {
+        return this.verify().isEmpty();
+    }
+
+    /**
+     * Find all invalid proofs among the given ones by recursively halving the set of proofs
+     * until each part satisfies the combined equation.
+     */
+    private List<Integer> bisect(List<Integer> indices) {
+        if (indices.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        if (indices.size() == 1) {
+            Entry entry = this.entries.get(indices.get(0));
+
+            if (entry.proof.verify(entry.publicKey, entry.cipherText, entry.domain)) {
+                return Collections.emptyList();
+            }
+
+            return indices;
+        }
+
+        if (this.holds(indices)) {
+            return Collections.emptyList();
+        }
+
+        int half = indices.size() / 2;
+        List<Integer> invalid = new ArrayList<>(this.bisect(indices.subList(0, half)));
+        invalid.addAll(this.bisect(indices.subList(half, indices.size())));
+
+        return invalid;
+    }
+
+    /**
+     * Check the combined equation for the given proofs, using fresh random exponents.
+     * Proofs for different public keys are combined separately.
+     */
+    private boolean holds(List<Integer> indices) {
+        List<List<Integer>> chunks = new ArrayList<>();
+
+        for (List<Integer> group : indices.stream().collect(Collectors.groupingBy(i -> this.entries.get(i).publicKey)).values()) {
+            for (int from = 0; from < group.size(); from += CHUNK_SIZE) {
+                chunks.add(group.subList(from, Math.min(group.size(), from + CHUNK_SIZE)));
+            }
+        }
+
+        return chunks.parallelStream().allMatch(this::holdsForChunk);
+    }
+
+    private boolean holdsForChunk(List<Integer> indices) {
+        PublicKey publicKey = this.entries.get(indices.get(0)).publicKey;
+        BigInteger p = publicKey.getP().asBigInteger();
+        BigInteger q = publicKey.getQ().asBigInteger();
+
+        List<BigInteger> bases = new ArrayList<>();
+        List<BigInteger> exponents = new ArrayList<>();
+
+        // the accumulated exponents of g and h over all proofs
+        BigInteger gExponent = BigInteger.ZERO;
+        BigInteger hExponent = BigInteger.ZERO;
+
+        for (int index : indices) {
+            Entry entry = this.entries.get(index);
+            MembershipProof proof = entry.proof;
+
+            BigInteger bigGExponent = BigInteger.ZERO;
+            BigInteger bigHExponent = BigInteger.ZERO;
+
+            for (int j = 0; j < proof.getcResponses().size(); j++) {
+                BigInteger a = new BigInteger(SECURITY_PARAMETER, RANDOM_CONTEXT.getRandom());
+                BigInteger b = new BigInteger(SECURITY_PARAMETER, RANDOM_CONTEXT.getRandom());
+
+                BigInteger s = proof.getsResponses().get(j).asBigInteger();
+                BigInteger c = proof.getcResponses().get(j).asBigInteger();
+                BigInteger m = entry.domain.getValue(j).asBigInteger();
+
+                // y^a * z^b
+                bases.add(proof.getyResponses().get(j).asBigInteger());
+                exponents.add(a);
+                bases.add(proof.getzResponses().get(j).asBigInteger());
+                exponents.add(b);
+
+                bigGExponent = bigGExponent.add(a.multiply(c));
+                bigHExponent = bigHExponent.add(b.multiply(c));
+
+                gExponent = gExponent.add(a.multiply(s)).add(b.multiply(m).multiply(c));
+                hExponent = hExponent.add(b.multiply(s));
+            }
+
+            // G and H are elements of the group of order q, hence their exponents may be reduced
+            bases.add(entry.cipherText.getG().asBigInteger());
+            exponents.add(bigGExponent.mod(q));
+            bases.add(entry.cipherText.getH().asBigInteger());
+            exponents.add(bigHExponent.mod(q));
+        }
+
+        BigInteger product = MultiExponentiation.pow(bases, exponents, p);
+
+        // g^(-x) = g^(q - x) within the group of order q
+        ModInteger gPart = publicKey.powG(new ModInteger(q.subtract(gExponent.mod(q))));
+        ModInteger hPart = publicKey.powH(new ModInteger(q.subtract(hExponent.mod(q))));
+
+        return product.multiply(gPart.asBigInteger()).multiply(hPart.asBigInteger()).mod(p).equals(BigInteger.ONE);
+    }
+
+    private static final class Entry {
+        private final PublicKey publicKey;
+        private final CipherText cipherText;
+        private final MembershipProof proof;
+        private final ProofDomain domain;
+
+        private Entry(PublicKey publicKey, CipherText cipherText, MembershipProof proof, ProofDomain domain) {
+            this.publicKey = publicKey;
+            this.cipherText = cipherText;
+            this.proof = proof;
+            this.domain = domain;
+        }
+
+        /**
+         * Check all conditions of the proof besides the combined equation.
+         * Requires two exponentiations for groups other than safe primes, see {@link BatchVerifier}.
+         *
+         * @return True, if the proof may be valid, false if it is invalid for sure.
+         */
+        private boolean precheck() {
+            int branches = this.proof.getcResponses().size();
+
+            if (this.domain.size() < branches ||
+                this.proof.getsResponses().size() != branches ||
+                this.proof.getyResponses().size() != branches ||
+                this.proof.getzResponses().size() != branches) {
+                return false;
+            }
+
+            if (! this.publicKey.getP().equals(this.proof.getP()) ||
+                ! this.publicKey.getQ().asBigInteger().equals(this.proof.getQ().asBigInteger()) ||
+                ! hasCoprimeCofactor(this.publicKey) ||
+                ! this.publicKey.isGroupElement(this.cipherText.getG()) ||
+                ! this.publicKey.isGroupElement(this.cipherText.getH())) {
+                return false;
+            }
+
+            for (int j = 0; j < branches; j++) {
+                if (! isQuadraticResidue(this.publicKey, this.proof.getyResponses().get(j)) ||
+                    ! isQuadraticResidue(this.publicKey, this.proof.getzResponses().get(j))) {
+                    return false;
+                }
+            }
+
+            ModInteger q = this.publicKey.getQ();
+
+            if (null == MembershipProof.challengeBound(this.proof.getVersion(), q)) {
+                return false;
+            }
+
+            ModInteger challenge = MembershipProof.challenge(
+                this.proof.getVersion(),
+                this.publicKey,
+                this.cipherText.getG(),
+                this.cipherText.getH(),
+                this.proof.getyResponses(),
+                this.proof.getzResponses(),
+                q
+            );
+
+            return MembershipProof.isChallengeSum(challenge, this.proof.getcResponses());
+        }
+
+        /**
+         * @return True, if q divides p - 1 exactly once, i.e. q does not divide the cofactor (p-1)/q.
+         */
+        private static boolean hasCoprimeCofactor(PublicKey publicKey) {
+            BigInteger q = publicKey.getQ().asBigInteger();
+            BigInteger[] cofactor = publicKey.getP().asBigInteger().subtract(BigInteger.ONE).divideAndRemainder(q);
+
+            return cofactor[1].signum() == 0 && cofactor[0].mod(q).signum() != 0;
+        }
+
+        /**
+         * @return True, if the given value is a quadratic residue within [1, p).
+         */
+        private static boolean isQuadraticResidue(PublicKey publicKey, ModInteger element) {
+            BigInteger p = publicKey.getP().asBigInteger();
+            BigInteger value = element.asBigInteger();
+
+            if (value.signum() <= 0 || value.compareTo(p) >= 0) {
+                return false;
+            }
+
+            return new ModInteger(value, p).jacobi() == 1;
+        }
+    }
+}
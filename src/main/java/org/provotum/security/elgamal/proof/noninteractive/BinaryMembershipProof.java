@@ -0,0 +1,209 @@
+package org.provotum.security.elgamal.proof.noninteractive;
+
+import org.provotum.security.arithmetic.ModInteger;
+import org.provotum.security.elgamal.PublicKey;
+import org.provotum.security.elgamal.additive.CipherText;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A {@link MembershipProof} that an ElGamal encrypted value is either 0 or 1.
+ * <p>
+ * The domain {0, 1} is the most common one, e.g. to approve or reject a single candidate.
+ * Instead of iterating over an arbitrary domain, the prover and verifier of this proof handle both branches explicitly:
+ * <pre>
+ *     y_0 = g^s_0 * G^(-c_0),  z_0 = h^s_0 * H^(-c_0)
+ *     y_1 = g^s_1 * G^(-c_1),  z_1 = h^s_1 * (H * g^(-1))^(-c_1)
+ * </pre>
+ * using the inverse of the generator precomputed by the public key. The challenge is derived from
+ * a transcript in the same way as for proofs of {@link MembershipProof#VERSION_TRANSCRIPT}.
+ * Hence, a binary proof is an ordinary membership proof over the domain {0, 1}: It is serialized
+ * by the same serializer, and it verifies using the generic verification as well as vice versa.
+ */
+public class BinaryMembershipProof extends MembershipProof {
+
+    private static final List<ModInteger> BINARY_DOMAIN = Collections.unmodifiableList(Arrays.asList(ModInteger.ZERO, ModInteger.ONE));
+
+    /**
+     * @param publicKey        The public key used during encryption.
+     * @param plainTextMessage The plaintext message which is encrypted, either 0 or 1.
+     * @param cipherText       The ciphertext encrypting the plaintext message.
+     * @return A proof, that the plaintext message is either 0 or 1.
+     * @throws IllegalArgumentException If the plaintext message is neither 0 nor 1.
+     */
+    public static BinaryMembershipProof commit(PublicKey publicKey, ModInteger plainTextMessage, CipherText cipherText) throws IllegalArgumentException {
+        BigInteger message = plainTextMessage.asBigInteger();
+
+        if (! message.equals(BigInteger.ZERO) && ! message.equals(BigInteger.ONE)) {
+            throw new IllegalArgumentException("The plaintext message must be either 0 or 1.");
+        }
+
+        ModInteger q = publicKey.getQ();
+        ModInteger bigG = cipherText.getG();
+        ModInteger bigH = cipherText.getH();
+
+        // generate a random value we use
+        // while committing to the real vote
+        ModInteger t = ModInteger.random(q);
+
+        // simulate the branch of the other value
+        ModInteger fakeS = ModInteger.random(q);
+        ModInteger fakeC = ModInteger.random(q);
+        ModInteger negFakeC = fakeC.negate();
+
+        ModInteger y0;
+        ModInteger z0;
+        ModInteger y1;
+        ModInteger z1;
+
+        if (message.equals(BigInteger.ZERO)) {
+            y0 = publicKey.powG(t);
+            z0 = publicKey.powH(t);
+            // y1 = g^s * G^(-c), z1 = h^s * (H * g^(-1))^(-c)
+            y1 = publicKey.powG(fakeS).multiply(bigG.pow(negFakeC));
+            z1 = publicKey.powH(fakeS).multiply(bigH.multiply(publicKey.getInverseG()).pow(negFakeC));
+        } else {
+            // y0 = g^s * G^(-c), z0 = h^s * H^(-c)
+            y0 = publicKey.powG(fakeS).multiply(bigG.pow(negFakeC));
+            z0 = publicKey.powH(fakeS).multiply(bigH.pow(negFakeC));
+            y1 = publicKey.powG(t);
+            z1 = publicKey.powH(t);
+        }
+
+        // the real challenge is the remainder of the Fiat-Shamir challenge
+        ModInteger realC = challenge(publicKey, bigG, bigH, y0, z0, y1, z1).subtract(fakeC);
+
+        // s = t + c * r
+        ModInteger realS = realC.multiply(cipherText.getR()).add(t);
+
+        List<ModInteger> sResponses;
+        List<ModInteger> cResponses;
+
+        if (message.equals(BigInteger.ZERO)) {
+            sResponses = Arrays.asList(realS, fakeS);
+            cResponses = Arrays.asList(realC, fakeC);
+        } else {
+            sResponses = Arrays.asList(fakeS, realS);
+            cResponses = Arrays.asList(fakeC, realC);
+        }
+
+        return new BinaryMembershipProof(publicKey.getP(), q, Arrays.asList(y0, y1), Arrays.asList(z0, z1), sResponses, cResponses);
+    }
+
+    /**
+     * @param p          The prime used during encryption of the ciphertext for which this proof should be made.
+     * @param q          The prime order q of the group, i.e. q = (p-1)/2 for safe primes.
+     * @param yResponses The y values of the branches 0 and 1.
+     * @param zResponses The z values of the branches 0 and 1.
+     * @param sResponses The s values of the branches 0 and 1.
+     * @param cResponses The challenges of the branches 0 and 1.
+     */
+    public BinaryMembershipProof(ModInteger p, ModInteger q, List<ModInteger> yResponses, List<ModInteger> zResponses, List<ModInteger> sResponses, List<ModInteger> cResponses) {
+        super(p, q, yResponses, zResponses, sResponses, cResponses, VERSION_TRANSCRIPT);
+    }
+
+    /**
+     * Use the fast verification for a membership proof over the domain {0, 1}, e.g. after deserializing it.
+     *
+     * @param proof The proof to verify.
+     */
+    public BinaryMembershipProof(MembershipProof proof) {
+        super(proof.getP(), proof.getQ(), proof.getyResponses(), proof.getzResponses(), proof.getsResponses(), proof.getcResponses(), proof.getVersion());
+    }
+
+    /**
+     * Verify that the given ciphertext encrypts either 0 or 1.
+     *
+     * @param publicKey  The public key used during encryption.
+     * @param cipherText The ciphertext to verify its range.
+     * @return True, if the encrypted ciphertext represents either 0 or 1, false otherwise.
+     */
+    public boolean verify(PublicKey publicKey, CipherText cipherText) {
+        if (this.getVersion() != VERSION_TRANSCRIPT) {
+            return super.verify(publicKey, cipherText, new ProofDomain(publicKey, BINARY_DOMAIN));
+        }
+
+        List<ModInteger> sResponses = this.getsResponses();
+        List<ModInteger> cResponses = this.getcResponses();
+
+        if (sResponses.size() != 2 || cResponses.size() != 2) {
+            return false;
+        }
+
+        ModInteger bigG = cipherText.getG();
+        ModInteger bigH = cipherText.getH();
+
+        if (! isTranscribable(publicKey, bigG, bigH, this.getP(), this.getQ())) {
+            return false;
+        }
+
+        ModInteger s0 = sResponses.get(0);
+        ModInteger s1 = sResponses.get(1);
+        ModInteger c0 = cResponses.get(0);
+        ModInteger c1 = cResponses.get(1);
+
+        // g^s * G^(-c) and h^s * (H * g^(-m))^(-c) for m = 0 and m = 1
+        ModInteger y0 = publicKey.powG(s0).multiply(bigG.pow(c0.negate()));
+        ModInteger z0 = publicKey.powH(s0).multiply(bigH.pow(c0.negate()));
+        ModInteger y1 = publicKey.powG(s1).multiply(bigG.pow(c1.negate()));
+        ModInteger z1 = publicKey.powH(s1).multiply(bigH.multiply(publicKey.getInverseG()).pow(c1.negate()));
+
+        ModInteger challenge = challenge(publicKey, bigG, bigH, y0, z0, y1, z1);
+
+        return isChallengeSum(challenge, cResponses);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Uses the fast verification if the domain is {0, 1}.
+     */
+    @Override
+    public boolean verify(PublicKey publicKey, CipherText cipherText, List<ModInteger> domain) {
+        if (isBinary(domain)) {
+            return this.verify(publicKey, cipherText);
+        }
+
+        return super.verify(publicKey, cipherText, domain);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Uses the fast verification if the domain is {0, 1}.
+     */
+    @Override
+    public boolean verify(PublicKey publicKey, CipherText cipherText, ProofDomain domain) throws IllegalArgumentException {
+        domain.checkPublicKey(publicKey);
+
+        if (isBinary(domain.getValues())) {
+            return this.verify(publicKey, cipherText);
+        }
+
+        return super.verify(publicKey, cipherText, domain);
+    }
+
+    /**
+     * Create the challenge from the transcript of both branches,
+     * equal to the challenge of a proof of {@link MembershipProof#VERSION_TRANSCRIPT}.
+     */
+    private static ModInteger challenge(PublicKey publicKey, ModInteger bigG, ModInteger bigH, ModInteger y0, ModInteger z0, ModInteger y1, ModInteger z1) {
+        return publicKey.transcript()
+            .append(bigG)
+            .append(bigH)
+            .append(y0)
+            .append(z0)
+            .append(y1)
+            .append(z1)
+            .challenge(publicKey.getQ());
+    }
+
+    private static boolean isBinary(List<ModInteger> domain) {
+        return domain.size() == 2 &&
+            domain.get(0).asBigInteger().equals(BigInteger.ZERO) &&
+            domain.get(1).asBigInteger().equals(BigInteger.ONE);
+    }
+}
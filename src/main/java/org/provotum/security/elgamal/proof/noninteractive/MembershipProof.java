@@ -4,17 +4,52 @@ import org.provotum.security.api.IMembershipProof;
 import org.provotum.security.arithmetic.ModInteger;
 import org.provotum.security.elgamal.PublicKey;
 import org.provotum.security.elgamal.additive.CipherText;
+import org.provotum.security.elgamal.additive.CipherTextAccumulator;
 import org.provotum.security.serializer.ShaSerializer;
+import org.provotum.security.serializer.Transcript;
 
+import java.math.BigInteger;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
  * A proof that an ElGamal encrypted value is within a particular range.
  * This proof is based on the Chaum-Pedersen protocol, made non-interactive using the Fiat-Shamir heuristic.
+ * <p>
+ * The version of a proof determines how its challenge is derived:
+ * Proofs of {@link #VERSION_STRING_HASH} hash the decimal representation of all values,
+ * proofs of {@link #VERSION_TRANSCRIPT} hash their binary representation using a {@link Transcript}.
+ * Proofs of {@link #VERSION_SHORT_CHALLENGE} use a transcript as well, but their challenges are taken
+ * modulo <code>2^</code>{@link #SHORT_CHALLENGE_BITS} instead of modulo q. The exponentiations
+ * <code>G^(-c)</code> and <code>(H / g^m)^(-c)</code> of each branch are then computed as inverses of
+ * short exponentiations, roughly halving the cost of creating and verifying a proof.
+ * New proofs are created using {@link #VERSION_TRANSCRIPT} unless requested otherwise, proofs of all versions can be verified.
  */
 public class MembershipProof implements IMembershipProof<CipherText> {
 
+    /**
+     * The challenge is the SHA-512 hash over the concatenated decimal representations of all values.
+     */
+    public static final int VERSION_STRING_HASH = 1;
+
+    /**
+     * The challenge is derived from a {@link Transcript} of all values.
+     */
+    public static final int VERSION_TRANSCRIPT = 2;
+
+    /**
+     * The challenge is derived from a {@link Transcript} of all values, reduced modulo <code>2^</code>{@link #SHORT_CHALLENGE_BITS}.
+     */
+    public static final int VERSION_SHORT_CHALLENGE = 3;
+
+    /**
+     * The bit length of the challenges of proofs of {@link #VERSION_SHORT_CHALLENGE}.
+     */
+    public static final int SHORT_CHALLENGE_BITS = 128;
+
+    private static final ModInteger SHORT_CHALLENGE_BOUND = new ModInteger(BigInteger.ONE.shiftLeft(SHORT_CHALLENGE_BITS));
+
     private final List<ModInteger> sResponses;
     private final List<ModInteger> cResponses;
     private final List<ModInteger> yResponses;
@@ -23,6 +58,8 @@ public class MembershipProof implements IMembershipProof<CipherText> {
     private final ModInteger p;
     private final ModInteger q;
 
+    private final int version;
+
     /**
      * @param publicKey        The public key used during encryption.
      * @param plainTextMessage The plaintext message which is encrypted.
@@ -31,6 +68,45 @@ public class MembershipProof implements IMembershipProof<CipherText> {
      * @return A proof, that the plaintext message is within the given domain.
      */
     public static MembershipProof commit(PublicKey publicKey, ModInteger plainTextMessage, CipherText cipherText, List<ModInteger> domains) {
+        return commit(publicKey, plainTextMessage, cipherText, new ProofDomain(publicKey, domains));
+    }
+
+    /**
+     * @param publicKey        The public key used during encryption.
+     * @param plainTextMessage The plaintext message which is encrypted.
+     * @param cipherText       The ciphertext encrypting the plaintext message.
+     * @param domain           The values the plaintext message can take on.
+     * @return A proof, that the plaintext message is within the given domain.
+     * @throws IllegalArgumentException If the domain was created for another public key.
+     */
+    public static MembershipProof commit(PublicKey publicKey, ModInteger plainTextMessage, CipherText cipherText, ProofDomain domain) throws IllegalArgumentException {
+        return commit(publicKey, plainTextMessage, cipherText, domain, VERSION_TRANSCRIPT);
+    }
+
+    /**
+     * @param publicKey        The public key used during encryption.
+     * @param plainTextMessage The plaintext message which is encrypted.
+     * @param cipherText       The ciphertext encrypting the plaintext message.
+     * @param domain           The values the plaintext message can take on.
+     * @param version          The version of the proof, either {@link #VERSION_TRANSCRIPT} or {@link #VERSION_SHORT_CHALLENGE}.
+     * @return A proof, that the plaintext message is within the given domain.
+     * @throws IllegalArgumentException If the domain was created for another public key, the version is not supported
+     *                                  or the order q of the group is too small for short challenges.
+     */
+    public static MembershipProof commit(PublicKey publicKey, ModInteger plainTextMessage, CipherText cipherText, ProofDomain domain, int version) throws IllegalArgumentException {
+        domain.checkPublicKey(publicKey);
+
+        if (version != VERSION_TRANSCRIPT && version != VERSION_SHORT_CHALLENGE) {
+            throw new IllegalArgumentException("Cannot create proofs of version " + version + ".");
+        }
+
+        ModInteger q = publicKey.getQ();
+        ModInteger challengeBound = challengeBound(version, q);
+
+        if (null == challengeBound) {
+            throw new IllegalArgumentException("The order of the group must exceed " + SHORT_CHALLENGE_BITS + " bits for short challenges.");
+        }
+
         // Holds the first response from the prover to the verifier
         List<ModInteger> yResponses = new ArrayList<>();
         List<ModInteger> zResponses = new ArrayList<>();
@@ -38,86 +114,80 @@ public class MembershipProof implements IMembershipProof<CipherText> {
         List<ModInteger> sResponses = new ArrayList<>();
         List<ModInteger> cResponses = new ArrayList<>();
 
-        // create the generator g and the public value of the private key
-        // relative to the prime modulus p.
-        ModInteger g = new ModInteger(publicKey.getG(), publicKey.getP());
-        ModInteger h = new ModInteger(publicKey.getH(), publicKey.getP());
-
         // generate a random value we use
         // while committing to the real vote
-        ModInteger t = ModInteger.random(publicKey.getQ());
-
-        // Create a string representation of
-        StringBuilder sb = new StringBuilder(4096);
-        sb.append(g);
-        sb.append(h);
-        sb.append(cipherText.getG());
-        sb.append(cipherText.getH());
+        ModInteger t = ModInteger.random(q);
 
         // the index of the domain of the message within
         // the list of all allowed domain values
-        int messageIndex = 0;
+        int messageIndex = -1;
+
+        // the bases G and H / g^m of all fake commitments and their exponents c
+        List<ModInteger> bases = new ArrayList<>();
+        List<ModInteger> exponents = new ArrayList<>();
 
         // for all values the cleartext message
         // could possibly take on, we either generate a fake commitment
         // or the real commitment (in case the domain is equal to the plaintext message)
-        for (int i = 0; i < domains.size(); i++) {
-            ModInteger y;
-            ModInteger z;
-            ModInteger domainValue = domains.get(i);
+        for (int i = 0; i < domain.size(); i++) {
+            ModInteger domainValue = domain.getValue(i);
 
             if (domainValue.equals(plainTextMessage)) {
                 // add fake values, will be set after we got the challenge
                 sResponses.add(ModInteger.ZERO);
                 cResponses.add(ModInteger.ZERO);
 
-                // create according to one execution of the Schnorr protocol
-                y = g.pow(t);
-                z = h.pow(t);
-
                 messageIndex = i;
             } else {
                 // add fake commitments as well as the corresponding response
                 // for a value which is not the plaintext message
-                ModInteger s = ModInteger.random(publicKey.getQ());
-                ModInteger c = ModInteger.random(publicKey.getQ());
+                ModInteger c = new ModInteger(ModInteger.random(challengeBound).asBigInteger(), q.asBigInteger());
 
-                sResponses.add(s);
+                sResponses.add(ModInteger.random(q));
                 cResponses.add(c);
 
-                ModInteger negC = c.negate();
+                bases.add(cipherText.getG());
+                bases.add(cipherText.getH().multiply(domain.getInversePower(i)));
+                exponents.add(c);
+                exponents.add(c);
+            }
+        }
 
-                // map the value of the domain into the group used for the message.
-                ModInteger gPow = g.pow(domainValue);
+        // G^(-c) and (H / g^m)^(-c) of all fake commitments
+        List<ModInteger> negativePowers = powNegated(version, bases, exponents);
+
+        for (int i = 0, j = 0; i < domain.size(); i++) {
+            if (i == messageIndex) {
+                // create according to one execution of the Schnorr protocol
+                yResponses.add(publicKey.powG(t));
+                zResponses.add(publicKey.powH(t));
+            } else {
+                ModInteger s = sResponses.get(i);
 
                 // Simulate values according to the Schnorr protocol for fake values
                 // y = g^s * G^(-c)
-                y = g.pow(s).multiply(cipherText.getG().pow(negC));
-                // z = h^s * (H / g)^(-c)
-                z = h.pow(s).multiply(cipherText.getH().divide(gPow).pow(negC));
+                yResponses.add(publicKey.powG(s).multiply(negativePowers.get(j++)));
+                // z = h^s * (H / g^m)^(-c) = h^s * (H * g^(-m))^(-c)
+                zResponses.add(publicKey.powH(s).multiply(negativePowers.get(j++)));
             }
+        }
 
-            // Add the initial commitment values
-            yResponses.add(y);
-            zResponses.add(z);
-
-            sb.append(y);
-            sb.append(z);
+        // a message outside of the domain results in an invalid proof
+        if (messageIndex < 0) {
+            messageIndex = 0;
         }
 
         // Use the Fiat-Shamir heuristic to create a random oracle
-        String s = sb.toString();
-        String cHash = ShaSerializer.toSha512HexString(s);
-
-        // Create a numeric value from the hash
         // and let's assume that realC is the challenge we received from the verifier
-        ModInteger c0 = new ModInteger(cHash, publicKey.getQ(), 16).mod(publicKey.getQ());
+        BigInteger realC = challenge(version, publicKey, cipherText.getG(), cipherText.getH(), yResponses, zResponses, q).asBigInteger();
 
-        //  Subtract all fake c from the real one.
+        //  Subtract all fake c from the real one, modulo the bound of the challenge.
         for (ModInteger fakeC : cResponses) {
-            c0 = c0.subtract(fakeC);
+            realC = realC.subtract(fakeC.asBigInteger());
         }
 
+        ModInteger c0 = new ModInteger(realC.mod(challengeBound.asBigInteger()), q.asBigInteger());
+
         // Calculate the correct s as described in the Schnorr protocol:
         // s = t0 + c0 * r
         sResponses.set(messageIndex, c0.multiply(cipherText.getR()).add(t));
@@ -125,7 +195,7 @@ public class MembershipProof implements IMembershipProof<CipherText> {
         // eventually set the commitment value for the correct message.
         cResponses.set(messageIndex, c0);
 
-        return new MembershipProof(publicKey.getP(), publicKey.getQ(), yResponses, zResponses, sResponses, cResponses);
+        return new MembershipProof(publicKey.getP(), q, yResponses, zResponses, sResponses, cResponses, version);
     }
 
     /**
@@ -138,18 +208,32 @@ public class MembershipProof implements IMembershipProof<CipherText> {
      * @param proof2      The proof of the second encrypted message that it encodes the correct value.
      * @param domain      The domain of the sum (i.e. all possible values the sum may have if both ciphertexts hold any of their domain values)
      * @return The proof that the plaintext sum of both ciphertexts is within the specified domain.
+     * @see #commitToSumAll(PublicKey, List, List)
      */
     public static MembershipProof commitToSum(PublicKey publicKey, CipherText cipherText1, MembershipProof proof1, CipherText cipherText2, MembershipProof proof2, List<ModInteger> domain) {
+        return commitToSum(publicKey, cipherText1, proof1, cipherText2, proof2, new ProofDomain(publicKey, domain));
+    }
+
+    /**
+     * Crate a membership proof that the sum of two messages is correct.
+     *
+     * @param publicKey   The public key used during encryption.
+     * @param cipherText1 The first encrypted message.
+     * @param proof1      The proof of the first encrypted message, that it encodes the correct values.
+     * @param cipherText2 The second encrypted message.
+     * @param proof2      The proof of the second encrypted message that it encodes the correct value.
+     * @param domain      The domain of the sum (i.e. all possible values the sum may have if both ciphertexts hold any of their domain values)
+     * @return The proof that the plaintext sum of both ciphertexts is within the specified domain.
+     * @throws IllegalArgumentException If the domain was created for another public key.
+     */
+    public static MembershipProof commitToSum(PublicKey publicKey, CipherText cipherText1, MembershipProof proof1, CipherText cipherText2, MembershipProof proof2, ProofDomain domain) throws IllegalArgumentException {
+        domain.checkPublicKey(publicKey);
+
         List<ModInteger> sResponses = new ArrayList<>();
         List<ModInteger> cResponses = new ArrayList<>();
         List<ModInteger> yResponses = new ArrayList<>();
         List<ModInteger> zResponses = new ArrayList<>();
 
-        // create the generator g and the public value of the private key
-        // relative to the prime modulus p.
-        ModInteger g = new ModInteger(publicKey.getG(), publicKey.getP());
-        ModInteger h = new ModInteger(publicKey.getH(), publicKey.getP());
-
         // apply the multiplication of both ciphertexts
         // i.e. in additive ElGamal this is the sum of the plaintext values
         ModInteger bigG = cipherText1.getG().multiply(cipherText2.getG());
@@ -161,12 +245,6 @@ public class MembershipProof implements IMembershipProof<CipherText> {
         // while committing to the real vote
         ModInteger t = ModInteger.random(publicKey.getQ());
 
-        StringBuilder sb = new StringBuilder(4096);
-        sb.append(g);
-        sb.append(h);
-        sb.append(bigG);
-        sb.append(bigH);
-
         // shift the domains so that stuff works...
         List<ModInteger> newCResponses1 = new ArrayList<>();
         List<ModInteger> newSResponses1 = new ArrayList<>();
@@ -181,7 +259,7 @@ public class MembershipProof implements IMembershipProof<CipherText> {
         int j = 0;
         int k = 0;
 
-        for (int i = domain.get(0).intValue(); i <= domain.get(domain.size() - 1).intValue(); i++) {
+        for (int i = domain.getValue(0).intValue(); i <= domain.getValue(domain.size() - 1).intValue(); i++) {
             if (i < min1.intValue() || i > max1.intValue()) {
                 newCResponses1.add(ModInteger.random(publicKey.getQ()));
                 newSResponses1.add(ModInteger.random(publicKey.getQ()));
@@ -201,20 +279,21 @@ public class MembershipProof implements IMembershipProof<CipherText> {
             }
         }
 
+        // the part of H not depending on the message, i.e. h^(r1 + r2)
+        ModInteger hPow = publicKey.powH(cipherText1.getR().add(cipherText2.getR()));
+
         // for all values the cleartext message
         // could possibly take on, we either generate a fake commitment
         // or the real commitment (in case the domain is equal to the plaintext message)
         for (int i = 0; i < domain.size(); i++) {
             ModInteger y;
             ModInteger z;
-            ModInteger domainValue = domain.get(i);
-
-            ModInteger gPow = g.pow(domainValue);
+            ModInteger gInvPow = domain.getInversePower(i);
 
             // is the domain equal to the message?
-            if (bigH.divide(gPow).equals(h.pow(cipherText1.getR().add(cipherText2.getR())))) {
-                y = g.pow(t);
-                z = h.pow(t);
+            if (bigH.multiply(gInvPow).equals(hPow)) {
+                y = publicKey.powG(t);
+                z = publicKey.powH(t);
                 cResponses.add(ModInteger.ZERO);
                 sResponses.add(ModInteger.ZERO);
                 messageIndex = i;
@@ -235,37 +314,30 @@ public class MembershipProof implements IMembershipProof<CipherText> {
                 ModInteger negC2 = c2.negate();
 
                 // create according to one execution of the Schnorr protocol
-                // i.e g^s1 * G1^(-c1)
-                // i.e g^s2 * G2^(-c2)
-                ModInteger y1 = g.pow(s1).multiply(cipherText1.getG().pow(negC1));
-                ModInteger y2 = g.pow(s2).multiply(cipherText2.getG().pow(negC2));
-
-                // y = (y1 * y2) / ( g^(r2 * c1 + r2 * c2) )
-                y = y1.multiply(y2).divide(g.pow(cipherText2.getR().multiply(c1).add(cipherText1.getR().multiply(c2))));
-
-                // z1 = h^s1 * (H1 / g^(-c1) )
-                // z2 = h^s2 * (H2 / g^(-c2) )
-                ModInteger z1 = h.pow(s1).multiply(cipherText1.getH().divide(gPow).pow(negC1));
-                ModInteger z2 = h.pow(s2).multiply(cipherText2.getH().divide(gPow).pow(negC2));
-
-                // z = z1 * z2 / ( (H2^c1 * H1^c2)
-                z = z1.multiply(z2).divide(cipherText2.getH().pow(c1).multiply(cipherText1.getH().pow(c2)));
+                // i.e y1 = g^s1 * G1^(-c1)
+                // i.e y2 = g^s2 * G2^(-c2)
+                // y = (y1 * y2) / ( g^(r2 * c1 + r1 * c2) )
+                //   = g^(s1 + s2 - (r2 * c1 + r1 * c2)) * G1^(-c1) * G2^(-c2)
+                ModInteger gExponent = s1.add(s2).subtract(cipherText2.getR().multiply(c1).add(cipherText1.getR().multiply(c2)));
+                y = publicKey.powG(gExponent).multiply(cipherText1.getG().multiPow(negC1, cipherText2.getG(), negC2));
+
+                // z1 = h^s1 * (H1 / g^m)^(-c1)
+                // z2 = h^s2 * (H2 / g^m)^(-c2)
+                // z = z1 * z2 / (H2^c1 * H1^c2)
+                //   = h^(s1 + s2) * (H1 / g^m)^(-c1) * (H2 / g^m)^(-c2) * H2^(-c1) * H1^(-c2)
+                z = publicKey.powH(s1.add(s2)).multiply(ModInteger.multiPow(
+                    Arrays.asList(cipherText1.getH().multiply(gInvPow), cipherText2.getH().multiply(gInvPow), cipherText2.getH(), cipherText1.getH()),
+                    Arrays.asList(negC1, negC2, negC1, negC2)
+                ));
             }
 
             yResponses.add(y);
             zResponses.add(z);
-
-            sb.append(y);
-            sb.append(z);
         }
 
         // Use the Fiat-Shamir heuristic to create a random oracle
-        String s = sb.toString();
-        String cHash = ShaSerializer.toSha512HexString(s);
-
-        // Create a numeric value from the hash
         // and let's assume that realC is the challenge we received from the verifier
-        ModInteger c0 = new ModInteger(cHash, publicKey.getQ(), 16).mod(publicKey.getQ());
+        ModInteger c0 = challenge(VERSION_TRANSCRIPT, publicKey, bigG, bigH, yResponses, zResponses, publicKey.getQ());
 
         //  Subtract all fake c from the real one.
         for (ModInteger fakeC : cResponses) {
@@ -279,21 +351,122 @@ public class MembershipProof implements IMembershipProof<CipherText> {
         // eventually set the commitment value for the correct message.
         cResponses.set(messageIndex, c0);
 
-        return new MembershipProof(publicKey.getP(), publicKey.getQ(), yResponses, zResponses, sResponses, cResponses);
+        return new MembershipProof(publicKey.getP(), publicKey.getQ(), yResponses, zResponses, sResponses, cResponses, VERSION_TRANSCRIPT);
+    }
+
+
+    /**
+     * Create a membership proof that the plaintext sum of all given ciphertexts is within the domain,
+     * e.g. that a ballot holds exactly one selection among all candidates.
+     *
+     * @param publicKey   The public key used during encryption.
+     * @param cipherTexts The encrypted messages, each holding its random value r.
+     * @param domain      The values the plaintext sum may take on.
+     * @return The proof that the plaintext sum of all ciphertexts is within the specified domain.
+     * @throws IllegalArgumentException If the random value of any ciphertext is unknown or the sum is not within the domain.
+     */
+    public static MembershipProof commitToSumAll(PublicKey publicKey, List<CipherText> cipherTexts, List<ModInteger> domain) throws IllegalArgumentException {
+        return commitToSumAll(publicKey, cipherTexts, new ProofDomain(publicKey, domain));
+    }
+
+    /**
+     * Create a membership proof that the plaintext sum of all given ciphertexts is within the domain,
+     * e.g. that a ballot holds exactly one selection among all candidates.
+     *
+     * @param publicKey   The public key used during encryption.
+     * @param cipherTexts The encrypted messages, each holding its random value r.
+     * @param domain      The values the plaintext sum may take on.
+     * @return The proof that the plaintext sum of all ciphertexts is within the specified domain.
+     * @throws IllegalArgumentException If the domain was created for another public key,
+     *                                  the random value of any ciphertext is unknown or the sum is not within the domain.
+     */
+    public static MembershipProof commitToSumAll(PublicKey publicKey, List<CipherText> cipherTexts, ProofDomain domain) throws IllegalArgumentException {
+        return commitToSumAll(publicKey, cipherTexts, domain, VERSION_TRANSCRIPT);
+    }
+
+    /**
+     * Create a membership proof that the plaintext sum of all given ciphertexts is within the domain.
+     * <p>
+     * The ciphertexts are multiplied into the ciphertext <code>(prod_i( G_i ), prod_i( H_i ))</code> of the sum,
+     * whose random value is <code>sum_i( r_i )</code>. The plaintext sum is the domain value m satisfying
+     * <code>H / g^m = h^(sum_i( r_i ))</code>, which is computed once. The proof is then an ordinary
+     * membership proof of the summed ciphertext, which a verifier checks using {@link #verifySum(PublicKey, List, ProofDomain)}.
+     *
+     * @param publicKey   The public key used during encryption.
+     * @param cipherTexts The encrypted messages, each holding its random value r.
+     * @param domain      The values the plaintext sum may take on.
+     * @param version     The version of the proof, either {@link #VERSION_TRANSCRIPT} or {@link #VERSION_SHORT_CHALLENGE}.
+     * @return The proof that the plaintext sum of all ciphertexts is within the specified domain.
+     * @throws IllegalArgumentException If the domain was created for another public key, the version is not supported,
+     *                                  the random value of any ciphertext is unknown or the sum is not within the domain.
+     */
+    public static MembershipProof commitToSumAll(PublicKey publicKey, List<CipherText> cipherTexts, ProofDomain domain, int version) throws IllegalArgumentException {
+        domain.checkPublicKey(publicKey);
+
+        CipherText sum = new CipherTextAccumulator(publicKey).addAll(cipherTexts).toCipherText();
+
+        if (null == sum.getR()) {
+            throw new IllegalArgumentException("The random values of all ciphertexts must be known.");
+        }
+
+        // the part of H not depending on the message, i.e. h^(sum( r_i ))
+        BigInteger hPow = publicKey.powH(sum.getR()).asBigInteger();
+
+        for (int i = 0; i < domain.size(); i++) {
+            if (sum.getH().multiply(domain.getInversePower(i)).asBigInteger().equals(hPow)) {
+                return commit(publicKey, domain.getValue(i), sum, domain, version);
+            }
+        }
+
+        throw new IllegalArgumentException("The plaintext sum of the ciphertexts is not within the domain.");
     }
 
+    /**
+     * Verify that the plaintext sum of all given ciphertexts is within the specified domain,
+     * i.e. verify a proof created by {@link #commitToSumAll(PublicKey, List, ProofDomain)}.
+     *
+     * @param publicKey   The public key used during encryption.
+     * @param cipherTexts The ciphertexts whose sum to verify its range.
+     * @param domain      The plaintext values the sum may have.
+     * @return True, if the sum of all ciphertexts represents a value within the given domain, false otherwise.
+     * @throws IllegalArgumentException If the domain was created for another public key.
+     */
+    public boolean verifySum(PublicKey publicKey, List<CipherText> cipherTexts, ProofDomain domain) throws IllegalArgumentException {
+        return this.verify(publicKey, new CipherTextAccumulator(publicKey).addAll(cipherTexts).toCipherText(), domain);
+    }
 
     /**
+     * Create a proof of {@link #VERSION_STRING_HASH}.
+     *
      * @param p          The prime used during encryption of the ciphertext for which this proof should be made.
-     * @param q          The value q, which is in relation to p in the form of q = (p-1)/2.
+     * @param q          The prime order q of the group, i.e. q = (p-1)/2 for safe primes.
      * @param yResponses The list of y values used during the commitment phase of the proof.
      * @param zResponses The list of z values used during the commitment phase of the proof.
      * @param sResponses The list of s values used during the commitment phase of the proof.
      * @param cResponses The list of commitments created during the commitment phase of the proof.
      */
     public MembershipProof(ModInteger p, ModInteger q, List<ModInteger> yResponses, List<ModInteger> zResponses, List<ModInteger> sResponses, List<ModInteger> cResponses) {
+        this(p, q, yResponses, zResponses, sResponses, cResponses, VERSION_STRING_HASH);
+    }
+
+    /**
+     * @param p          The prime used during encryption of the ciphertext for which this proof should be made.
+     * @param q          The prime order q of the group, i.e. q = (p-1)/2 for safe primes.
+     * @param yResponses The list of y values used during the commitment phase of the proof.
+     * @param zResponses The list of z values used during the commitment phase of the proof.
+     * @param sResponses The list of s values used during the commitment phase of the proof.
+     * @param cResponses The list of commitments created during the commitment phase of the proof.
+     * @param version    The version of the proof, determining how its challenge is derived.
+     * @throws IllegalArgumentException If the version is unknown.
+     */
+    public MembershipProof(ModInteger p, ModInteger q, List<ModInteger> yResponses, List<ModInteger> zResponses, List<ModInteger> sResponses, List<ModInteger> cResponses, int version) throws IllegalArgumentException {
+        if (version != VERSION_STRING_HASH && version != VERSION_TRANSCRIPT && version != VERSION_SHORT_CHALLENGE) {
+            throw new IllegalArgumentException("Unknown proof version " + version + ".");
+        }
+
         this.p = p;
         this.q = q;
+        this.version = version;
 
         this.yResponses = yResponses;
         this.zResponses = zResponses;
@@ -307,6 +480,16 @@ public class MembershipProof implements IMembershipProof<CipherText> {
      */
     @Override
     public boolean verify(PublicKey publicKey, CipherText cipherText, List<ModInteger> domain) {
+        return this.verify(publicKey, cipherText, new ProofDomain(publicKey, domain));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean verify(PublicKey publicKey, CipherText cipherText, ProofDomain domain) throws IllegalArgumentException {
+        domain.checkPublicKey(publicKey);
+
         if (domain.size() < this.cResponses.size() ||
             domain.size() < this.sResponses.size()) {
             // The domain of the message is bigger than specified.
@@ -314,51 +497,186 @@ public class MembershipProof implements IMembershipProof<CipherText> {
             return false;
         }
 
-        ModInteger g = new ModInteger(publicKey.getG(), p);
-        ModInteger h = new ModInteger(publicKey.getH(), p);
-
         // create the generator g and the public value of the private key
         // relative to the prime modulus p.
         ModInteger bigG = cipherText.getG();
         ModInteger bigH = cipherText.getH();
 
-        // The commit value we are trying to reconstruct
-        ModInteger cChoices = new ModInteger(ModInteger.ZERO, q);
+        // the order q is taken from the public key, a proof made for another group is invalid
+        ModInteger q = publicKey.getQ();
 
-        StringBuilder sb = new StringBuilder(4096);
-        sb.append(g);
-        sb.append(h);
-        sb.append(bigG);
-        sb.append(bigH);
+        if (! q.asBigInteger().equals(this.q.asBigInteger())) {
+            return false;
+        }
+
+        if (this.version != VERSION_STRING_HASH && ! isTranscribable(publicKey, bigG, bigH, this.p, this.q)) {
+            return false;
+        }
+
+        if (null == challengeBound(this.version, q)) {
+            return false;
+        }
+
+        List<ModInteger> bases = new ArrayList<>(2 * cResponses.size());
+        List<ModInteger> exponents = new ArrayList<>(2 * cResponses.size());
 
-        // For all domains the message could take on we have to check its commitments
         for (int i = 0; i < cResponses.size(); i++) {
-            ModInteger domainValue = domain.get(i);
+            bases.add(bigG);
+            bases.add(bigH.multiply(domain.getInversePower(i)));
+            exponents.add(cResponses.get(i));
+            exponents.add(cResponses.get(i));
+        }
+
+        List<ModInteger> negativePowers;
+        try {
+            negativePowers = powNegated(this.version, bases, exponents);
+        } catch (ArithmeticException e) {
+            // G or H is not invertible, hence not an element of the group
+            return false;
+        }
 
-            ModInteger gPow = g.pow(domainValue);
+        List<ModInteger> yValues = new ArrayList<>(cResponses.size());
+        List<ModInteger> zValues = new ArrayList<>(cResponses.size());
 
+        // For all domains the message could take on we have to check its commitments
+        for (int i = 0; i < cResponses.size(); i++) {
             ModInteger s = sResponses.get(i);
-            ModInteger c = cResponses.get(i);
-            ModInteger negC = c.negate();
-
-            // reconstruct the realC
-            cChoices = cChoices.add(c);
 
             // g^s * G^(-c)
-            sb.append(g.pow(s).multiply(bigG.pow(negC)));
-            // h^s * ( H / (g^-c) )
-            sb.append(h.pow(s).multiply(bigH.divide(gPow).pow(negC)));
+            yValues.add(publicKey.powG(s).multiply(negativePowers.get(2 * i)));
+            // h^s * (H / g^m)^(-c) = h^s * (H * g^(-m))^(-c)
+            zValues.add(publicKey.powH(s).multiply(negativePowers.get(2 * i + 1)));
         }
 
         // reconstruct the hash
-        String cHash = ShaSerializer.toSha512HexString(sb.toString());
-        ModInteger newC = new ModInteger(cHash, q, 16).mod(q);
+        ModInteger newC = challenge(this.version, publicKey, bigG, bigH, yValues, zValues, q);
 
-        // the proof is valid if the reconstructed c is equal to the
+        // the proof is valid if the sum of all c is equal to the
         // value we initially created the commitment from
-        return (cChoices.equals(newC));
+        return isChallengeSum(newC, cResponses);
+    }
+
+    /**
+     * Create the challenge according to the Fiat-Shamir heuristic, i.e. the hash
+     * over the public values and the commitments of all branches of the proof.
+     *
+     * @param version   The version of the proof, determining how the challenge is derived.
+     * @param publicKey The public key used during encryption.
+     * @param bigG      The first component G of the ciphertext.
+     * @param bigH      The second component H of the ciphertext.
+     * @param yValues   The commitments y of all branches.
+     * @param zValues   The commitments z of all branches.
+     * @param q         The order q of the group.
+     * @return The challenge, reduced modulo q, or modulo <code>2^</code>{@link #SHORT_CHALLENGE_BITS} for short challenges.
+     */
+    static ModInteger challenge(int version, PublicKey publicKey, ModInteger bigG, ModInteger bigH, List<ModInteger> yValues, List<ModInteger> zValues, ModInteger q) {
+        if (version == VERSION_TRANSCRIPT || version == VERSION_SHORT_CHALLENGE) {
+            Transcript transcript = publicKey.transcript();
+
+            // separate the challenges of both versions, as they are derived from the same values
+            if (version == VERSION_SHORT_CHALLENGE) {
+                transcript.append(new ModInteger(BigInteger.valueOf(version)));
+            }
+
+            transcript.append(bigG).append(bigH);
+
+            for (int i = 0; i < yValues.size(); i++) {
+                transcript.append(yValues.get(i)).append(zValues.get(i));
+            }
+
+            return transcript.challenge(challengeBound(version, q));
+        }
+
+        StringBuilder sb = new StringBuilder(4096);
+        sb.append(publicKey.getG());
+        sb.append(publicKey.getH());
+        sb.append(bigG);
+        sb.append(bigH);
+
+        for (int i = 0; i < yValues.size(); i++) {
+            sb.append(yValues.get(i));
+            sb.append(zValues.get(i));
+        }
+
+        String cHash = ShaSerializer.toSha512HexString(sb.toString());
+
+        // Create a numeric value from the hash
+        return new ModInteger(cHash, q, 16).mod(q);
+    }
+
+    /**
+     * The bound the challenges of the given version are reduced by.
+     *
+     * @param version The version of the proof.
+     * @param q       The order q of the group.
+     * @return The bound, or null if short challenges are not shorter than q.
+     */
+    static ModInteger challengeBound(int version, ModInteger q) {
+        if (version != VERSION_SHORT_CHALLENGE) {
+            return q;
+        }
+
+        return (q.asBigInteger().bitLength() > SHORT_CHALLENGE_BITS) ? SHORT_CHALLENGE_BOUND : null;
+    }
 
+    /**
+     * Checks whether the given challenge is the sum of the challenges of all branches,
+     * taken modulo the bound of the challenge. Each branch challenge must be less than that bound.
+     */
+    static boolean isChallengeSum(ModInteger challenge, List<ModInteger> cResponses) {
+        BigInteger bound = challenge.getModulus().asBigInteger();
+        BigInteger sum = BigInteger.ZERO;
+
+        for (ModInteger c : cResponses) {
+            BigInteger value = c.asBigInteger();
+
+            if (value.signum() < 0 || value.compareTo(bound) >= 0) {
+                return false;
+            }
+
+            sum = sum.add(value);
+        }
+
+        return sum.mod(bound).equals(challenge.asBigInteger());
+    }
+
+    /**
+     * Compute <code>base^(-c)</code> for each pair of base and exponent, all bases sharing the same modulus.
+     * <p>
+     * Full-width challenges are negated modulo q. Short challenges would become full-width by negation,
+     * hence <code>base^c</code> is computed instead and all results are inverted at once.
+     *
+     * @throws ArithmeticException If any base is not invertible.
+     */
+    private static List<ModInteger> powNegated(int version, List<ModInteger> bases, List<ModInteger> exponents) throws ArithmeticException {
+        List<ModInteger> powers = new ArrayList<>(bases.size());
+
+        if (version != VERSION_SHORT_CHALLENGE) {
+            for (int i = 0; i < bases.size(); i++) {
+                powers.add(bases.get(i).pow(exponents.get(i).negate()));
+            }
+
+            return powers;
+        }
+
+        for (int i = 0; i < bases.size(); i++) {
+            powers.add(bases.get(i).pow(exponents.get(i)));
+        }
+
+        return powers.isEmpty() ? powers : ModInteger.invertAll(powers);
+    }
 
+    /**
+     * Checks whether the ciphertext can be written to a transcript of the given public key,
+     * i.e. whether the proof was made for the same prime modulus p and order q, and G and H are within [0, p).
+     */
+    static boolean isTranscribable(PublicKey publicKey, ModInteger bigG, ModInteger bigH, ModInteger p, ModInteger q) {
+        BigInteger modulus = publicKey.getP().asBigInteger();
+
+        return modulus.equals(p.asBigInteger()) &&
+            publicKey.getQ().asBigInteger().equals(q.asBigInteger()) &&
+            bigG.asBigInteger().signum() >= 0 && bigG.asBigInteger().compareTo(modulus) < 0 &&
+            bigH.asBigInteger().signum() >= 0 && bigH.asBigInteger().compareTo(modulus) < 0;
     }
 
     public List<ModInteger> getsResponses() {
@@ -384,4 +702,11 @@ public class MembershipProof implements IMembershipProof<CipherText> {
     public ModInteger getQ() {
         return q;
     }
+
+    /**
+     * @return The version of this proof, determining how its challenge is derived.
+     */
+    public int getVersion() {
+        return version;
+    }
 }
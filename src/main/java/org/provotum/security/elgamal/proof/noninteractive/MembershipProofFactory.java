@@ -0,0 +1,72 @@
+package org.provotum.security.elgamal.proof.noninteractive;
+
+import org.provotum.security.api.IMembershipProof;
+import org.provotum.security.arithmetic.ModInteger;
+import org.provotum.security.elgamal.PublicKey;
+import org.provotum.security.elgamal.additive.CipherText;
+
+import java.math.BigInteger;
+import java.util.List;
+
+/**
+ * Creates the most efficient proof that an ElGamal encrypted value is within a given domain.
+ * <ul>
+ * <li>For the domain {0, 1}, a {@link BinaryMembershipProof} is created.</li>
+ * <li>For domains of consecutive values holding more than {@link #RANGE_PROOF_THRESHOLD} values,
+ * a {@link RangeProof} is created, whose size grows logarithmically with the size of the domain.</li>
+ * <li>For all other domains, a {@link MembershipProof} is created.</li>
+ * </ul>
+ * All of them are verified against the same domain, regardless of their type.
+ */
+public class MembershipProofFactory {
+
+    /**
+     * The number of values up to which a domain of consecutive values is proven using a {@link MembershipProof}.
+     * A {@link RangeProof} needs two branches per bit, hence it only pays off for larger domains.
+     */
+    public static final int RANGE_PROOF_THRESHOLD = 8;
+
+    /**
+     * @param publicKey        The public key used during encryption.
+     * @param plainTextMessage The plaintext message which is encrypted.
+     * @param cipherText       The ciphertext encrypting the plaintext message.
+     * @param domain           A list of values the plaintext message can take on.
+     * @return A proof, that the plaintext message is within the given domain.
+     * @throws IllegalArgumentException If a range proof is created for a message outside of the domain.
+     */
+    public static IMembershipProof<CipherText> commit(PublicKey publicKey, ModInteger plainTextMessage, CipherText cipherText, List<ModInteger> domain) throws IllegalArgumentException {
+        return commit(publicKey, plainTextMessage, cipherText, new ProofDomain(publicKey, domain));
+    }
+
+    /**
+     * @param publicKey        The public key used during encryption.
+     * @param plainTextMessage The plaintext message which is encrypted.
+     * @param cipherText       The ciphertext encrypting the plaintext message.
+     * @param domain           The values the plaintext message can take on.
+     * @return A proof, that the plaintext message is within the given domain.
+     * @throws IllegalArgumentException If the domain was created for another public key,
+     *                                  or a range proof is created for a message outside of the domain.
+     */
+    public static IMembershipProof<CipherText> commit(PublicKey publicKey, ModInteger plainTextMessage, CipherText cipherText, ProofDomain domain) throws IllegalArgumentException {
+        domain.checkPublicKey(publicKey);
+
+        List<ModInteger> values = domain.getValues();
+
+        if (RangeProof.isRange(values)) {
+            BigInteger lower = values.get(0).asBigInteger();
+            BigInteger upper = values.get(values.size() - 1).asBigInteger();
+            BigInteger message = plainTextMessage.asBigInteger();
+
+            if (values.size() > RANGE_PROOF_THRESHOLD) {
+                return RangeProof.commit(publicKey, plainTextMessage, cipherText, lower, upper);
+            }
+
+            boolean binary = lower.equals(BigInteger.ZERO) && upper.equals(BigInteger.ONE);
+            if (binary && (message.equals(BigInteger.ZERO) || message.equals(BigInteger.ONE))) {
+                return BinaryMembershipProof.commit(publicKey, plainTextMessage, cipherText);
+            }
+        }
+
+        return MembershipProof.commit(publicKey, plainTextMessage, cipherText, domain);
+    }
+}
@@ -0,0 +1,98 @@
+package org.provotum.security.elgamal.proof.noninteractive;
+
+import org.provotum.security.arithmetic.ModInteger;
+import org.provotum.security.elgamal.PublicKey;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The list of values a plaintext may take on within a {@link MembershipProof},
+ * together with the powers <code>g^m</code> and <code>g^(-m)</code> of each value m.
+ * <p>
+ * As the domain is usually the same for all ciphertexts encrypted using a particular public key
+ * (e.g. all ballots of an election), it should be created once and passed to all proofs,
+ * so that mapping the domain into the group only requires multiplications per proof.
+ */
+public class ProofDomain {
+
+    private final PublicKey publicKey;
+    private final List<ModInteger> values;
+    private final List<ModInteger> powers;
+    private final List<ModInteger> inversePowers;
+
+    /**
+     * @param publicKey The public key used during encryption.
+     * @param values    The values the plaintext may take on.
+     */
+    public ProofDomain(PublicKey publicKey, List<ModInteger> values) {
+        this.publicKey = publicKey;
+        this.values = Collections.unmodifiableList(new ArrayList<>(values));
+
+        List<ModInteger> powers = new ArrayList<>(values.size());
+        for (ModInteger value : values) {
+            powers.add(publicKey.powG(value));
+        }
+
+        this.powers = Collections.unmodifiableList(powers);
+        this.inversePowers = Collections.unmodifiableList(ModInteger.invertAll(powers));
+    }
+
+    /**
+     * @return The public key this domain was created for.
+     */
+    public PublicKey getPublicKey() {
+        return this.publicKey;
+    }
+
+    /**
+     * @return The values the plaintext may take on.
+     */
+    public List<ModInteger> getValues() {
+        return this.values;
+    }
+
+    /**
+     * @return The number of values within this domain.
+     */
+    public int size() {
+        return this.values.size();
+    }
+
+    /**
+     * @param index The index of the value.
+     * @return The value at the given index.
+     */
+    public ModInteger getValue(int index) {
+        return this.values.get(index);
+    }
+
+    /**
+     * @param index The index of the value m.
+     * @return <code>g^m mod p</code>
+     */
+    public ModInteger getPower(int index) {
+        return this.powers.get(index);
+    }
+
+    /**
+     * @param index The index of the value m.
+     * @return <code>g^(-m) mod p</code>
+     */
+    public ModInteger getInversePower(int index) {
+        return this.inversePowers.get(index);
+    }
+
+    /**
+     * Checks whether this domain may be used for proofs relative to the given public key.
+     *
+     * @param publicKey The public key.
+     * @throws IllegalArgumentException If this domain was created for another public key.
+     */
+    void checkPublicKey(PublicKey publicKey) throws IllegalArgumentException {
+        if (! this.publicKey.equals(publicKey)) {
+            throw new IllegalArgumentException("The proof domain was created for another public key.");
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package org.provotum.security.elgamal.proof.noninteractive;
+
+import org.provotum.security.api.IMembershipProof;
+import org.provotum.security.arithmetic.ModInteger;
+import org.provotum.security.elgamal.PublicKey;
+import org.provotum.security.elgamal.additive.CipherText;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A proof that an ElGamal encrypted value is within an interval <code>[a, b]</code>, based on its bit decomposition.
+ * <p>
+ * Unlike a {@link MembershipProof}, whose size grows linearly with the number of values in the domain,
+ * this proof holds one encrypted bit per bit of <code>n = b - a</code>. The offset <code>m - a</code>
+ * of the message m is decomposed as
+ * <pre>
+ *     m - a = sum_i( b_i * w_i ),  with b_i in {0, 1}
+ * </pre>
+ * with the weights <code>w_i = 2^i</code> for <code>i &lt; k - 1</code> and <code>w_(k-1) = n - 2^(k-1) + 1</code>,
+ * k being the bit length of n. These weights represent exactly the values of <code>[0, n]</code>,
+ * so the interval does not need to span a power of two.
+ * <p>
+ * Each bit is encrypted as <code>E(b_i) = (g^r_i, h^r_i * g^b_i)</code>, together with a {@link BinaryMembershipProof}
+ * that it encrypts either 0 or 1. The randomness is chosen such that <code>sum_i( r_i * w_i ) = r</code>, hence
+ * the verifier recomposes the ciphertext of the message from the encrypted bits:
+ * <pre>
+ *     prod_i( E(b_i)^w_i ) = (G, H / g^a)
+ * </pre>
+ * Size and verification time are both logarithmic in the size of the interval.
+ */
+public class RangeProof implements IMembershipProof<CipherText> {
+
+    private final List<CipherText> bitCipherTexts;
+    private final List<BinaryMembershipProof> bitProofs;
+
+    /**
+     * @param publicKey        The public key used during encryption.
+     * @param plainTextMessage The plaintext message which is encrypted.
+     * @param cipherText       The ciphertext encrypting the plaintext message.
+     * @param lower            The smallest value of the interval (inclusive).
+     * @param upper            The largest value of the interval (inclusive).
+     * @return A proof, that the plaintext message is within the given interval.
+     * @throws IllegalArgumentException If the interval holds less than two values or the message is not within the interval.
+     */
+    public static RangeProof commit(PublicKey publicKey, ModInteger plainTextMessage, CipherText cipherText, BigInteger lower, BigInteger upper) throws IllegalArgumentException {
+        List<BigInteger> weights = weights(lower, upper);
+
+        if (null == weights) {
+            throw new IllegalArgumentException("The interval must hold at least two values.");
+        }
+
+        BigInteger message = plainTextMessage.asBigInteger();
+        if (message.compareTo(lower) < 0 || message.compareTo(upper) > 0) {
+            throw new IllegalArgumentException("The message must be within [" + lower + ", " + upper + "].");
+        }
+
+        int k = weights.size();
+        BigInteger q = publicKey.getQ().asBigInteger();
+
+        // decompose the offset, starting with the largest weight
+        BigInteger offset = message.subtract(lower);
+        boolean[] bits = new boolean[k];
+
+        if (offset.bitLength() >= k) {
+            bits[k - 1] = true;
+            offset = offset.subtract(weights.get(k - 1));
+        }
+
+        for (int i = 0; i < k - 1; i++) {
+            bits[i] = offset.testBit(i);
+        }
+
+        // random values of all bits but the first, which is chosen such that sum( r_i * w_i ) = r
+        ModInteger[] randomness = new ModInteger[k];
+        BigInteger r0 = cipherText.getR().asBigInteger();
+
+        for (int i = 1; i < k; i++) {
+            randomness[i] = ModInteger.random(publicKey.getQ());
+            r0 = r0.subtract(randomness[i].asBigInteger().multiply(weights.get(i)));
+        }
+
+        randomness[0] = new ModInteger(r0.mod(q), q);
+
+        List<CipherText> bitCipherTexts = new ArrayList<>(k);
+        List<BinaryMembershipProof> bitProofs = new ArrayList<>(k);
+
+        for (int i = 0; i < k; i++) {
+            ModInteger bit = bits[i] ? ModInteger.ONE : ModInteger.ZERO;
+            ModInteger bigH = publicKey.powH(randomness[i]);
+
+            if (bits[i]) {
+                bigH = bigH.multiply(publicKey.getG());
+            }
+
+            CipherText bitCipherText = new CipherText(publicKey.powG(randomness[i]), bigH, randomness[i]);
+
+            bitCipherTexts.add(bitCipherText);
+            bitProofs.add(BinaryMembershipProof.commit(publicKey, bit, bitCipherText));
+        }
+
+        return new RangeProof(bitCipherTexts, bitProofs);
+    }
+
+    /**
+     * @param bitCipherTexts The ciphertexts of the bits of the offset of the message, starting with the least significant one.
+     * @param bitProofs      The proofs that each ciphertext encrypts either 0 or 1, in the same order.
+     */
+    public RangeProof(List<CipherText> bitCipherTexts, List<BinaryMembershipProof> bitProofs) {
+        this.bitCipherTexts = Collections.unmodifiableList(new ArrayList<>(bitCipherTexts));
+        this.bitProofs = Collections.unmodifiableList(new ArrayList<>(bitProofs));
+    }
+
+    /**
+     * Verify that the given ciphertext encrypts a value within the given interval.
+     *
+     * @param publicKey  The public key used during encryption.
+     * @param cipherText The ciphertext to verify its range.
+     * @param lower      The smallest value of the interval (inclusive).
+     * @param upper      The largest value of the interval (inclusive).
+     * @return True, if the encrypted ciphertext represents a value within the given interval, false otherwise.
+     */
+    public boolean verify(PublicKey publicKey, CipherText cipherText, BigInteger lower, BigInteger upper) {
+        List<BigInteger> weights = weights(lower, upper);
+
+        if (null == weights ||
+            weights.size() != this.bitCipherTexts.size() ||
+            weights.size() != this.bitProofs.size()) {
+            return false;
+        }
+
+        List<ModInteger> gBases = new ArrayList<>(weights.size());
+        List<ModInteger> hBases = new ArrayList<>(weights.size());
+        List<ModInteger> exponents = new ArrayList<>(weights.size());
+
+        for (int i = 0; i < weights.size(); i++) {
+            CipherText bitCipherText = this.bitCipherTexts.get(i);
+
+            if (! this.bitProofs.get(i).verify(publicKey, bitCipherText)) {
+                return false;
+            }
+
+            gBases.add(bitCipherText.getG());
+            hBases.add(bitCipherText.getH());
+            exponents.add(new ModInteger(weights.get(i)));
+        }
+
+        // prod( G_i^w_i ) = G and prod( H_i^w_i ) * g^a = H
+        ModInteger bigG = ModInteger.multiPow(gBases, exponents);
+        ModInteger bigH = ModInteger.multiPow(hBases, exponents).multiply(publicKey.powG(new ModInteger(lower)));
+
+        return bigG.asBigInteger().equals(cipherText.getG().asBigInteger()) &&
+            bigH.asBigInteger().equals(cipherText.getH().asBigInteger());
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The domain must consist of consecutive values in ascending order, otherwise the proof is invalid.
+     */
+    @Override
+    public boolean verify(PublicKey publicKey, CipherText cipherText, List<ModInteger> domain) {
+        if (! isRange(domain)) {
+            return false;
+        }
+
+        return this.verify(publicKey, cipherText, domain.get(0).asBigInteger(), domain.get(domain.size() - 1).asBigInteger());
+    }
+
+    /**
+     * @return The ciphertexts of the bits, starting with the least significant one.
+     */
+    public List<CipherText> getBitCipherTexts() {
+        return this.bitCipherTexts;
+    }
+
+    /**
+     * @return The proofs that each ciphertext of a bit encrypts either 0 or 1.
+     */
+    public List<BinaryMembershipProof> getBitProofs() {
+        return this.bitProofs;
+    }
+
+    /**
+     * Checks whether the given values are consecutive and in ascending order.
+     *
+     * @param domain The values to check.
+     * @return True, if the values form an interval of at least one value, false otherwise.
+     */
+    public static boolean isRange(List<ModInteger> domain) {
+        if (domain.isEmpty()) {
+            return false;
+        }
+
+        BigInteger expected = domain.get(0).asBigInteger();
+        for (ModInteger value : domain) {
+            if (! value.asBigInteger().equals(expected)) {
+                return false;
+            }
+
+            expected = expected.add(BigInteger.ONE);
+        }
+
+        return true;
+    }
+
+    /**
+     * The weights of the bits for the interval [lower, upper].
+     *
+     * @return The weights, or null if the interval holds less than two values.
+     */
+    private static List<BigInteger> weights(BigInteger lower, BigInteger upper) {
+        BigInteger n = upper.subtract(lower);
+
+        if (n.signum() <= 0) {
+            return null;
+        }
+
+        int k = n.bitLength();
+        List<BigInteger> weights = new ArrayList<>(k);
+
+        for (int i = 0; i < k - 1; i++) {
+            weights.add(BigInteger.ONE.shiftLeft(i));
+        }
+
+        // w_(k-1) = n - (2^(k-1) - 1), so that all weights sum up to n
+        weights.add(n.subtract(BigInteger.ONE.shiftLeft(k - 1)).add(BigInteger.ONE));
+
+        return weights;
+    }
+}
@@ -0,0 +1,68 @@
+package org.provotum.security.serializer;
+
+import org.bouncycastle.math.ec.ECPoint;
+import org.provotum.security.elgamal.ec.ECCipherText;
+import org.provotum.security.elgamal.ec.ECPublicKey;
+
+import java.math.BigInteger;
+import java.util.StringTokenizer;
+
+/**
+ * Serializes elliptic curve ciphertexts using the compressed encoding of their points,
+ * i.e. the x-coordinate and a single byte determining the sign of the y-coordinate.
+ */
+public class ECCipherTextSerializer {
+
+    private static final int RADIX = 36;
+
+    public static String serialize(ECCipherText cipherText) {
+        StringBuilder sb = new StringBuilder();
+
+        sb.append("G");
+        sb.append(encode(cipherText.getG()));
+
+        sb.append("H");
+        sb.append(encode(cipherText.getH()));
+
+        return sb.toString();
+    }
+
+    /**
+     * @param publicKey  The public key used during encryption, determining the curve of the points.
+     * @param cipherText The serialized ciphertext.
+     * @return The ciphertext, without its random value.
+     * @throws IllegalArgumentException If the ciphertext is malformed or its points are not on the curve.
+     */
+    public static ECCipherText fromString(ECPublicKey publicKey, String cipherText) throws IllegalArgumentException {
+        StringTokenizer tokenizer = new StringTokenizer(cipherText, "GH");
+
+        if (! tokenizer.hasMoreTokens()) {
+            throw new IllegalArgumentException("Provided ciphertext is invalid. No tokens found.");
+        }
+
+        ECPoint bigG = decode(publicKey, tokenizer.nextToken());
+
+        if (! tokenizer.hasMoreTokens()) {
+            throw new IllegalArgumentException("Provided ciphertext is invalid. Missing value for H.");
+        }
+
+        ECPoint bigH = decode(publicKey, tokenizer.nextToken());
+
+        return new ECCipherText(bigG, bigH, null);
+    }
+
+    private static String encode(ECPoint point) {
+        return new BigInteger(1, point.getEncoded(true)).toString(ECCipherTextSerializer.RADIX);
+    }
+
+    private static ECPoint decode(ECPublicKey publicKey, String value) throws IllegalArgumentException {
+        // the leading byte of a compressed point is at most 3, hence no sign byte is added
+        byte[] encoded = new BigInteger(value, ECCipherTextSerializer.RADIX).toByteArray();
+
+        try {
+            return publicKey.getParameters().getCurve().decodePoint(encoded);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Provided ciphertext is invalid. " + e.getMessage(), e);
+        }
+    }
+}
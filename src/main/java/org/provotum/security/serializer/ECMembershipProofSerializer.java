@@ -0,0 +1,68 @@
+package org.provotum.security.serializer;
+
+import org.provotum.security.arithmetic.ModInteger;
+import org.provotum.security.elgamal.ec.ECMembershipProof;
+import org.provotum.security.elgamal.ec.ECPublicKey;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringTokenizer;
+
+public class ECMembershipProofSerializer {
+
+    private static final int RADIX = 36;
+
+    public static String serialize(ECMembershipProof proof) {
+        StringBuilder sb = new StringBuilder(1024);
+
+        for (ModInteger s : proof.getsResponses()) {
+            sb.append("S");
+            sb.append(s.finalized().toString(ECMembershipProofSerializer.RADIX));
+        }
+
+        for (ModInteger c : proof.getcResponses()) {
+            sb.append("C");
+            sb.append(c.finalized().toString(ECMembershipProofSerializer.RADIX));
+        }
+
+        return sb.toString();
+    }
+
+    /**
+     * @param publicKey The public key used during encryption, determining the order n of the responses.
+     * @param proof     The serialized proof.
+     * @return The proof.
+     * @throws IllegalArgumentException If the proof is malformed.
+     */
+    public static ECMembershipProof fromString(ECPublicKey publicKey, String proof) throws IllegalArgumentException {
+        StringTokenizer st = new StringTokenizer(proof, "SC", true);
+        BigInteger n = publicKey.getN().asBigInteger();
+
+        List<ModInteger> sList = new ArrayList<>();
+        List<ModInteger> cList = new ArrayList<>();
+
+        while (st.hasMoreTokens()) {
+            String delimiter = st.nextToken();
+
+            if (! st.hasMoreTokens()) {
+                throw new IllegalArgumentException("Missing value for token " + delimiter);
+            }
+
+            String value = st.nextToken();
+
+            switch (delimiter) {
+                case "S":
+                    sList.add(new ModInteger(new BigInteger(value, ECMembershipProofSerializer.RADIX), n));
+                    break;
+                case "C":
+                    cList.add(new ModInteger(new BigInteger(value, ECMembershipProofSerializer.RADIX), n));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Invalid token " + delimiter);
+            }
+        }
+
+        return new ECMembershipProof(sList, cList);
+    }
+}
@@ -20,11 +20,17 @@ public class KeyPairSerializer {
         sb.append("H");
         sb.append(publicKey.getH());
 
+        // the security profile is only written if it differs from the default to remain readable by older releases
+        if (publicKey.getRandomnessBits() != PublicKey.FULL_LENGTH_RANDOMNESS) {
+            sb.append("R");
+            sb.append(publicKey.getRandomnessBits());
+        }
+
         return sb.toString();
     }
 
     public static PublicKey publicKeyFromString(String publicKey) {
-        StringTokenizer tokenizer = new StringTokenizer(publicKey, "PQGH");
+        StringTokenizer tokenizer = new StringTokenizer(publicKey, "PQGHR");
 
         if (! tokenizer.hasMoreTokens()) {
             throw new IllegalArgumentException("Provided publicKey is invalid. No tokens found.");
@@ -50,7 +56,15 @@ public class KeyPairSerializer {
 
         BigInteger h = new BigInteger(tokenizer.nextToken());
 
-        return new PublicKey(p, q, g, h);
+        int randomnessBits = PublicKey.FULL_LENGTH_RANDOMNESS;
+        if (tokenizer.hasMoreTokens()) {
+            randomnessBits = Integer.parseInt(tokenizer.nextToken());
+
+            // reject keys whose ciphertexts could be decrypted by searching the randomness
+            PublicKey.checkRandomnessBits(randomnessBits, q);
+        }
+
+        return new PublicKey(p, q, g, h, randomnessBits);
     }
 
     public static String serializePrivateKey(PrivateKey privateKey) {
@@ -15,9 +15,21 @@ public class MembershipProofSerializer {
     public static String serialize(MembershipProof proof) {
         StringBuilder sb = new StringBuilder(8192);
 
+        // proofs of the initial version are written without version to remain readable by older releases
+        if (proof.getVersion() != MembershipProof.VERSION_STRING_HASH) {
+            sb.append("V");
+            sb.append(proof.getVersion());
+        }
+
         sb.append("P");
         sb.append(proof.getP().finalized().toString(MembershipProofSerializer.RADIX));
 
+        // the order q is only written if it cannot be derived from a safe prime p
+        if (! proof.getQ().asBigInteger().equals(safePrimeOrder(proof.getP().asBigInteger()))) {
+            sb.append("Q");
+            sb.append(proof.getQ().finalized().toString(MembershipProofSerializer.RADIX));
+        }
+
         for (ModInteger y : proof.getyResponses()) {
             sb.append("Y");
             sb.append(y.finalized().toString(MembershipProofSerializer.RADIX));
@@ -42,14 +54,22 @@ public class MembershipProofSerializer {
     }
 
     public static MembershipProof fromString(String proof) {
-        StringTokenizer st = new StringTokenizer(proof, "PYZSC", true);
+        StringTokenizer st = new StringTokenizer(proof, "VPQYZSC", true);
+
+        String token = st.nextToken();
+        int version = MembershipProof.VERSION_STRING_HASH;
 
-        if (! st.nextToken().equals("P")) {
+        if (token.equals("V")) {
+            version = Integer.parseInt(st.nextToken());
+            token = st.nextToken();
+        }
+
+        if (! token.equals("P")) {
             throw new IllegalArgumentException("expected token: 'p'");
         }
 
         ModInteger p = new ModInteger(new BigInteger(st.nextToken(), MembershipProofSerializer.RADIX));
-        ModInteger q = p.subtract(ModInteger.ONE).divide(ModInteger.TWO);
+        ModInteger q = new ModInteger(safePrimeOrder(p.asBigInteger()));
 
         List<ModInteger> yList = new ArrayList<>();
         List<ModInteger> zList = new ArrayList<>();
@@ -61,6 +81,9 @@ public class MembershipProofSerializer {
             String value = st.nextToken();
 
             switch (delimiter) {
+                case "Q":
+                    q = new ModInteger(new BigInteger(value, MembershipProofSerializer.RADIX));
+                    break;
                 case "Y":
                     yList.add(new ModInteger(new BigInteger(value, MembershipProofSerializer.RADIX).toString(), p));
                     break;
@@ -78,6 +101,13 @@ public class MembershipProofSerializer {
             }
         }
 
-        return new MembershipProof(p, q, yList, zList, sList, cList);
+        return new MembershipProof(p, q, yList, zList, sList, cList, version);
+    }
+
+    /**
+     * @return The order <code>q = (p - 1) / 2</code> of the group of a safe prime p.
+     */
+    private static BigInteger safePrimeOrder(BigInteger p) {
+        return p.subtract(BigInteger.ONE).shiftRight(1);
     }
 }
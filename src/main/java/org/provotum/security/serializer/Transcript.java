@@ -0,0 +1,114 @@
+package org.provotum.security.serializer;
+
+import org.provotum.security.arithmetic.ModInteger;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+/**
+ * A binary transcript of the public values of a non-interactive proof,
+ * from which the challenge of the Fiat-Shamir heuristic is derived.
+ * <p>
+ * Each appended group element is fed into an incremental SHA-512 digest
+ * as a fixed-width big-endian byte array, whose width is given by the byte length of the prime modulus p.
+ * As the digest state can be copied, a transcript holding values common to many proofs
+ * (such as the generator and the public key) may be prepared once and copied for each proof.
+ */
+public class Transcript {
+
+    private static final String ALGORITHM = "SHA-512";
+    private static final byte[] LABEL = "provotum-security/transcript/v1".getBytes(StandardCharsets.UTF_8);
+
+    private final MessageDigest digest;
+    private final int width;
+    private final byte[] buffer;
+
+    /**
+     * Create an empty transcript for elements of the group modulo the given prime.
+     *
+     * @param p The prime modulus p, determining the width of each element.
+     */
+    public Transcript(ModInteger p) {
+        try {
+            this.digest = MessageDigest.getInstance(ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+
+        this.width = (p.asBigInteger().bitLength() + 7) / 8;
+        this.buffer = new byte[this.width];
+
+        this.digest.update(LABEL);
+        this.digest.update(intToBytes(this.width));
+    }
+
+    private Transcript(MessageDigest digest, int width) {
+        this.digest = digest;
+        this.width = width;
+        this.buffer = new byte[width];
+    }
+
+    /**
+     * Append the given group element to this transcript.
+     *
+     * @param element The element, reduced modulo p.
+     * @return This transcript.
+     * @throws IllegalArgumentException If the element is negative or exceeds the width of the group.
+     */
+    public Transcript append(ModInteger element) throws IllegalArgumentException {
+        BigInteger value = element.asBigInteger();
+        byte[] bytes = value.toByteArray();
+
+        // toByteArray includes a sign bit, which may require a leading zero byte
+        int offset = (bytes.length > 1 && bytes[0] == 0) ? 1 : 0;
+        int length = bytes.length - offset;
+
+        if (value.signum() < 0 || length > this.width) {
+            throw new IllegalArgumentException("The element does not fit into " + this.width + " bytes.");
+        }
+
+        Arrays.fill(this.buffer, 0, this.width - length, (byte) 0);
+        System.arraycopy(bytes, offset, this.buffer, this.width - length, length);
+        this.digest.update(this.buffer);
+
+        return this;
+    }
+
+    /**
+     * @return An independent copy of this transcript, holding all values appended so far.
+     */
+    public Transcript copy() {
+        try {
+            return new Transcript((MessageDigest) this.digest.clone(), this.width);
+        } catch (CloneNotSupportedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Derive the challenge from all values appended to this transcript.
+     * Completes the digest, hence this transcript must not be used afterwards.
+     *
+     * @param q The order q of the group.
+     * @return The digest interpreted as a non-negative big-endian number, reduced modulo q.
+     */
+    public ModInteger challenge(ModInteger q) {
+        BigInteger hash = new BigInteger(1, this.digest.digest());
+
+        return new ModInteger(hash.mod(q.asBigInteger()), q.asBigInteger());
+    }
+
+    /**
+     * @return The width of a single element in bytes.
+     */
+    public int getWidth() {
+        return this.width;
+    }
+
+    private static byte[] intToBytes(int value) {
+        return new byte[]{(byte) (value >>> 24), (byte) (value >>> 16), (byte) (value >>> 8), (byte) value};
+    }
+}
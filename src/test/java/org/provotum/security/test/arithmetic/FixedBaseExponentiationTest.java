@@ -0,0 +1,77 @@
+package org.provotum.security.test.arithmetic;
+
+import junit.framework.TestCase;
+import org.provotum.security.arithmetic.FixedBaseExponentiation;
+import org.provotum.security.arithmetic.ModInteger;
+import org.provotum.security.elgamal.PublicKey;
+
+import java.math.BigInteger;
+import java.security.SecureRandom;
+
+public class FixedBaseExponentiationTest extends TestCase {
+
+    private SecureRandom random;
+    private BigInteger p;
+    private ModInteger g;
+
+    public void setUp() {
+        this.random = new SecureRandom();
+        this.p = BigInteger.probablePrime(256, this.random);
+        this.g = new ModInteger(new BigInteger(255, this.random), this.p);
+    }
+
+    public void testPowMatchesModPow() {
+        for (int budget : new int[]{1 << 15, 1 << 17, 1 << 20}) {
+            FixedBaseExponentiation exponentiation = new FixedBaseExponentiation(this.g, 256, budget);
+            assertTrue(exponentiation.getWindowSize() > 0);
+
+            for (int i = 0; i < 50; i++) {
+                BigInteger exponent = new BigInteger(256, this.random);
+
+                assertEquals(this.g.asBigInteger().modPow(exponent, this.p), exponentiation.pow(exponent));
+            }
+        }
+    }
+
+    public void testSmallExponents() {
+        FixedBaseExponentiation exponentiation = new FixedBaseExponentiation(this.g, 256, 1 << 16);
+
+        assertEquals(BigInteger.ONE, exponentiation.pow(BigInteger.ZERO));
+        assertEquals(this.g.asBigInteger(), exponentiation.pow(BigInteger.ONE));
+        assertEquals(this.g.pow(2), exponentiation.pow(ModInteger.TWO));
+    }
+
+    public void testFallbackForLargeExponents() {
+        FixedBaseExponentiation exponentiation = new FixedBaseExponentiation(this.g, 64, 1 << 16);
+        BigInteger exponent = new BigInteger(200, this.random);
+
+        assertEquals(this.g.asBigInteger().modPow(exponent, this.p), exponentiation.pow(exponent));
+    }
+
+    public void testWithoutBudget() {
+        FixedBaseExponentiation exponentiation = new FixedBaseExponentiation(this.g, 256, 0);
+        BigInteger exponent = new BigInteger(256, this.random);
+
+        assertEquals(0, exponentiation.getWindowSize());
+        assertEquals(this.g.asBigInteger().modPow(exponent, this.p), exponentiation.pow(exponent));
+    }
+
+    public void testPublicKeyPrecomputation() {
+        BigInteger q = this.p.subtract(BigInteger.ONE).shiftRight(1);
+        BigInteger h = this.g.asBigInteger().modPow(new BigInteger(128, this.random), this.p);
+        PublicKey publicKey = new PublicKey(this.p, q, this.g.asBigInteger(), h);
+
+        ModInteger exponent = new ModInteger(new BigInteger(250, this.random), q);
+        ModInteger gToE = publicKey.powG(exponent);
+        ModInteger hToE = publicKey.powH(exponent);
+
+        // the tables are built on request only, results do not depend on them
+        publicKey.ensurePrecomputed();
+        assertEquals(gToE, publicKey.powG(exponent));
+        assertEquals(hToE, publicKey.powH(exponent));
+
+        publicKey.precompute(1 << 16);
+        assertEquals(gToE, publicKey.powG(exponent));
+        assertEquals(hToE, publicKey.powH(exponent));
+    }
+}
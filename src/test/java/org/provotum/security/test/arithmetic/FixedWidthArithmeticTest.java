@@ -0,0 +1,58 @@
+package org.provotum.security.test.arithmetic;
+
+import junit.framework.TestCase;
+import org.provotum.security.arithmetic.FixedWidthArithmetic;
+
+import java.math.BigInteger;
+import java.security.SecureRandom;
+
+public class FixedWidthArithmeticTest extends TestCase {
+
+    private SecureRandom random;
+
+    public void setUp() {
+        this.random = new SecureRandom();
+    }
+
+    public void testMultiplyMatchesBigInteger() {
+        for (int bits : new int[]{2, 32, 33, 63, 64, 255, 1024, 2048, 3072}) {
+            BigInteger modulus = this.randomOddModulus(bits);
+            FixedWidthArithmetic arithmetic = new FixedWidthArithmetic(modulus);
+            FixedWidthArithmetic.Workspace workspace = arithmetic.newWorkspace();
+
+            assertEquals((bits + 31) / 32, arithmetic.getLimbCount());
+
+            for (int i = 0; i < 50; i++) {
+                BigInteger a = new BigInteger(bits + 16, this.random);
+                BigInteger b = modulus.subtract(BigInteger.ONE).subtract(new BigInteger(bits / 2, this.random).mod(modulus));
+
+                long[] x = arithmetic.toMontgomery(a);
+                long[] y = arithmetic.toMontgomery(b);
+                long[] product = arithmetic.newNumber();
+
+                assertEquals(a.mod(modulus), arithmetic.fromMontgomery(x, workspace));
+
+                arithmetic.multiply(x, y, product, workspace);
+                assertEquals(a.multiply(b).mod(modulus), arithmetic.fromMontgomery(product, workspace));
+
+                // the result may be an operand
+                arithmetic.multiply(x, x, x, workspace);
+                assertEquals(a.multiply(a).mod(modulus), arithmetic.fromMontgomery(x, workspace));
+            }
+        }
+    }
+
+    public void testInvalidArguments() {
+        try {
+            new FixedWidthArithmetic(BigInteger.valueOf(1L << 40));
+            fail("Expected an IllegalArgumentException for an even modulus");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    private BigInteger randomOddModulus(int bits) {
+        // set the highest bit, so that the modulus has exactly the given bit length
+        return new BigInteger(bits, this.random).setBit(bits - 1).setBit(0);
+    }
+}
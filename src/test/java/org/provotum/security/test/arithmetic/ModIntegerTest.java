@@ -4,6 +4,10 @@ import junit.framework.TestCase;
 import org.provotum.security.arithmetic.ModInteger;
 
 import java.math.BigInteger;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 public class ModIntegerTest extends TestCase {
 
@@ -86,4 +90,61 @@ public class ModIntegerTest extends TestCase {
         assertTrue(orig.equals(clone));
     }
 
+    public void testJacobi() {
+        BigInteger p = BigInteger.valueOf(23);
+
+        // the quadratic residues modulo 23
+        List<Integer> residues = Arrays.asList(1, 2, 3, 4, 6, 8, 9, 12, 13, 16, 18);
+
+        assertEquals(0, new ModInteger(BigInteger.ZERO, p).jacobi());
+        for (int i = 1; i < 23; i++) {
+            int expected = residues.contains(i) ? 1 : - 1;
+            assertEquals(expected, new ModInteger(BigInteger.valueOf(i), p).jacobi());
+        }
+    }
+
+    public void testJacobiLargeModulus() {
+        SecureRandom random = new SecureRandom();
+        BigInteger p = BigInteger.probablePrime(512, random);
+
+        for (int i = 0; i < 20; i++) {
+            BigInteger value = new BigInteger(511, random);
+            BigInteger euler = value.modPow(p.shiftRight(1), p);
+            int expected = euler.equals(BigInteger.ONE) ? 1 : - 1;
+
+            assertEquals(expected, new ModInteger(value, p).jacobi());
+            assertEquals(1, new ModInteger(value.multiply(value), p).jacobi());
+        }
+    }
+
+    public void testInvertAll() {
+        SecureRandom random = new SecureRandom();
+        BigInteger p = BigInteger.probablePrime(256, random);
+
+        for (int n : new int[]{0, 1, 2, 17}) {
+            List<ModInteger> values = new ArrayList<>();
+            for (int i = 0; i < n; i++) {
+                values.add(new ModInteger(new BigInteger(255, random).add(BigInteger.ONE), p));
+            }
+
+            List<ModInteger> inverses = ModInteger.invertAll(values);
+
+            assertEquals(n, inverses.size());
+            for (int i = 0; i < n; i++) {
+                assertEquals(values.get(i).asBigInteger().modInverse(p), inverses.get(i).asBigInteger());
+            }
+        }
+    }
+
+    public void testInvertAllNotInvertible() {
+        BigInteger p = BigInteger.valueOf(23);
+        List<ModInteger> values = Arrays.asList(new ModInteger(BigInteger.ONE, p), new ModInteger(BigInteger.ZERO, p));
+
+        try {
+            ModInteger.invertAll(values);
+            fail("Expected an ArithmeticException for a value which is not invertible");
+        } catch (ArithmeticException e) {
+            // expected
+        }
+    }
 }
@@ -0,0 +1,83 @@
+package org.provotum.security.test.arithmetic;
+
+import junit.framework.TestCase;
+import org.provotum.security.arithmetic.ModInteger;
+import org.provotum.security.arithmetic.ModularContext;
+import org.provotum.security.arithmetic.MontgomeryInteger;
+
+import java.math.BigInteger;
+import java.security.SecureRandom;
+
+public class ModularContextTest extends TestCase {
+
+    private SecureRandom random;
+
+    public void setUp() {
+        this.random = new SecureRandom();
+    }
+
+    public void testArithmeticMatchesBigInteger() {
+        for (int bits : new int[]{3, 31, 64, 65, 256, 1024}) {
+            BigInteger p = BigInteger.probablePrime(bits, this.random);
+            ModularContext context = new ModularContext(p);
+
+            for (int i = 0; i < 50; i++) {
+                BigInteger a = new BigInteger(bits + 8, this.random);
+                BigInteger b = new BigInteger(bits, this.random).mod(p);
+                BigInteger e = new BigInteger(bits, this.random);
+
+                MontgomeryInteger x = context.toMontgomery(a);
+                MontgomeryInteger y = context.toMontgomery(b);
+
+                assertEquals(a.mod(p), x.asBigInteger());
+                assertEquals(a.multiply(b).mod(p), x.multiply(y).asBigInteger());
+                assertEquals(a.multiply(a).mod(p), x.square().asBigInteger());
+                assertEquals(a.add(b).mod(p), x.add(y).asBigInteger());
+                assertEquals(a.subtract(b).mod(p), x.subtract(y).asBigInteger());
+                assertEquals(a.negate().mod(p), x.negate().asBigInteger());
+                assertEquals(a.modPow(e, p), x.pow(e).asBigInteger());
+
+                if (b.signum() != 0) {
+                    assertEquals(b.modInverse(p), y.inverse().asBigInteger());
+                    assertEquals(context.one(), y.multiply(y.inverse()));
+                }
+            }
+        }
+    }
+
+    public void testChainedMultiplication() {
+        BigInteger p = BigInteger.probablePrime(512, this.random);
+        ModularContext context = new ModularContext(p);
+
+        ModInteger expected = new ModInteger(BigInteger.ONE, p);
+        MontgomeryInteger product = context.one();
+
+        for (int i = 0; i < 100; i++) {
+            ModInteger factor = new ModInteger(new BigInteger(512, this.random), p);
+
+            expected = expected.multiply(factor);
+            product = product.multiply(context.toMontgomery(factor));
+        }
+
+        assertEquals(expected, product.toModInteger());
+        assertEquals(context.toMontgomery(expected), product);
+        assertEquals(BigInteger.ZERO, context.zero().asBigInteger());
+    }
+
+    public void testInvalidModulus() {
+        try {
+            new ModularContext(BigInteger.valueOf(10));
+            fail("Expected an IllegalArgumentException for an even modulus");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+
+        ModularContext context = new ModularContext(BigInteger.valueOf(11));
+        try {
+            context.one().multiply(new ModularContext(BigInteger.valueOf(13)).one());
+            fail("Expected an IllegalArgumentException for values of different moduli");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+}
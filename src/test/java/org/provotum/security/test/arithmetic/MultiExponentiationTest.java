@@ -0,0 +1,68 @@
+package org.provotum.security.test.arithmetic;
+
+import junit.framework.TestCase;
+import org.provotum.security.arithmetic.ModInteger;
+import org.provotum.security.arithmetic.MultiExponentiation;
+
+import java.math.BigInteger;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.List;
+
+public class MultiExponentiationTest extends TestCase {
+
+    private SecureRandom random;
+    private BigInteger p;
+
+    public void setUp() {
+        this.random = new SecureRandom();
+        this.p = BigInteger.probablePrime(256, this.random);
+    }
+
+    public void testPowMatchesSeparateExponentiations() {
+        for (int n : new int[]{1, 2, 4, 7, 20}) {
+            for (int bits : new int[]{1, 8, 64, 256}) {
+                List<BigInteger> bases = new ArrayList<>();
+                List<BigInteger> exponents = new ArrayList<>();
+                BigInteger expected = BigInteger.ONE;
+
+                for (int i = 0; i < n; i++) {
+                    BigInteger base = new BigInteger(255, this.random);
+                    BigInteger exponent = new BigInteger(bits, this.random);
+
+                    bases.add(base);
+                    exponents.add(exponent);
+                    expected = expected.multiply(base.modPow(exponent, this.p)).mod(this.p);
+                }
+
+                assertEquals(expected, MultiExponentiation.pow(bases, exponents, this.p));
+            }
+        }
+    }
+
+    public void testNegativeExponents() {
+        List<BigInteger> bases = new ArrayList<>();
+        List<BigInteger> exponents = new ArrayList<>();
+        BigInteger expected = BigInteger.ONE;
+
+        for (int i = 0; i < 5; i++) {
+            BigInteger base = new BigInteger(255, this.random).add(BigInteger.ONE);
+            BigInteger exponent = new BigInteger(128, this.random).negate();
+
+            bases.add(base);
+            exponents.add(exponent);
+            expected = expected.multiply(base.modPow(exponent, this.p)).mod(this.p);
+        }
+
+        assertEquals(expected, MultiExponentiation.pow(bases, exponents, this.p));
+    }
+
+    public void testModIntegerMultiPow() {
+        ModInteger a = new ModInteger(new BigInteger(255, this.random), this.p);
+        ModInteger b = new ModInteger(new BigInteger(255, this.random), this.p);
+        ModInteger x = new ModInteger(new BigInteger(256, this.random));
+        ModInteger y = new ModInteger(new BigInteger(256, this.random));
+
+        assertEquals(a.pow(x).multiply(b.pow(y)), a.multiPow(x, b, y));
+    }
+}
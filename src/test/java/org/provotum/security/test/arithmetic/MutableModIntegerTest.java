@@ -0,0 +1,68 @@
+package org.provotum.security.test.arithmetic;
+
+import junit.framework.TestCase;
+import org.provotum.security.arithmetic.ModInteger;
+import org.provotum.security.arithmetic.MutableModInteger;
+
+import java.math.BigInteger;
+import java.security.SecureRandom;
+
+public class MutableModIntegerTest extends TestCase {
+
+    private SecureRandom random;
+    private BigInteger p;
+
+    public void setUp() {
+        this.random = new SecureRandom();
+        this.p = BigInteger.probablePrime(512, this.random);
+    }
+
+    public void testMultiplyMatchesModInteger() {
+        MutableModInteger product = new MutableModInteger(this.p);
+        ModInteger expected = new ModInteger(BigInteger.ONE, this.p);
+
+        assertEquals(BigInteger.ONE, product.asBigInteger());
+
+        for (int i = 0; i < 200; i++) {
+            // factors are not required to be reduced
+            ModInteger factor = new ModInteger(new BigInteger(600, this.random));
+
+            expected = expected.multiply(factor);
+            product.multiply(factor);
+        }
+
+        assertEquals(expected, product.toModInteger());
+    }
+
+    public void testMultiplyMutable() {
+        BigInteger a = new BigInteger(511, this.random);
+        BigInteger b = new BigInteger(511, this.random);
+
+        MutableModInteger first = new MutableModInteger(this.p).set(a).multiply(b);
+        MutableModInteger second = new MutableModInteger(this.p).multiply(a);
+
+        first.multiply(second);
+        assertEquals(a.multiply(a).multiply(b).mod(this.p), first.asBigInteger());
+
+        // the factor remains unchanged
+        assertEquals(a, second.asBigInteger());
+
+        first.multiply(first);
+        assertEquals(a.multiply(a).multiply(b).pow(2).mod(this.p), first.asBigInteger());
+
+        first.setOne();
+        assertEquals(BigInteger.ONE, first.asBigInteger());
+    }
+
+    public void testDifferentModuli() {
+        MutableModInteger first = new MutableModInteger(this.p);
+        MutableModInteger second = new MutableModInteger(BigInteger.probablePrime(512, this.random));
+
+        try {
+            first.multiply(second);
+            fail("Expected an IllegalArgumentException for values of different moduli");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package org.provotum.security.test.dlog;
+
+import junit.framework.TestCase;
+import org.bouncycastle.crypto.generators.ElGamalParametersGenerator;
+import org.bouncycastle.crypto.params.ElGamalParameters;
+import org.provotum.security.arithmetic.ModInteger;
+import org.provotum.security.dlog.BabyStepGiantStep;
+import org.provotum.security.dlog.IBabyStepTable;
+import org.provotum.security.dlog.InMemoryBabyStepTable;
+
+import java.math.BigInteger;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class BabyStepGiantStepTest extends TestCase {
+
+    private ModInteger g;
+
+    public void setUp() {
+        ElGamalParametersGenerator generator = new ElGamalParametersGenerator();
+        generator.init(160, 20, new SecureRandom());
+        ElGamalParameters parameters = generator.generateParameters();
+
+        this.g = new ModInteger(parameters.getG(), parameters.getP());
+    }
+
+    public void testSolve() {
+        BabyStepGiantStep solver = new BabyStepGiantStep();
+
+        for (long m : new long[]{0, 1, 2, 255, 256, 1000, 65535}) {
+            ModInteger target = this.g.pow(new ModInteger(BigInteger.valueOf(m)));
+
+            assertEquals(new ModInteger(BigInteger.valueOf(m)), solver.solve(this.g, target, 0, 65535));
+        }
+    }
+
+    public void testSolveWithinInterval() {
+        BabyStepGiantStep solver = new BabyStepGiantStep();
+        ModInteger target = this.g.pow(new ModInteger(BigInteger.valueOf(500000)));
+
+        assertEquals(new ModInteger(BigInteger.valueOf(500000)), solver.solve(this.g, target, 499000, 501000));
+        assertNull(solver.solve(this.g, target, 0, 499999));
+        assertNull(solver.solve(this.g, target, 500001, 600000));
+    }
+
+    public void testSolveWithSmallTable() {
+        // more giant steps are required if the table is capped
+        BabyStepGiantStep solver = new BabyStepGiantStep(16);
+        ModInteger target = this.g.pow(new ModInteger(BigInteger.valueOf(12345)));
+
+        assertEquals(new ModInteger(BigInteger.valueOf(12345)), solver.solve(this.g, target, 0, 20000));
+    }
+
+    public void testInvalidInterval() {
+        BabyStepGiantStep solver = new BabyStepGiantStep();
+
+        try {
+            solver.solve(this.g, this.g, 10, 9);
+            fail("An empty interval must be rejected.");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    public void testTableEviction() {
+        BabyStepGiantStep solver = new BabyStepGiantStep(BabyStepGiantStep.DEFAULT_MAX_BABY_STEPS, 1);
+        ModInteger otherG = this.g.pow(new ModInteger(BigInteger.valueOf(3)));
+
+        ModInteger target = this.g.pow(new ModInteger(BigInteger.valueOf(1000)));
+        ModInteger otherTarget = otherG.pow(new ModInteger(BigInteger.valueOf(2000)));
+
+        assertEquals(new ModInteger(BigInteger.valueOf(1000)), solver.solve(this.g, target, 0, 65535));
+        assertEquals(new ModInteger(BigInteger.valueOf(2000)), solver.solve(otherG, otherTarget, 0, 65535));
+        assertEquals(1, solver.getTableCount());
+
+        // the evicted table is rebuilt on its next use
+        assertEquals(new ModInteger(BigInteger.valueOf(1000)), solver.solve(this.g, target, 0, 65535));
+        assertEquals(1, solver.getTableCount());
+
+        try {
+            new BabyStepGiantStep(BabyStepGiantStep.DEFAULT_MAX_BABY_STEPS, 0);
+            fail("At least one table must be held.");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    public void testRegisteredTableIsPinned() {
+        BabyStepGiantStep solver = new BabyStepGiantStep(BabyStepGiantStep.DEFAULT_MAX_BABY_STEPS, 1);
+        CountingTable registered = new CountingTable(new InMemoryBabyStepTable(this.g, 16));
+        solver.register(registered);
+
+        // build and evict tables of other generators
+        for (int i = 2; i < 5; i++) {
+            ModInteger otherG = this.g.pow(new ModInteger(BigInteger.valueOf(i)));
+            ModInteger otherTarget = otherG.pow(new ModInteger(BigInteger.valueOf(1000)));
+
+            assertEquals(new ModInteger(BigInteger.valueOf(1000)), solver.solve(otherG, otherTarget, 0, 65535));
+        }
+        assertEquals(2, solver.getTableCount());
+
+        // a larger table would be required for this interval, but the registered one is kept
+        ModInteger target = this.g.pow(new ModInteger(BigInteger.valueOf(3000)));
+        assertEquals(new ModInteger(BigInteger.valueOf(3000)), solver.solve(this.g, target, 0, 65535));
+        assertTrue(registered.lookups > 0);
+    }
+
+    public void testConcurrentSolve() throws Exception {
+        BabyStepGiantStep solver = new BabyStepGiantStep(BabyStepGiantStep.DEFAULT_MAX_BABY_STEPS, 2);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        try {
+            List<Future<ModInteger>> results = new ArrayList<>();
+            for (int i = 0; i < 24; i++) {
+                ModInteger generator = this.g.pow(new ModInteger(BigInteger.valueOf(1 + i % 3)));
+                ModInteger target = generator.pow(new ModInteger(BigInteger.valueOf(i * 1000)));
+
+                results.add(executor.submit(() -> solver.solve(generator, target, 0, 65535)));
+            }
+
+            for (int i = 0; i < results.size(); i++) {
+                assertEquals(new ModInteger(BigInteger.valueOf(i * 1000)), results.get(i).get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertTrue(solver.getTableCount() <= 2);
+    }
+
+    public void testTableLookup() {
+        InMemoryBabyStepTable table = new InMemoryBabyStepTable(this.g, 1000);
+
+        assertEquals(1000, table.size());
+        assertEquals(0, table.lookup(1L));
+        assertEquals(1, table.lookup(this.g.asBigInteger().longValue()));
+        assertEquals(999, table.lookup(this.g.pow(999).asBigInteger().longValue()));
+    }
+
+    /**
+     * A table counting the lookups, to observe which table a solver uses.
+     */
+    private static final class CountingTable implements IBabyStepTable {
+        private final IBabyStepTable table;
+        private volatile int lookups;
+
+        private CountingTable(IBabyStepTable table) {
+            this.table = table;
+        }
+
+        @Override
+        public ModInteger getGenerator() {
+            return this.table.getGenerator();
+        }
+
+        @Override
+        public int size() {
+            return this.table.size();
+        }
+
+        @Override
+        public int lookup(long fingerprint) {
+            this.lookups++;
+
+            return this.table.lookup(fingerprint);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package org.provotum.security.test.dlog;
+
+import junit.framework.TestCase;
+import org.bouncycastle.crypto.generators.ElGamalParametersGenerator;
+import org.bouncycastle.crypto.params.ElGamalParameters;
+import org.provotum.security.arithmetic.ModInteger;
+import org.provotum.security.dlog.BabyStepGiantStep;
+import org.provotum.security.dlog.MappedBabyStepTable;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.SecureRandom;
+
+public class MappedBabyStepTableTest extends TestCase {
+
+    private ModInteger g;
+    private Path file;
+
+    public void setUp() throws IOException {
+        ElGamalParametersGenerator generator = new ElGamalParametersGenerator();
+        generator.init(160, 20, new SecureRandom());
+        ElGamalParameters parameters = generator.generateParameters();
+
+        this.g = new ModInteger(parameters.getG(), parameters.getP());
+        this.file = Files.createTempFile("baby-steps", ".bin");
+    }
+
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(this.file);
+    }
+
+    public void testWriteAndOpen() throws IOException {
+        MappedBabyStepTable.write(this.file, this.g, 1000);
+        MappedBabyStepTable table = MappedBabyStepTable.open(this.file, this.g);
+
+        assertEquals(1000, table.size());
+        assertEquals(0, table.lookup(1L));
+        assertEquals(1, table.lookup(this.g.asBigInteger().longValue()));
+        assertEquals(999, table.lookup(this.g.pow(999).asBigInteger().longValue()));
+        assertEquals(- 1, table.lookup(this.g.pow(1000).asBigInteger().longValue()));
+    }
+
+    public void testSolveWithMappedTable() throws IOException {
+        MappedBabyStepTable.write(this.file, this.g, 1024);
+
+        BabyStepGiantStep solver = new BabyStepGiantStep(1024);
+        solver.register(MappedBabyStepTable.open(this.file, this.g));
+
+        ModInteger target = this.g.pow(new ModInteger(BigInteger.valueOf(654321)));
+        assertEquals(new ModInteger(BigInteger.valueOf(654321)), solver.solve(this.g, target, 0, 1 << 20));
+    }
+
+    public void testRejectOtherGenerator() throws IOException {
+        MappedBabyStepTable.write(this.file, this.g, 16);
+
+        try {
+            MappedBabyStepTable.open(this.file, this.g.pow(2));
+            fail("A table computed for another generator must be rejected.");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+}
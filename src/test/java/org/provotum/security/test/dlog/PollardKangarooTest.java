@@ -0,0 +1,67 @@
+package org.provotum.security.test.dlog;
+
+import junit.framework.TestCase;
+import org.bouncycastle.crypto.generators.ElGamalParametersGenerator;
+import org.bouncycastle.crypto.params.ElGamalParameters;
+import org.provotum.security.arithmetic.ModInteger;
+import org.provotum.security.dlog.PollardKangaroo;
+
+import java.math.BigInteger;
+import java.security.SecureRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+public class PollardKangarooTest extends TestCase {
+
+    private ModInteger g;
+
+    public void setUp() {
+        ElGamalParametersGenerator generator = new ElGamalParametersGenerator();
+        generator.init(160, 20, new SecureRandom());
+        ElGamalParameters parameters = generator.generateParameters();
+
+        this.g = new ModInteger(parameters.getG(), parameters.getP());
+    }
+
+    public void testSolve() {
+        PollardKangaroo solver = new PollardKangaroo();
+
+        for (long m : new long[]{0, 1, 255, 256, 1000, 65535, 123456789, 999999999}) {
+            ModInteger target = this.g.pow(new ModInteger(BigInteger.valueOf(m)));
+
+            assertEquals(new ModInteger(BigInteger.valueOf(m)), solver.solve(this.g, target, 0, 1000000000L));
+        }
+    }
+
+    public void testSolveWithinInterval() {
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        PollardKangaroo solver = new PollardKangaroo(4, executor);
+        ModInteger target = this.g.pow(new ModInteger(BigInteger.valueOf(5000000)));
+
+        try {
+            assertEquals(new ModInteger(BigInteger.valueOf(5000000)), solver.solve(this.g, target, 4000000, 6000000));
+            assertEquals(new ModInteger(BigInteger.valueOf(5000000)), solver.solve(this.g, target, 4999900, 5000100));
+            assertNull(solver.solve(this.g, target, 0, 4999999));
+            assertNull(solver.solve(this.g, target, 5000001, 6000000));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    public void testInvalidArguments() {
+        try {
+            new PollardKangaroo().solve(this.g, this.g, 10, 9);
+            fail("An empty interval must be rejected.");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+
+        try {
+            new PollardKangaroo(0, ForkJoinPool.commonPool());
+            fail("At least one pair of kangaroos is required.");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+}
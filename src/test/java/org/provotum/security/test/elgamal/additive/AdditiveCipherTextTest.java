@@ -8,6 +8,7 @@ import org.bouncycastle.jce.interfaces.ElGamalPublicKey;
 import org.bouncycastle.jce.spec.ElGamalParameterSpec;
 import org.provotum.security.api.IHomomorphicEncryption;
 import org.provotum.security.arithmetic.ModInteger;
+import org.provotum.security.dlog.PollardKangaroo;
 import org.provotum.security.elgamal.PrivateKey;
 import org.provotum.security.elgamal.PublicKey;
 import org.provotum.security.elgamal.additive.CipherText;
@@ -18,6 +19,9 @@ import java.security.InvalidAlgorithmParameterException;
 import java.security.KeyPair;
 import java.security.KeyPairGeneratorSpi;
 import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
 
 /**
  * Tests the correct working of additive ElGamal homomorphic encryption.
@@ -30,16 +34,7 @@ public class AdditiveCipherTextTest extends TestCase {
     private IHomomorphicEncryption<CipherText> encryption;
 
     public void setUp() throws InvalidAlgorithmParameterException {
-        ElGamalParametersGenerator generator = new ElGamalParametersGenerator();
-        generator.init(160, 20, new SecureRandom());
-        ElGamalParameters parameters = generator.generateParameters();
-
-        ElGamalParameterSpec elGamalParameterSpec = new ElGamalParameterSpec(parameters.getP(), parameters.getG());
-
-        KeyPairGeneratorSpi keyPairGeneratorSpi = new org.bouncycastle.jcajce.provider.asymmetric.elgamal.KeyPairGeneratorSpi();
-        keyPairGeneratorSpi.initialize(elGamalParameterSpec, new SecureRandom());
-
-        KeyPair keyPair = keyPairGeneratorSpi.generateKeyPair();
+        KeyPair keyPair = generateKeyPair(160);
 
         ElGamalPublicKey pubKey = (ElGamalPublicKey) keyPair.getPublic();
         ElGamalPrivateKey privKey = (ElGamalPrivateKey) keyPair.getPrivate();
@@ -50,6 +45,19 @@ public class AdditiveCipherTextTest extends TestCase {
         this.encryption = new Encryption();
     }
 
+    private static KeyPair generateKeyPair(int keyLength) throws InvalidAlgorithmParameterException {
+        ElGamalParametersGenerator generator = new ElGamalParametersGenerator();
+        generator.init(keyLength, 20, new SecureRandom());
+        ElGamalParameters parameters = generator.generateParameters();
+
+        ElGamalParameterSpec elGamalParameterSpec = new ElGamalParameterSpec(parameters.getP(), parameters.getG());
+
+        KeyPairGeneratorSpi keyPairGeneratorSpi = new org.bouncycastle.jcajce.provider.asymmetric.elgamal.KeyPairGeneratorSpi();
+        keyPairGeneratorSpi.initialize(elGamalParameterSpec, new SecureRandom());
+
+        return keyPairGeneratorSpi.generateKeyPair();
+    }
+
     public void testAddition() {
         CipherText cipherText1 = this.encryption.encrypt(this.publicKey, ModInteger.ONE);
         CipherText cipherText2 = this.encryption.encrypt(this.publicKey, ModInteger.ONE);
@@ -106,6 +114,174 @@ public class AdditiveCipherTextTest extends TestCase {
         assertTrue(BigInteger.ZERO.equals(result.getModulus().asBigInteger()));
     }
 
+    public void testBoundedDecryption() {
+        CipherText cipherText = this.encryption.encrypt(this.publicKey, new ModInteger("4711"));
+
+        ModInteger result = this.encryption.decrypt(this.privateKey, cipherText, 10000);
+        assertEquals(new ModInteger("4711"), result);
+
+        // an unbounded decryption must yield the same value
+        assertEquals(new ModInteger("4711"), this.encryption.decrypt(this.privateKey, cipherText));
+    }
+
+    public void testBoundedDecryptionOutOfRange() {
+        CipherText cipherText = this.encryption.encrypt(this.publicKey, new ModInteger("4711"));
+
+        try {
+            this.encryption.decrypt(this.privateKey, cipherText, 4710);
+            fail("The plaintext is out of range and must not be decrypted.");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    public void testIntervalDecryption() {
+        long lowerBound = 1000000000L;
+        long upperBound = lowerBound + 1000000L;
+        ModInteger message = new ModInteger(BigInteger.valueOf(lowerBound + 4711));
+
+        CipherText cipherText = this.encryption.encrypt(this.publicKey, message);
+        assertEquals(message, this.encryption.decrypt(this.privateKey, cipherText, lowerBound, upperBound));
+
+        List<CipherText> cipherTexts = new ArrayList<>();
+        cipherTexts.add(cipherText);
+        cipherTexts.add(this.encryption.encrypt(this.publicKey, new ModInteger(BigInteger.valueOf(upperBound))));
+
+        List<ModInteger> messages = this.encryption.decryptAll(this.privateKey, cipherTexts, lowerBound, upperBound);
+        assertEquals(message, messages.get(0));
+        assertEquals(new ModInteger(BigInteger.valueOf(upperBound)), messages.get(1));
+
+        try {
+            this.encryption.decrypt(this.privateKey, cipherText, lowerBound + 4712, upperBound);
+            fail("Expected an IllegalArgumentException, as the plaintext is below the lower bound.");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    public void testKangarooDecryption() {
+        IHomomorphicEncryption<CipherText> kangarooEncryption = new Encryption(new PollardKangaroo());
+
+        ModInteger small = new ModInteger(BigInteger.valueOf(4711));
+        ModInteger large = new ModInteger(BigInteger.valueOf(1000000000L + 4711));
+
+        CipherText smallCipherText = this.encryption.encrypt(this.publicKey, small);
+        CipherText largeCipherText = this.encryption.encrypt(this.publicKey, large);
+
+        assertEquals(small, kangarooEncryption.decrypt(this.privateKey, smallCipherText));
+        assertEquals(small, kangarooEncryption.decrypt(this.privateKey, smallCipherText, 10000));
+        assertEquals(large, kangarooEncryption.decrypt(this.privateKey, largeCipherText, 1000000000L, 1001000000L));
+
+        List<CipherText> cipherTexts = new ArrayList<>();
+        cipherTexts.add(largeCipherText);
+        cipherTexts.add(this.encryption.encrypt(this.publicKey, new ModInteger(BigInteger.valueOf(1000000000L))));
+
+        List<ModInteger> messages = kangarooEncryption.decryptAll(this.privateKey, cipherTexts, 1000000000L, 1001000000L);
+        assertEquals(large, messages.get(0));
+        assertEquals(new ModInteger(BigInteger.valueOf(1000000000L)), messages.get(1));
+    }
+
+    public void testEncryptAll() {
+        List<ModInteger> messages = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            messages.add(new ModInteger(BigInteger.valueOf(i % 7)));
+        }
+
+        List<CipherText> cipherTexts = this.encryption.encryptAll(this.publicKey, messages);
+
+        assertEquals(messages.size(), cipherTexts.size());
+        for (int i = 0; i < messages.size(); i++) {
+            assertEquals(messages.get(i), this.encryption.decrypt(this.privateKey, cipherTexts.get(i), 10));
+        }
+
+        assertTrue(this.encryption.encryptAll(this.publicKey, new ArrayList<>()).isEmpty());
+    }
+
+    public void testEncryptAllIterator() {
+        List<ModInteger> messages = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            messages.add(new ModInteger(BigInteger.valueOf(i % 5)));
+        }
+
+        Iterator<CipherText> cipherTexts = this.encryption.encryptAll(this.publicKey, messages.iterator());
+
+        for (ModInteger message : messages) {
+            assertTrue(cipherTexts.hasNext());
+            assertEquals(message, this.encryption.decrypt(this.privateKey, cipherTexts.next(), 10));
+        }
+
+        assertFalse(cipherTexts.hasNext());
+    }
+
+    public void testDecryptAll() {
+        List<ModInteger> messages = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            messages.add(new ModInteger(BigInteger.valueOf((i * 37) % 101)));
+        }
+
+        List<CipherText> cipherTexts = this.encryption.encryptAll(this.publicKey, messages);
+
+        List<ModInteger> bounded = this.encryption.decryptAll(this.privateKey, cipherTexts, 100);
+        List<ModInteger> unbounded = this.encryption.decryptAll(this.privateKey, cipherTexts);
+
+        assertEquals(messages.size(), bounded.size());
+        assertEquals(messages.size(), unbounded.size());
+        for (int i = 0; i < messages.size(); i++) {
+            assertEquals(messages.get(i), bounded.get(i));
+            assertEquals(messages.get(i), unbounded.get(i));
+        }
+
+        assertTrue(this.encryption.decryptAll(this.privateKey, new ArrayList<>(), 100).isEmpty());
+
+        try {
+            this.encryption.decryptAll(this.privateKey, cipherTexts, 99);
+            fail("Expected an IllegalArgumentException, as 100 is not within [0, 99].");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    public void testShortExponentRandomness() throws InvalidAlgorithmParameterException {
+        // q must be longer than the minimal randomness length
+        KeyPair keyPair = generateKeyPair(320);
+        PublicKey longKey = new PublicKey((ElGamalPublicKey) keyPair.getPublic());
+        PrivateKey longPrivateKey = new PrivateKey((ElGamalPrivateKey) keyPair.getPrivate());
+
+        PublicKey shortKey = longKey.withRandomnessBits(PublicKey.MIN_RANDOMNESS_BITS);
+
+        assertEquals(PublicKey.MIN_RANDOMNESS_BITS, shortKey.getRandomnessBits());
+        assertEquals(PublicKey.FULL_LENGTH_RANDOMNESS, longKey.getRandomnessBits());
+
+        for (int i = 0; i < 20; i++) {
+            CipherText cipherText = this.encryption.encrypt(shortKey, new ModInteger(BigInteger.valueOf(i)));
+
+            assertTrue(cipherText.getR().asBigInteger().bitLength() <= PublicKey.MIN_RANDOMNESS_BITS);
+            assertEquals(longKey.getQ().asBigInteger(), cipherText.getR().getModulus().asBigInteger());
+            assertEquals(new ModInteger(BigInteger.valueOf(i)), this.encryption.decrypt(longPrivateKey, cipherText));
+        }
+
+        try {
+            longKey.withRandomnessBits(longKey.getQ().asBigInteger().bitLength());
+            fail("Expected an IllegalArgumentException, as the randomness is not shorter than q.");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+
+        try {
+            longKey.withRandomnessBits(64);
+            fail("Expected an IllegalArgumentException, as the randomness is shorter than the minimal length.");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+
+        try {
+            this.publicKey.withRandomnessBits(PublicKey.MIN_RANDOMNESS_BITS);
+            fail("Expected an IllegalArgumentException, as q is not longer than the minimal length.");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
     public void testClone() {
         ModInteger one = new ModInteger(BigInteger.ONE, BigInteger.TEN);
         CipherText orig = this.encryption.encrypt(this.publicKey, one);
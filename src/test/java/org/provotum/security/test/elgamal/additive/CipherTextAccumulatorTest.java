@@ -0,0 +1,101 @@
+package org.provotum.security.test.elgamal.additive;
+
+import junit.framework.TestCase;
+import org.bouncycastle.crypto.generators.ElGamalParametersGenerator;
+import org.bouncycastle.crypto.params.ElGamalParameters;
+import org.bouncycastle.jce.interfaces.ElGamalPrivateKey;
+import org.bouncycastle.jce.interfaces.ElGamalPublicKey;
+import org.bouncycastle.jce.spec.ElGamalParameterSpec;
+import org.provotum.security.arithmetic.ModInteger;
+import org.provotum.security.elgamal.PrivateKey;
+import org.provotum.security.elgamal.PublicKey;
+import org.provotum.security.elgamal.additive.CipherText;
+import org.provotum.security.elgamal.additive.CipherTextAccumulator;
+import org.provotum.security.elgamal.additive.Encryption;
+import org.provotum.security.serializer.CipherTextSerializer;
+
+import java.math.BigInteger;
+import java.security.InvalidAlgorithmParameterException;
+import java.security.KeyPair;
+import java.security.KeyPairGeneratorSpi;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.List;
+
+public class CipherTextAccumulatorTest extends TestCase {
+
+    private PublicKey publicKey;
+    private PrivateKey privateKey;
+
+    private Encryption encryption;
+
+    public void setUp() throws InvalidAlgorithmParameterException {
+        ElGamalParametersGenerator generator = new ElGamalParametersGenerator();
+        generator.init(160, 20, new SecureRandom());
+        ElGamalParameters parameters = generator.generateParameters();
+
+        ElGamalParameterSpec elGamalParameterSpec = new ElGamalParameterSpec(parameters.getP(), parameters.getG());
+
+        KeyPairGeneratorSpi keyPairGeneratorSpi = new org.bouncycastle.jcajce.provider.asymmetric.elgamal.KeyPairGeneratorSpi();
+        keyPairGeneratorSpi.initialize(elGamalParameterSpec, new SecureRandom());
+
+        KeyPair keyPair = keyPairGeneratorSpi.generateKeyPair();
+
+        this.publicKey = new PublicKey((ElGamalPublicKey) keyPair.getPublic());
+        this.privateKey = new PrivateKey((ElGamalPrivateKey) keyPair.getPrivate());
+
+        this.encryption = new Encryption();
+    }
+
+    public void testMatchesOperate() {
+        CipherTextAccumulator accumulator = new CipherTextAccumulator(this.publicKey);
+        CipherText expected = this.encryption.encrypt(this.publicKey, ModInteger.ZERO);
+        accumulator.add(expected);
+
+        for (int i = 0; i < 100; i++) {
+            CipherText cipherText = this.encryption.encrypt(this.publicKey, (i % 3 == 0) ? ModInteger.ONE : ModInteger.ZERO);
+
+            expected = expected.operate(cipherText);
+            accumulator.add(cipherText);
+        }
+
+        CipherText sum = accumulator.toCipherText();
+
+        assertEquals(101, accumulator.size());
+        assertEquals(expected, sum);
+        assertEquals(BigInteger.valueOf(34), this.encryption.decrypt(this.privateKey, sum).asBigInteger());
+    }
+
+    public void testMerge() {
+        CipherTextAccumulator first = new CipherTextAccumulator(this.publicKey);
+        CipherTextAccumulator second = new CipherTextAccumulator(this.publicKey);
+
+        for (int i = 0; i < 10; i++) {
+            first.add(this.encryption.encrypt(this.publicKey, ModInteger.ONE));
+            second.add(this.encryption.encrypt(this.publicKey, ModInteger.TWO));
+        }
+
+        CipherText sum = first.merge(second).toCipherText();
+
+        assertEquals(20, first.size());
+        assertEquals(BigInteger.valueOf(30), this.encryption.decrypt(this.privateKey, sum).asBigInteger());
+
+        first.reset();
+        assertEquals(0, first.size());
+        assertEquals(BigInteger.ZERO, this.encryption.decrypt(this.privateKey, first.toCipherText()).asBigInteger());
+    }
+
+    public void testUnknownRandomness() {
+        List<CipherText> cipherTexts = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            // deserialized ciphertexts do not know their random value
+            String serialized = CipherTextSerializer.serialize(this.encryption.encrypt(this.publicKey, ModInteger.ONE));
+            cipherTexts.add(CipherTextSerializer.fromString(serialized));
+        }
+
+        CipherText sum = new CipherTextAccumulator(this.publicKey).addAll(cipherTexts).toCipherText();
+
+        assertNull(sum.getR());
+        assertEquals(BigInteger.valueOf(5), this.encryption.decrypt(this.privateKey, sum).asBigInteger());
+    }
+}
@@ -0,0 +1,100 @@
+package org.provotum.security.test.elgamal.additive;
+
+import junit.framework.TestCase;
+import org.bouncycastle.crypto.generators.ElGamalParametersGenerator;
+import org.bouncycastle.crypto.params.ElGamalParameters;
+import org.bouncycastle.jce.interfaces.ElGamalPrivateKey;
+import org.bouncycastle.jce.interfaces.ElGamalPublicKey;
+import org.bouncycastle.jce.spec.ElGamalParameterSpec;
+import org.provotum.security.arithmetic.ModInteger;
+import org.provotum.security.elgamal.PrivateKey;
+import org.provotum.security.elgamal.PublicKey;
+import org.provotum.security.elgamal.additive.CrtCipherText;
+import org.provotum.security.elgamal.additive.CrtEncoding;
+import org.provotum.security.elgamal.additive.Encryption;
+
+import java.math.BigInteger;
+import java.security.InvalidAlgorithmParameterException;
+import java.security.KeyPair;
+import java.security.KeyPairGeneratorSpi;
+import java.security.SecureRandom;
+
+public class CrtEncodingTest extends TestCase {
+
+    private PublicKey publicKey;
+    private PrivateKey privateKey;
+
+    private Encryption encryption;
+
+    public void setUp() throws InvalidAlgorithmParameterException {
+        ElGamalParametersGenerator generator = new ElGamalParametersGenerator();
+        generator.init(160, 20, new SecureRandom());
+        ElGamalParameters parameters = generator.generateParameters();
+
+        ElGamalParameterSpec elGamalParameterSpec = new ElGamalParameterSpec(parameters.getP(), parameters.getG());
+
+        KeyPairGeneratorSpi keyPairGeneratorSpi = new org.bouncycastle.jcajce.provider.asymmetric.elgamal.KeyPairGeneratorSpi();
+        keyPairGeneratorSpi.initialize(elGamalParameterSpec, new SecureRandom());
+
+        KeyPair keyPair = keyPairGeneratorSpi.generateKeyPair();
+
+        this.publicKey = new PublicKey((ElGamalPublicKey) keyPair.getPublic());
+        this.privateKey = new PrivateKey((ElGamalPrivateKey) keyPair.getPrivate());
+
+        this.encryption = new Encryption();
+    }
+
+    public void testEncryptDecrypt() {
+        CrtEncoding encoding = new CrtEncoding(this.encryption, 251, 253, 255);
+
+        assertEquals(BigInteger.valueOf(251 * 253 * 255), encoding.getCapacity());
+
+        for (long m : new long[]{0, 1, 250, 63503, 16193264}) {
+            CrtCipherText cipherText = encoding.encrypt(this.publicKey, new ModInteger(BigInteger.valueOf(m)));
+
+            assertEquals(3, cipherText.getComponents().size());
+            assertEquals(new ModInteger(BigInteger.valueOf(m)), encoding.decrypt(this.privateKey, cipherText));
+        }
+    }
+
+    public void testAddition() {
+        CrtEncoding encoding = new CrtEncoding(this.encryption, 251, 253, 255);
+
+        // weighted votes, whose sum would require a search up to 12 million without the encoding
+        CrtCipherText sum = encoding.encrypt(this.publicKey, new ModInteger(BigInteger.valueOf(1234567)));
+        for (int i = 1; i < 10; i++) {
+            sum = sum.operate(encoding.encrypt(this.publicKey, new ModInteger(BigInteger.valueOf(1234567))));
+        }
+
+        assertEquals(10, sum.getAdditions());
+        assertEquals(new ModInteger(BigInteger.valueOf(12345670)), encoding.decrypt(this.privateKey, sum));
+    }
+
+    public void testForCapacity() {
+        CrtEncoding encoding = CrtEncoding.forCapacity(this.encryption, BigInteger.valueOf(100000000), 1000);
+
+        assertTrue(encoding.getCapacity().compareTo(BigInteger.valueOf(100000000)) >= 0);
+        assertEquals(BigInteger.valueOf(997), encoding.getModuli().get(0));
+
+        CrtCipherText cipherText = encoding.encrypt(this.publicKey, new ModInteger(BigInteger.valueOf(87654321)));
+        assertEquals(new ModInteger(BigInteger.valueOf(87654321)), encoding.decrypt(this.privateKey, cipherText));
+    }
+
+    public void testInvalidArguments() {
+        try {
+            new CrtEncoding(this.encryption, 6, 9);
+            fail("Moduli which are not coprime must be rejected.");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+
+        CrtEncoding encoding = new CrtEncoding(this.encryption, 5, 7);
+
+        try {
+            encoding.encrypt(this.publicKey, new ModInteger(BigInteger.valueOf(35)));
+            fail("35 is not within [0, 35).");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package org.provotum.security.test.elgamal.additive;
+
+import junit.framework.TestCase;
+import org.bouncycastle.crypto.generators.ElGamalParametersGenerator;
+import org.bouncycastle.crypto.params.ElGamalParameters;
+import org.bouncycastle.jce.interfaces.ElGamalPrivateKey;
+import org.bouncycastle.jce.interfaces.ElGamalPublicKey;
+import org.bouncycastle.jce.spec.ElGamalParameterSpec;
+import org.provotum.security.arithmetic.ModInteger;
+import org.provotum.security.elgamal.PrivateKey;
+import org.provotum.security.elgamal.PublicKey;
+import org.provotum.security.elgamal.additive.CipherText;
+import org.provotum.security.elgamal.additive.Encryption;
+import org.provotum.security.elgamal.additive.EncryptionPool;
+
+import java.math.BigInteger;
+import java.security.InvalidAlgorithmParameterException;
+import java.security.KeyPair;
+import java.security.KeyPairGeneratorSpi;
+import java.security.SecureRandom;
+import java.util.HashSet;
+import java.util.Set;
+
+public class EncryptionPoolTest extends TestCase {
+
+    private PublicKey publicKey;
+    private PrivateKey privateKey;
+
+    public void setUp() throws InvalidAlgorithmParameterException {
+        ElGamalParametersGenerator generator = new ElGamalParametersGenerator();
+        generator.init(160, 20, new SecureRandom());
+        ElGamalParameters parameters = generator.generateParameters();
+
+        ElGamalParameterSpec elGamalParameterSpec = new ElGamalParameterSpec(parameters.getP(), parameters.getG());
+
+        KeyPairGeneratorSpi keyPairGeneratorSpi = new org.bouncycastle.jcajce.provider.asymmetric.elgamal.KeyPairGeneratorSpi();
+        keyPairGeneratorSpi.initialize(elGamalParameterSpec, new SecureRandom());
+
+        KeyPair keyPair = keyPairGeneratorSpi.generateKeyPair();
+
+        this.publicKey = new PublicKey((ElGamalPublicKey) keyPair.getPublic());
+        this.privateKey = new PrivateKey((ElGamalPrivateKey) keyPair.getPrivate());
+    }
+
+    public void testEncryptFromPool() {
+        Encryption encryption = new Encryption();
+
+        try (EncryptionPool pool = new EncryptionPool(this.publicKey, 10, 0)) {
+            pool.fill();
+
+            assertEquals(10, pool.size());
+            assertEquals(10, pool.getRefills());
+
+            Set<ModInteger> randomValues = new HashSet<>();
+            for (int i = 0; i < 15; i++) {
+                CipherText cipherText = pool.encrypt(ModInteger.ONE);
+
+                assertEquals(BigInteger.ONE, encryption.decrypt(this.privateKey, cipherText).asBigInteger());
+                assertEquals(this.publicKey.powG(cipherText.getR()), cipherText.getG());
+
+                // a triple is never used twice
+                assertTrue(randomValues.add(cipherText.getR()));
+            }
+
+            assertEquals(0, pool.size());
+            assertEquals(10, pool.getHits());
+            assertEquals(5, pool.getMisses());
+        }
+    }
+
+    public void testBackgroundRefill() throws InterruptedException {
+        try (EncryptionPool pool = new EncryptionPool(this.publicKey, 5, 2)) {
+            long deadline = System.currentTimeMillis() + 10000;
+            while (pool.size() < pool.getCapacity() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+
+            assertEquals(5, pool.size());
+
+            pool.encrypt(ModInteger.ZERO);
+            assertEquals(1, pool.getHits());
+        }
+    }
+
+    public void testInvalidCapacity() {
+        try {
+            new EncryptionPool(this.publicKey, 0);
+            fail("Expected an IllegalArgumentException for an empty pool");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+}
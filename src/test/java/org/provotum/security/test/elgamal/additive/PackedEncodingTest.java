@@ -0,0 +1,103 @@
+package org.provotum.security.test.elgamal.additive;
+
+import junit.framework.TestCase;
+import org.bouncycastle.crypto.generators.ElGamalParametersGenerator;
+import org.bouncycastle.crypto.params.ElGamalParameters;
+import org.bouncycastle.jce.interfaces.ElGamalPrivateKey;
+import org.bouncycastle.jce.interfaces.ElGamalPublicKey;
+import org.bouncycastle.jce.spec.ElGamalParameterSpec;
+import org.provotum.security.arithmetic.ModInteger;
+import org.provotum.security.elgamal.PrivateKey;
+import org.provotum.security.elgamal.PublicKey;
+import org.provotum.security.elgamal.additive.CipherText;
+import org.provotum.security.elgamal.additive.PackedEncoding;
+import org.provotum.security.elgamal.proof.noninteractive.MembershipProof;
+import org.provotum.security.elgamal.additive.Encryption;
+
+import java.math.BigInteger;
+import java.security.InvalidAlgorithmParameterException;
+import java.security.KeyPair;
+import java.security.KeyPairGeneratorSpi;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.List;
+
+public class PackedEncodingTest extends TestCase {
+
+    private PublicKey publicKey;
+    private PrivateKey privateKey;
+
+    private Encryption encryption;
+
+    public void setUp() throws InvalidAlgorithmParameterException {
+        ElGamalParametersGenerator generator = new ElGamalParametersGenerator();
+        generator.init(160, 20, new SecureRandom());
+        ElGamalParameters parameters = generator.generateParameters();
+
+        ElGamalParameterSpec elGamalParameterSpec = new ElGamalParameterSpec(parameters.getP(), parameters.getG());
+
+        KeyPairGeneratorSpi keyPairGeneratorSpi = new org.bouncycastle.jcajce.provider.asymmetric.elgamal.KeyPairGeneratorSpi();
+        keyPairGeneratorSpi.initialize(elGamalParameterSpec, new SecureRandom());
+
+        KeyPair keyPair = keyPairGeneratorSpi.generateKeyPair();
+
+        this.publicKey = new PublicKey((ElGamalPublicKey) keyPair.getPublic());
+        this.privateKey = new PrivateKey((ElGamalPrivateKey) keyPair.getPrivate());
+
+        this.encryption = new Encryption();
+    }
+
+    public void testPackUnpack() {
+        PackedEncoding encoding = new PackedEncoding(this.encryption, 3, 100);
+
+        assertEquals(new ModInteger(BigInteger.valueOf(30201)), encoding.pack(Arrays.asList(1L, 2L, 3L)));
+        assertEquals(Arrays.asList(1L, 2L, 3L), encoding.unpack(new ModInteger(BigInteger.valueOf(30201))));
+        assertEquals(Arrays.asList(99L, 0L, 99L), encoding.unpack(new ModInteger(BigInteger.valueOf(990099))));
+
+        try {
+            encoding.pack(Arrays.asList(1L, 100L, 3L));
+            fail("A vote of 100 does not fit a slot of base 100.");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    public void testTally() {
+        PackedEncoding encoding = new PackedEncoding(this.encryption, 3, 101);
+        long[] expected = new long[3];
+
+        CipherText tally = encoding.encrypt(this.publicKey, Arrays.asList(0L, 0L, 0L));
+        for (int i = 0; i < 100; i++) {
+            int candidate = (i * 7) % 3;
+            expected[candidate]++;
+
+            tally = tally.operate(encoding.encrypt(this.publicKey, candidate));
+        }
+
+        List<Long> votes = encoding.decrypt(this.privateKey, tally, 100L * 101 * 101);
+
+        assertEquals(Arrays.asList(expected[0], expected[1], expected[2]), votes);
+    }
+
+    public void testSingleChoiceProof() {
+        PackedEncoding encoding = new PackedEncoding(this.encryption, 4, 1000);
+        CipherText ballot = encoding.encrypt(this.publicKey, 2);
+
+        MembershipProof proof = MembershipProof.commit(this.publicKey, encoding.getSingleChoiceValues().get(2), ballot, encoding.getSingleChoiceValues());
+
+        assertTrue(proof.verify(this.publicKey, ballot, encoding.getSingleChoiceValues()));
+        assertEquals(Arrays.asList(0L, 0L, 1L, 0L), encoding.decrypt(this.privateKey, ballot, 1000L * 1000 * 1000));
+    }
+
+    public void testCapacityExceedsGroupOrder() {
+        // 2^200 exceeds the order of a group of 160 bits
+        PackedEncoding encoding = new PackedEncoding(this.encryption, 200, 2);
+
+        try {
+            encoding.encrypt(this.publicKey, 0);
+            fail("The packed plaintexts must not exceed the order of the group.");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package org.provotum.security.test.elgamal.additive;
+
+import junit.framework.TestCase;
+import org.bouncycastle.crypto.generators.ElGamalParametersGenerator;
+import org.bouncycastle.crypto.params.ElGamalParameters;
+import org.bouncycastle.jce.interfaces.ElGamalPrivateKey;
+import org.bouncycastle.jce.interfaces.ElGamalPublicKey;
+import org.bouncycastle.jce.spec.ElGamalParameterSpec;
+import org.provotum.security.arithmetic.ModInteger;
+import org.provotum.security.elgamal.PrivateKey;
+import org.provotum.security.elgamal.PublicKey;
+import org.provotum.security.elgamal.additive.CipherText;
+import org.provotum.security.elgamal.additive.Encryption;
+import org.provotum.security.elgamal.additive.TallyEngine;
+
+import java.math.BigInteger;
+import java.security.InvalidAlgorithmParameterException;
+import java.security.KeyPair;
+import java.security.KeyPairGeneratorSpi;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+public class TallyEngineTest extends TestCase {
+
+    private PublicKey publicKey;
+    private PrivateKey privateKey;
+
+    private Encryption encryption;
+
+    public void setUp() throws InvalidAlgorithmParameterException {
+        ElGamalParametersGenerator generator = new ElGamalParametersGenerator();
+        generator.init(160, 20, new SecureRandom());
+        ElGamalParameters parameters = generator.generateParameters();
+
+        ElGamalParameterSpec elGamalParameterSpec = new ElGamalParameterSpec(parameters.getP(), parameters.getG());
+
+        KeyPairGeneratorSpi keyPairGeneratorSpi = new org.bouncycastle.jcajce.provider.asymmetric.elgamal.KeyPairGeneratorSpi();
+        keyPairGeneratorSpi.initialize(elGamalParameterSpec, new SecureRandom());
+
+        KeyPair keyPair = keyPairGeneratorSpi.generateKeyPair();
+
+        this.publicKey = new PublicKey((ElGamalPublicKey) keyPair.getPublic());
+        this.privateKey = new PrivateKey((ElGamalPrivateKey) keyPair.getPrivate());
+
+        this.encryption = new Encryption();
+    }
+
+    public void testConcurrentBallots() throws Exception {
+        TallyEngine engine = new TallyEngine(this.publicKey, 3, 4, ForkJoinPool.commonPool());
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 90; i++) {
+            int choice = i % 3;
+            futures.add(executor.submit(() -> {
+                List<CipherText> ballot = new ArrayList<>();
+                for (int candidate = 0; candidate < 3; candidate++) {
+                    ballot.add(this.encryption.encrypt(this.publicKey, (candidate == choice) ? ModInteger.ONE : ModInteger.ZERO));
+                }
+
+                engine.addBallot(ballot);
+            }));
+        }
+
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        engine.add(1, this.encryption.encrypt(this.publicKey, ModInteger.TWO));
+
+        List<CipherText> tally = engine.tally();
+
+        assertEquals(3, tally.size());
+        assertEquals(BigInteger.valueOf(30), this.encryption.decrypt(this.privateKey, tally.get(0)).asBigInteger());
+        assertEquals(BigInteger.valueOf(32), this.encryption.decrypt(this.privateKey, tally.get(1)).asBigInteger());
+        assertEquals(BigInteger.valueOf(30), this.encryption.decrypt(this.privateKey, tally.get(2)).asBigInteger());
+    }
+
+    public void testBulkSum() {
+        List<CipherText> cipherTexts = new ArrayList<>();
+        CipherText expected = this.encryption.encrypt(this.publicKey, ModInteger.ZERO);
+        cipherTexts.add(expected);
+
+        for (int i = 1; i < 3000; i++) {
+            CipherText cipherText = this.encryption.encrypt(this.publicKey, (i % 2 == 0) ? ModInteger.ONE : ModInteger.ZERO);
+            cipherTexts.add(cipherText);
+            expected = expected.operate(cipherText);
+        }
+
+        assertEquals(expected, TallyEngine.sum(this.publicKey, cipherTexts));
+
+        TallyEngine engine = new TallyEngine(this.publicKey, 2);
+        engine.addAll(0, cipherTexts);
+
+        assertEquals(expected, engine.tally().get(0));
+        assertEquals(BigInteger.valueOf(1499), this.encryption.decrypt(this.privateKey, engine.tally().get(0)).asBigInteger());
+        assertEquals(BigInteger.ZERO, this.encryption.decrypt(this.privateKey, engine.tally().get(1)).asBigInteger());
+    }
+
+    public void testInvalidCandidate() {
+        TallyEngine engine = new TallyEngine(this.publicKey, 2);
+        CipherText cipherText = this.encryption.encrypt(this.publicKey, ModInteger.ONE);
+
+        try {
+            engine.add(2, cipherText);
+            fail("Expected an IllegalArgumentException for a candidate which does not exist");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+
+        try {
+            engine.addBallot(Arrays.asList(cipherText));
+            fail("Expected an IllegalArgumentException for a ballot of the wrong size");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package org.provotum.security.test.elgamal.ec;
+
+import junit.framework.TestCase;
+import org.bouncycastle.asn1.x9.ECNamedCurveTable;
+import org.bouncycastle.asn1.x9.X9ECParameters;
+import org.bouncycastle.crypto.AsymmetricCipherKeyPair;
+import org.bouncycastle.crypto.generators.ECKeyPairGenerator;
+import org.bouncycastle.crypto.params.ECDomainParameters;
+import org.bouncycastle.crypto.params.ECKeyGenerationParameters;
+import org.bouncycastle.crypto.params.ECPrivateKeyParameters;
+import org.bouncycastle.crypto.params.ECPublicKeyParameters;
+import org.provotum.security.arithmetic.ModInteger;
+import org.provotum.security.elgamal.ec.ECCipherText;
+import org.provotum.security.elgamal.ec.ECEncryption;
+import org.provotum.security.elgamal.ec.ECPrivateKey;
+import org.provotum.security.elgamal.ec.ECPublicKey;
+import org.provotum.security.serializer.ECCipherTextSerializer;
+
+import java.math.BigInteger;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+public class ECCipherTextTest extends TestCase {
+
+    private ECPublicKey publicKey;
+    private ECPrivateKey privateKey;
+
+    private ECEncryption encryption;
+
+    public void setUp() {
+        X9ECParameters curve = ECNamedCurveTable.getByName("secp256r1");
+        ECDomainParameters parameters = new ECDomainParameters(curve.getCurve(), curve.getG(), curve.getN(), curve.getH());
+
+        ECKeyPairGenerator generator = new ECKeyPairGenerator();
+        generator.init(new ECKeyGenerationParameters(parameters, new SecureRandom()));
+        AsymmetricCipherKeyPair keyPair = generator.generateKeyPair();
+
+        this.publicKey = new ECPublicKey((ECPublicKeyParameters) keyPair.getPublic());
+        this.privateKey = new ECPrivateKey((ECPrivateKeyParameters) keyPair.getPrivate());
+
+        this.encryption = new ECEncryption();
+    }
+
+    public void testEncryptDecrypt() {
+        for (long m : new long[]{0, 1, 2, 4711, 70000}) {
+            ECCipherText cipherText = this.encryption.encrypt(this.publicKey, new ModInteger(BigInteger.valueOf(m)));
+
+            assertEquals(new ModInteger(BigInteger.valueOf(m)), this.encryption.decrypt(this.privateKey, cipherText));
+        }
+    }
+
+    public void testAddition() {
+        ECCipherText sum = this.encryption.encrypt(this.publicKey, ModInteger.ZERO);
+        for (int i = 0; i < 20; i++) {
+            sum = sum.operate(this.encryption.encrypt(this.publicKey, (i % 2 == 0) ? ModInteger.ONE : ModInteger.ZERO));
+        }
+
+        assertEquals(new ModInteger(BigInteger.TEN), this.encryption.decrypt(this.privateKey, sum, 20));
+    }
+
+    public void testUpperBound() {
+        ECCipherText cipherText = this.encryption.encrypt(this.publicKey, new ModInteger(BigInteger.valueOf(4711)));
+
+        assertEquals(new ModInteger(BigInteger.valueOf(4711)), this.encryption.decrypt(this.privateKey, cipherText, 4711));
+
+        try {
+            this.encryption.decrypt(this.privateKey, cipherText, 4710);
+            fail("Expected an IllegalArgumentException, as 4711 is not within [0, 4710].");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    public void testInterval() {
+        long lowerBound = 1000000000L;
+        ModInteger message = new ModInteger(BigInteger.valueOf(lowerBound + 4711));
+        ECCipherText cipherText = this.encryption.encrypt(this.publicKey, message);
+
+        assertEquals(message, this.encryption.decrypt(this.privateKey, cipherText, lowerBound, lowerBound + 10000));
+
+        List<ECCipherText> cipherTexts = new ArrayList<>();
+        cipherTexts.add(cipherText);
+        assertEquals(message, this.encryption.decryptAll(this.privateKey, cipherTexts, lowerBound, lowerBound + 10000).get(0));
+
+        try {
+            this.encryption.decrypt(this.privateKey, cipherText, lowerBound + 4712, lowerBound + 10000);
+            fail("Expected an IllegalArgumentException, as the plaintext is below the lower bound.");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    public void testBatches() {
+        List<ModInteger> messages = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            messages.add(new ModInteger(BigInteger.valueOf(i % 7)));
+        }
+
+        List<ECCipherText> cipherTexts = this.encryption.encryptAll(this.publicKey, messages);
+
+        assertEquals(messages, this.encryption.decryptAll(this.privateKey, cipherTexts, 6));
+        assertEquals(messages, this.encryption.decryptAll(this.privateKey, cipherTexts));
+
+        Iterator<ECCipherText> iterator = this.encryption.encryptAll(this.publicKey, messages.iterator());
+        for (ModInteger message : messages) {
+            assertEquals(message, this.encryption.decrypt(this.privateKey, iterator.next(), 6));
+        }
+        assertFalse(iterator.hasNext());
+    }
+
+    public void testSerialization() {
+        ECCipherText cipherText = this.encryption.encrypt(this.publicKey, new ModInteger(BigInteger.valueOf(42)));
+        String serialized = ECCipherTextSerializer.serialize(cipherText);
+
+        // two compressed points of 33 bytes each
+        assertTrue(serialized.length() < 110);
+
+        ECCipherText deserialized = ECCipherTextSerializer.fromString(this.publicKey, serialized);
+
+        assertEquals(cipherText.getG(), deserialized.getG());
+        assertEquals(cipherText.getH(), deserialized.getH());
+        assertEquals(new ModInteger(BigInteger.valueOf(42)), this.encryption.decrypt(this.privateKey, deserialized));
+    }
+
+    public void testClone() {
+        ECCipherText orig = this.encryption.encrypt(this.publicKey, ModInteger.ONE);
+        ECCipherText clone = orig.clone();
+
+        assertFalse(orig == clone);
+        assertTrue(orig.equals(clone));
+    }
+}
@@ -0,0 +1,74 @@
+package org.provotum.security.test.elgamal.ec;
+
+import junit.framework.TestCase;
+import org.bouncycastle.asn1.x9.ECNamedCurveTable;
+import org.bouncycastle.asn1.x9.X9ECParameters;
+import org.bouncycastle.crypto.AsymmetricCipherKeyPair;
+import org.bouncycastle.crypto.generators.ECKeyPairGenerator;
+import org.bouncycastle.crypto.params.ECDomainParameters;
+import org.bouncycastle.crypto.params.ECKeyGenerationParameters;
+import org.bouncycastle.crypto.params.ECPublicKeyParameters;
+import org.provotum.security.arithmetic.ModInteger;
+import org.provotum.security.elgamal.ec.ECCipherText;
+import org.provotum.security.elgamal.ec.ECEncryption;
+import org.provotum.security.elgamal.ec.ECMembershipProof;
+import org.provotum.security.elgamal.ec.ECPublicKey;
+import org.provotum.security.serializer.ECCipherTextSerializer;
+import org.provotum.security.serializer.ECMembershipProofSerializer;
+
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.List;
+
+public class ECMembershipProofTest extends TestCase {
+
+    private ECPublicKey publicKey;
+    private ECEncryption encryption;
+    private List<ModInteger> domain;
+
+    public void setUp() {
+        X9ECParameters curve = ECNamedCurveTable.getByName("secp256r1");
+        ECDomainParameters parameters = new ECDomainParameters(curve.getCurve(), curve.getG(), curve.getN(), curve.getH());
+
+        ECKeyPairGenerator generator = new ECKeyPairGenerator();
+        generator.init(new ECKeyGenerationParameters(parameters, new SecureRandom()));
+        AsymmetricCipherKeyPair keyPair = generator.generateKeyPair();
+
+        this.publicKey = new ECPublicKey((ECPublicKeyParameters) keyPair.getPublic());
+        this.encryption = new ECEncryption();
+        this.domain = Arrays.asList(ModInteger.ZERO, ModInteger.ONE);
+    }
+
+    public void testValidProof() {
+        for (ModInteger message : this.domain) {
+            ECCipherText cipherText = this.encryption.encrypt(this.publicKey, message);
+            ECMembershipProof proof = ECMembershipProof.commit(this.publicKey, message, cipherText, this.domain);
+
+            assertTrue(proof.verify(this.publicKey, cipherText, this.domain));
+        }
+    }
+
+    public void testInvalidProof() {
+        ECCipherText cipherText = this.encryption.encrypt(this.publicKey, ModInteger.TWO);
+
+        // the message is not within the domain, hence no branch holds the real commitment
+        ECMembershipProof proof = ECMembershipProof.commit(this.publicKey, ModInteger.TWO, cipherText, this.domain);
+        assertFalse(proof.verify(this.publicKey, cipherText, this.domain));
+
+        // a proof must not verify for another ciphertext
+        ECCipherText other = this.encryption.encrypt(this.publicKey, ModInteger.ONE);
+        ECMembershipProof otherProof = ECMembershipProof.commit(this.publicKey, ModInteger.ONE, other, this.domain);
+        assertFalse(otherProof.verify(this.publicKey, cipherText, this.domain));
+        assertFalse(otherProof.verify(this.publicKey, other, Arrays.asList(ModInteger.ZERO, ModInteger.ONE, ModInteger.TWO)));
+    }
+
+    public void testSerialization() {
+        ECCipherText cipherText = this.encryption.encrypt(this.publicKey, ModInteger.ONE);
+        ECMembershipProof proof = ECMembershipProof.commit(this.publicKey, ModInteger.ONE, cipherText, this.domain);
+
+        ECCipherText deserializedCipherText = ECCipherTextSerializer.fromString(this.publicKey, ECCipherTextSerializer.serialize(cipherText));
+        ECMembershipProof deserializedProof = ECMembershipProofSerializer.fromString(this.publicKey, ECMembershipProofSerializer.serialize(proof));
+
+        assertTrue(deserializedProof.verify(this.publicKey, deserializedCipherText, this.domain));
+    }
+}
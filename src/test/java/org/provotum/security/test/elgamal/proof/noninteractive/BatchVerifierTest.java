@@ -0,0 +1,179 @@
+package org.provotum.security.test.elgamal.proof.noninteractive;
+
+import junit.framework.TestCase;
+import org.bouncycastle.crypto.generators.DSAParametersGenerator;
+import org.bouncycastle.crypto.generators.ElGamalParametersGenerator;
+import org.bouncycastle.crypto.params.DSAParameters;
+import org.bouncycastle.crypto.params.ElGamalParameters;
+import org.bouncycastle.jce.interfaces.ElGamalPublicKey;
+import org.bouncycastle.jce.spec.ElGamalParameterSpec;
+import org.provotum.security.arithmetic.ModInteger;
+import org.provotum.security.elgamal.PublicKey;
+import org.provotum.security.elgamal.additive.CipherText;
+import org.provotum.security.elgamal.additive.Encryption;
+import org.provotum.security.elgamal.proof.noninteractive.BatchVerifier;
+import org.provotum.security.elgamal.proof.noninteractive.MembershipProof;
+
+import java.math.BigInteger;
+import java.security.InvalidAlgorithmParameterException;
+import java.security.KeyPair;
+import java.security.KeyPairGeneratorSpi;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class BatchVerifierTest extends TestCase {
+
+    private PublicKey publicKey;
+    private List<ModInteger> domain;
+    private Encryption encryption;
+
+    public void setUp() throws InvalidAlgorithmParameterException {
+        ElGamalParametersGenerator generator = new ElGamalParametersGenerator();
+        generator.init(160, 20, new SecureRandom());
+        ElGamalParameters parameters = generator.generateParameters();
+
+        ElGamalParameterSpec elGamalParameterSpec = new ElGamalParameterSpec(parameters.getP(), parameters.getG());
+
+        KeyPairGeneratorSpi keyPairGeneratorSpi = new org.bouncycastle.jcajce.provider.asymmetric.elgamal.KeyPairGeneratorSpi();
+        keyPairGeneratorSpi.initialize(elGamalParameterSpec, new SecureRandom());
+
+        KeyPair keyPair = keyPairGeneratorSpi.generateKeyPair();
+
+        this.publicKey = new PublicKey((ElGamalPublicKey) keyPair.getPublic());
+
+        this.domain = new ArrayList<>();
+        this.domain.add(ModInteger.ZERO);
+        this.domain.add(ModInteger.ONE);
+
+        this.encryption = new Encryption();
+    }
+
+    public void testAllValid() {
+        BatchVerifier verifier = new BatchVerifier();
+
+        for (int i = 0; i < 150; i++) {
+            ModInteger message = (i % 2 == 0) ? ModInteger.ZERO : ModInteger.ONE;
+            CipherText cipherText = this.encryption.encrypt(this.publicKey, message);
+
+            verifier.add(this.publicKey, cipherText, MembershipProof.commit(this.publicKey, message, cipherText, this.domain), this.domain);
+        }
+
+        assertEquals(150, verifier.size());
+        assertTrue(verifier.verifyAll());
+    }
+
+    public void testFindsInvalidProofs() {
+        BatchVerifier verifier = new BatchVerifier();
+        List<CipherText> cipherTexts = new ArrayList<>();
+
+        for (int i = 0; i < 20; i++) {
+            CipherText cipherText = this.encryption.encrypt(this.publicKey, ModInteger.ONE);
+            cipherTexts.add(cipherText);
+
+            // proofs created for the wrong message have a correct challenge,
+            // but do not satisfy the equation of the real branch
+            ModInteger committed = (i == 3 || i == 17) ? ModInteger.ZERO : ModInteger.ONE;
+            verifier.add(this.publicKey, cipherText, MembershipProof.commit(this.publicKey, committed, cipherText, this.domain), this.domain);
+        }
+
+        // a valid proof for another ciphertext
+        MembershipProof proof = MembershipProof.commit(this.publicKey, ModInteger.ONE, cipherTexts.get(0), this.domain);
+        verifier.add(this.publicKey, cipherTexts.get(1), proof, this.domain);
+
+        assertEquals(Arrays.asList(3, 17, 20), verifier.verify());
+        assertFalse(verifier.verifyAll());
+    }
+
+    public void testRejectsElementsOutsideOfGroup() {
+        CipherText cipherText = this.encryption.encrypt(this.publicKey, ModInteger.ONE);
+        MembershipProof proof = MembershipProof.commit(this.publicKey, ModInteger.ONE, cipherText, this.domain);
+
+        // negating a commitment moves it out of the group of quadratic residues
+        List<ModInteger> yResponses = new ArrayList<>(proof.getyResponses());
+        yResponses.set(0, yResponses.get(0).negate());
+        MembershipProof tampered = new MembershipProof(proof.getP(), proof.getQ(), yResponses, proof.getzResponses(), proof.getsResponses(), proof.getcResponses());
+
+        BatchVerifier verifier = new BatchVerifier();
+        verifier.add(this.publicKey, cipherText, tampered, this.domain);
+
+        assertEquals(Arrays.asList(0), verifier.verify());
+    }
+
+    public void testSchnorrGroup() {
+        DSAParametersGenerator generator = new DSAParametersGenerator();
+        generator.init(512, 20, new SecureRandom());
+        DSAParameters parameters = generator.generateParameters();
+
+        BigInteger p = parameters.getP();
+        BigInteger q = parameters.getQ();
+        BigInteger x = new BigInteger(q.bitLength() - 1, new SecureRandom());
+        PublicKey schnorrKey = new PublicKey(p, q, parameters.getG(), parameters.getG().modPow(x, p));
+
+        // a non-residue, and a residue of order other than q
+        BigInteger nonResidue = BigInteger.valueOf(2);
+        while (new ModInteger(nonResidue, p).jacobi() != - 1) {
+            nonResidue = nonResidue.add(BigInteger.ONE);
+        }
+        BigInteger residue = BigInteger.ONE;
+        while (residue.equals(BigInteger.ONE)) {
+            residue = new BigInteger(p.bitLength() - 1, new SecureRandom()).modPow(q.shiftLeft(1), p);
+        }
+
+        BatchVerifier verifier = new BatchVerifier();
+        for (int i = 0; i < 10; i++) {
+            CipherText cipherText = this.encryption.encrypt(schnorrKey, ModInteger.ONE);
+            MembershipProof proof;
+
+            if (i == 2) {
+                proof = commitWithFactor(schnorrKey, cipherText, nonResidue);
+            } else if (i == 7) {
+                proof = commitWithFactor(schnorrKey, cipherText, residue);
+            } else if (i == 5) {
+                proof = commitWithFactor(schnorrKey, cipherText, BigInteger.ONE);
+            } else {
+                proof = MembershipProof.commit(schnorrKey, ModInteger.ONE, cipherText, this.domain);
+            }
+
+            verifier.add(schnorrKey, cipherText, proof, this.domain);
+        }
+
+        assertEquals(Arrays.asList(2, 7), verifier.verify());
+    }
+
+    /**
+     * Create a proof that the ciphertext encrypts 1 out of {0, 1}, whose simulated commitment y_0
+     * is multiplied by the given factor before the challenge is derived. Hence, the challenge matches,
+     * while the commitment is outside of the group of order q unless the factor is 1.
+     */
+    private static MembershipProof commitWithFactor(PublicKey publicKey, CipherText cipherText, BigInteger factor) {
+        BigInteger p = publicKey.getP().asBigInteger();
+        ModInteger q = publicKey.getQ();
+
+        // simulate the branch of 0: y_0 = g^s_0 * G^(-c_0) * factor, z_0 = h^s_0 * H^(-c_0)
+        ModInteger s0 = ModInteger.random(q);
+        ModInteger c0 = ModInteger.random(q);
+        ModInteger y0 = new ModInteger(publicKey.getG().pow(s0).multiply(cipherText.getG().pow(c0.negate())).asBigInteger().multiply(factor), p);
+        ModInteger z0 = publicKey.getH().pow(s0).multiply(cipherText.getH().pow(c0.negate()));
+
+        // commit to the branch of 1
+        ModInteger t = ModInteger.random(q);
+        ModInteger y1 = publicKey.getG().pow(t);
+        ModInteger z1 = publicKey.getH().pow(t);
+
+        ModInteger challenge = publicKey.transcript()
+            .append(cipherText.getG())
+            .append(cipherText.getH())
+            .append(y0)
+            .append(z0)
+            .append(y1)
+            .append(z1)
+            .challenge(q);
+
+        ModInteger c1 = challenge.subtract(c0);
+        ModInteger s1 = c1.multiply(cipherText.getR()).add(t);
+
+        return new MembershipProof(publicKey.getP(), q, Arrays.asList(y0, y1), Arrays.asList(z0, z1), Arrays.asList(s0, s1), Arrays.asList(c0, c1), MembershipProof.VERSION_TRANSCRIPT);
+    }
+}
@@ -0,0 +1,121 @@
+package org.provotum.security.test.elgamal.proof.noninteractive;
+
+import junit.framework.TestCase;
+import org.bouncycastle.crypto.generators.ElGamalParametersGenerator;
+import org.bouncycastle.crypto.params.ElGamalParameters;
+import org.bouncycastle.jce.interfaces.ElGamalPublicKey;
+import org.bouncycastle.jce.spec.ElGamalParameterSpec;
+import org.provotum.security.arithmetic.ModInteger;
+import org.provotum.security.elgamal.PublicKey;
+import org.provotum.security.elgamal.additive.CipherText;
+import org.provotum.security.elgamal.additive.Encryption;
+import org.provotum.security.elgamal.proof.noninteractive.BinaryMembershipProof;
+import org.provotum.security.elgamal.proof.noninteractive.MembershipProof;
+import org.provotum.security.elgamal.proof.noninteractive.ProofDomain;
+import org.provotum.security.serializer.MembershipProofSerializer;
+
+import java.security.InvalidAlgorithmParameterException;
+import java.security.KeyPair;
+import java.security.KeyPairGeneratorSpi;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.List;
+
+public class BinaryMembershipProofTest extends TestCase {
+
+    private PublicKey publicKey;
+    private List<ModInteger> domain;
+    private Encryption encryption;
+
+    public void setUp() throws InvalidAlgorithmParameterException {
+        ElGamalParametersGenerator generator = new ElGamalParametersGenerator();
+        generator.init(160, 20, new SecureRandom());
+        ElGamalParameters parameters = generator.generateParameters();
+
+        ElGamalParameterSpec elGamalParameterSpec = new ElGamalParameterSpec(parameters.getP(), parameters.getG());
+
+        KeyPairGeneratorSpi keyPairGeneratorSpi = new org.bouncycastle.jcajce.provider.asymmetric.elgamal.KeyPairGeneratorSpi();
+        keyPairGeneratorSpi.initialize(elGamalParameterSpec, new SecureRandom());
+
+        KeyPair keyPair = keyPairGeneratorSpi.generateKeyPair();
+
+        this.publicKey = new PublicKey((ElGamalPublicKey) keyPair.getPublic());
+        this.encryption = new Encryption();
+
+        this.domain = new ArrayList<>();
+        this.domain.add(ModInteger.ZERO);
+        this.domain.add(ModInteger.ONE);
+    }
+
+    public void testProof() {
+        for (ModInteger message : this.domain) {
+            CipherText cipherText = this.encryption.encrypt(this.publicKey, message);
+
+            BinaryMembershipProof proof = BinaryMembershipProof.commit(this.publicKey, message, cipherText);
+
+            assertTrue(proof.verify(this.publicKey, cipherText));
+            assertTrue(proof.verify(this.publicKey, cipherText, this.domain));
+
+            // a binary proof is an ordinary membership proof over {0, 1}
+            MembershipProof generic = new MembershipProof(proof.getP(), proof.getQ(), proof.getyResponses(), proof.getzResponses(), proof.getsResponses(), proof.getcResponses(), MembershipProof.VERSION_TRANSCRIPT);
+            assertTrue(generic.verify(this.publicKey, cipherText, this.domain));
+        }
+    }
+
+    public void testGenericProof() {
+        for (ModInteger message : this.domain) {
+            CipherText cipherText = this.encryption.encrypt(this.publicKey, message);
+
+            MembershipProof generic = MembershipProof.commit(this.publicKey, message, cipherText, this.domain);
+
+            assertTrue(new BinaryMembershipProof(generic).verify(this.publicKey, cipherText));
+        }
+    }
+
+    public void testFailedProof() {
+        CipherText cipherText = this.encryption.encrypt(this.publicKey, ModInteger.ONE);
+        CipherText otherCipherText = this.encryption.encrypt(this.publicKey, ModInteger.ONE);
+
+        // wrong message -> verifying the proof should fail
+        BinaryMembershipProof proof = BinaryMembershipProof.commit(this.publicKey, ModInteger.ZERO, cipherText);
+        assertFalse(proof.verify(this.publicKey, cipherText));
+
+        // proof of another ciphertext
+        proof = BinaryMembershipProof.commit(this.publicKey, ModInteger.ONE, cipherText);
+        assertFalse(proof.verify(this.publicKey, otherCipherText));
+
+        // the domain {0} does not hold the encrypted value
+        List<ModInteger> zero = new ArrayList<>();
+        zero.add(ModInteger.ZERO);
+        assertFalse(proof.verify(this.publicKey, cipherText, zero));
+    }
+
+    public void testOutOfBound() {
+        CipherText cipherText = this.encryption.encrypt(this.publicKey, new ModInteger("2"));
+
+        try {
+            BinaryMembershipProof.commit(this.publicKey, new ModInteger("2"), cipherText);
+            fail("Expected an IllegalArgumentException, as 2 is neither 0 nor 1.");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    public void testSerialization() {
+        CipherText cipherText = this.encryption.encrypt(this.publicKey, ModInteger.ONE);
+        BinaryMembershipProof proof = BinaryMembershipProof.commit(this.publicKey, ModInteger.ONE, cipherText);
+
+        MembershipProof deserializedProof = MembershipProofSerializer.fromString(MembershipProofSerializer.serialize(proof));
+
+        assertTrue(deserializedProof.verify(this.publicKey, cipherText, this.domain));
+        assertTrue(new BinaryMembershipProof(deserializedProof).verify(this.publicKey, cipherText));
+    }
+
+    public void testShortChallengeProof() {
+        CipherText cipherText = this.encryption.encrypt(this.publicKey, ModInteger.ZERO);
+        MembershipProof generic = MembershipProof.commit(this.publicKey, ModInteger.ZERO, cipherText, new ProofDomain(this.publicKey, this.domain), MembershipProof.VERSION_SHORT_CHALLENGE);
+
+        // proofs of other versions are verified using the generic verification
+        assertTrue(new BinaryMembershipProof(generic).verify(this.publicKey, cipherText));
+    }
+}
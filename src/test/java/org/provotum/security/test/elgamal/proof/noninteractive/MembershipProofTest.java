@@ -9,7 +9,10 @@ import org.provotum.security.arithmetic.ModInteger;
 import org.provotum.security.elgamal.PublicKey;
 import org.provotum.security.elgamal.additive.CipherText;
 import org.provotum.security.elgamal.additive.Encryption;
+import org.provotum.security.elgamal.proof.noninteractive.BatchVerifier;
 import org.provotum.security.elgamal.proof.noninteractive.MembershipProof;
+import org.provotum.security.elgamal.proof.noninteractive.ProofDomain;
+import org.provotum.security.serializer.MembershipProofSerializer;
 
 import java.security.InvalidAlgorithmParameterException;
 import java.security.KeyPair;
@@ -171,4 +174,102 @@ public class MembershipProofTest extends TestCase {
         assertTrue(proof.verify(this.publicKey, sum, newDomain));
     }
 
+    public void testProofOfSumWithinDomain() {
+        Encryption enc = new Encryption();
+
+        ModInteger message1 = new ModInteger("1", this.publicKey.getP());
+        CipherText cipherText1 = enc.encrypt(this.publicKey, message1);
+        MembershipProof proof1 = MembershipProof.commit(this.publicKey, ModInteger.ONE, cipherText1, this.domain);
+
+        ModInteger message2 = new ModInteger("0", this.publicKey.getP());
+        CipherText cipherText2 = enc.encrypt(this.publicKey, message2);
+        MembershipProof proof2 = MembershipProof.commit(this.publicKey, ModInteger.ZERO, cipherText2, this.domain);
+
+        CipherText sum = cipherText1.operate(cipherText2);
+
+        // the sum may be any of 0, 1 or 2, requiring simulated proofs for 0 and 2
+        List<ModInteger> newDomain = new ArrayList<>();
+        newDomain.add(ModInteger.ZERO);
+        newDomain.add(ModInteger.ONE);
+        newDomain.add(ModInteger.TWO);
+
+        MembershipProof proof = MembershipProof.commitToSum(
+            this.publicKey,
+            cipherText1,
+            proof1,
+            cipherText2,
+            proof2,
+            newDomain
+        );
+
+        assertTrue(proof.verify(this.publicKey, sum, newDomain));
+    }
+
+    public void testShortChallengeProof() {
+        Encryption enc = new Encryption();
+        ProofDomain proofDomain = new ProofDomain(this.publicKey, this.domain);
+        BatchVerifier verifier = new BatchVerifier();
+
+        for (ModInteger message : this.domain) {
+            CipherText cipherText = enc.encrypt(this.publicKey, message);
+
+            MembershipProof proof = MembershipProof.commit(this.publicKey, message, cipherText, proofDomain, MembershipProof.VERSION_SHORT_CHALLENGE);
+
+            assertEquals(MembershipProof.VERSION_SHORT_CHALLENGE, proof.getVersion());
+            for (ModInteger c : proof.getcResponses()) {
+                assertTrue(c.asBigInteger().bitLength() <= MembershipProof.SHORT_CHALLENGE_BITS);
+            }
+
+            assertTrue(proof.verify(this.publicKey, cipherText, proofDomain));
+            verifier.add(this.publicKey, cipherText, proof, proofDomain);
+
+            // the version is retained by the serializer
+            MembershipProof deserializedProof = MembershipProofSerializer.fromString(MembershipProofSerializer.serialize(proof));
+            assertEquals(MembershipProof.VERSION_SHORT_CHALLENGE, deserializedProof.getVersion());
+            assertTrue(deserializedProof.verify(this.publicKey, cipherText, proofDomain));
+
+            // the same values do not form a valid proof with full-width challenges
+            MembershipProof fullProof = new MembershipProof(proof.getP(), proof.getQ(), proof.getyResponses(), proof.getzResponses(), proof.getsResponses(), proof.getcResponses(), MembershipProof.VERSION_TRANSCRIPT);
+            assertFalse(fullProof.verify(this.publicKey, cipherText, proofDomain));
+        }
+
+        assertTrue(verifier.verifyAll());
+
+        // a message outside of the domain cannot be proven
+        ModInteger message = new ModInteger("3", this.publicKey.getP());
+        CipherText cipherText = enc.encrypt(this.publicKey, message);
+
+        MembershipProof proof = MembershipProof.commit(this.publicKey, message, cipherText, proofDomain, MembershipProof.VERSION_SHORT_CHALLENGE);
+        assertFalse(proof.verify(this.publicKey, cipherText, proofDomain));
+    }
+
+    public void testProofOfSumAll() {
+        Encryption enc = new Encryption();
+
+        // a ballot with exactly one selection among four candidates
+        List<CipherText> ballot = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            ballot.add(enc.encrypt(this.publicKey, (i == 2) ? ModInteger.ONE : ModInteger.ZERO));
+        }
+
+        ProofDomain exactlyOne = new ProofDomain(this.publicKey, this.domain.subList(1, 2));
+        ProofDomain atMostOne = new ProofDomain(this.publicKey, this.domain);
+
+        MembershipProof proof = MembershipProof.commitToSumAll(this.publicKey, ballot, exactlyOne);
+        assertTrue(proof.verifySum(this.publicKey, ballot, exactlyOne));
+        assertTrue(MembershipProof.commitToSumAll(this.publicKey, ballot, this.domain).verifySum(this.publicKey, ballot, atMostOne));
+
+        // the proof does not hold for another ballot
+        List<CipherText> otherBallot = new ArrayList<>(ballot);
+        otherBallot.set(0, enc.encrypt(this.publicKey, ModInteger.ONE));
+        assertFalse(proof.verifySum(this.publicKey, otherBallot, exactlyOne));
+
+        // a ballot with two selections cannot be proven
+        try {
+            MembershipProof.commitToSumAll(this.publicKey, otherBallot, exactlyOne);
+            fail("Expected an IllegalArgumentException, as the sum 2 is not within the domain.");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
 }
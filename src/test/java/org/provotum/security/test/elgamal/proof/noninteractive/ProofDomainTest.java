@@ -0,0 +1,95 @@
+package org.provotum.security.test.elgamal.proof.noninteractive;
+
+import junit.framework.TestCase;
+import org.bouncycastle.crypto.generators.ElGamalParametersGenerator;
+import org.bouncycastle.crypto.params.ElGamalParameters;
+import org.bouncycastle.jce.interfaces.ElGamalPublicKey;
+import org.bouncycastle.jce.spec.ElGamalParameterSpec;
+import org.provotum.security.arithmetic.ModInteger;
+import org.provotum.security.elgamal.PublicKey;
+import org.provotum.security.elgamal.additive.CipherText;
+import org.provotum.security.elgamal.additive.Encryption;
+import org.provotum.security.elgamal.proof.noninteractive.BatchVerifier;
+import org.provotum.security.elgamal.proof.noninteractive.MembershipProof;
+import org.provotum.security.elgamal.proof.noninteractive.ProofDomain;
+
+import java.math.BigInteger;
+import java.security.InvalidAlgorithmParameterException;
+import java.security.KeyPair;
+import java.security.KeyPairGeneratorSpi;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ProofDomainTest extends TestCase {
+
+    private PublicKey publicKey;
+    private ProofDomain domain;
+
+    public void setUp() throws InvalidAlgorithmParameterException {
+        this.publicKey = this.createPublicKey();
+
+        List<ModInteger> values = new ArrayList<>();
+        values.add(ModInteger.ZERO);
+        values.add(ModInteger.ONE);
+        values.add(ModInteger.TWO);
+
+        this.domain = new ProofDomain(this.publicKey, values);
+    }
+
+    public void testPowers() {
+        assertEquals(3, this.domain.size());
+
+        for (int i = 0; i < this.domain.size(); i++) {
+            ModInteger power = this.domain.getPower(i);
+
+            assertEquals(this.publicKey.getG().pow(this.domain.getValue(i)), power);
+            assertEquals(BigInteger.ONE, power.multiply(this.domain.getInversePower(i)).asBigInteger());
+        }
+    }
+
+    public void testProofs() {
+        Encryption enc = new Encryption();
+        BatchVerifier verifier = new BatchVerifier();
+
+        for (int i = 0; i < this.domain.size(); i++) {
+            ModInteger message = this.domain.getValue(i);
+            CipherText cipherText = enc.encrypt(this.publicKey, new ModInteger(message, this.publicKey.getP()));
+            MembershipProof proof = MembershipProof.commit(this.publicKey, message, cipherText, this.domain);
+
+            assertTrue(proof.verify(this.publicKey, cipherText, this.domain));
+            assertTrue(proof.verify(this.publicKey, cipherText, this.domain.getValues()));
+
+            verifier.add(this.publicKey, cipherText, proof, this.domain);
+        }
+
+        assertTrue(verifier.verifyAll());
+    }
+
+    public void testOtherPublicKey() throws InvalidAlgorithmParameterException {
+        PublicKey otherKey = this.createPublicKey();
+        CipherText cipherText = new Encryption().encrypt(otherKey, new ModInteger(ModInteger.ONE, otherKey.getP()));
+
+        try {
+            MembershipProof.commit(otherKey, ModInteger.ONE, cipherText, this.domain);
+            fail("Expected an IllegalArgumentException for a domain of another public key");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    private PublicKey createPublicKey() throws InvalidAlgorithmParameterException {
+        ElGamalParametersGenerator generator = new ElGamalParametersGenerator();
+        generator.init(160, 20, new SecureRandom());
+        ElGamalParameters parameters = generator.generateParameters();
+
+        ElGamalParameterSpec elGamalParameterSpec = new ElGamalParameterSpec(parameters.getP(), parameters.getG());
+
+        KeyPairGeneratorSpi keyPairGeneratorSpi = new org.bouncycastle.jcajce.provider.asymmetric.elgamal.KeyPairGeneratorSpi();
+        keyPairGeneratorSpi.initialize(elGamalParameterSpec, new SecureRandom());
+
+        KeyPair keyPair = keyPairGeneratorSpi.generateKeyPair();
+
+        return new PublicKey((ElGamalPublicKey) keyPair.getPublic());
+    }
+}
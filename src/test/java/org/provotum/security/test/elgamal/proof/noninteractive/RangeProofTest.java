@@ -0,0 +1,157 @@
+package org.provotum.security.test.elgamal.proof.noninteractive;
+
+import junit.framework.TestCase;
+import org.bouncycastle.crypto.generators.ElGamalParametersGenerator;
+import org.bouncycastle.crypto.params.ElGamalParameters;
+import org.bouncycastle.jce.interfaces.ElGamalPublicKey;
+import org.bouncycastle.jce.spec.ElGamalParameterSpec;
+import org.provotum.security.api.IMembershipProof;
+import org.provotum.security.arithmetic.ModInteger;
+import org.provotum.security.elgamal.PublicKey;
+import org.provotum.security.elgamal.additive.CipherText;
+import org.provotum.security.elgamal.additive.Encryption;
+import org.provotum.security.elgamal.proof.noninteractive.BinaryMembershipProof;
+import org.provotum.security.elgamal.proof.noninteractive.MembershipProof;
+import org.provotum.security.elgamal.proof.noninteractive.MembershipProofFactory;
+import org.provotum.security.elgamal.proof.noninteractive.RangeProof;
+
+import java.math.BigInteger;
+import java.security.InvalidAlgorithmParameterException;
+import java.security.KeyPair;
+import java.security.KeyPairGeneratorSpi;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class RangeProofTest extends TestCase {
+
+    private PublicKey publicKey;
+    private Encryption encryption;
+
+    public void setUp() throws InvalidAlgorithmParameterException {
+        ElGamalParametersGenerator generator = new ElGamalParametersGenerator();
+        generator.init(160, 20, new SecureRandom());
+        ElGamalParameters parameters = generator.generateParameters();
+
+        ElGamalParameterSpec elGamalParameterSpec = new ElGamalParameterSpec(parameters.getP(), parameters.getG());
+
+        KeyPairGeneratorSpi keyPairGeneratorSpi = new org.bouncycastle.jcajce.provider.asymmetric.elgamal.KeyPairGeneratorSpi();
+        keyPairGeneratorSpi.initialize(elGamalParameterSpec, new SecureRandom());
+
+        KeyPair keyPair = keyPairGeneratorSpi.generateKeyPair();
+
+        this.publicKey = new PublicKey((ElGamalPublicKey) keyPair.getPublic());
+        this.encryption = new Encryption();
+    }
+
+    public void testProof() {
+        BigInteger lower = BigInteger.ZERO;
+        BigInteger upper = BigInteger.valueOf(100);
+
+        for (long value : new long[]{0, 1, 37, 63, 64, 99, 100}) {
+            ModInteger message = new ModInteger(BigInteger.valueOf(value));
+            CipherText cipherText = this.encryption.encrypt(this.publicKey, message);
+
+            RangeProof proof = RangeProof.commit(this.publicKey, message, cipherText, lower, upper);
+
+            // one bit per bit of 100
+            assertEquals(7, proof.getBitCipherTexts().size());
+            assertTrue(proof.verify(this.publicKey, cipherText, lower, upper));
+
+            // the proof is bound to the interval
+            assertFalse(proof.verify(this.publicKey, cipherText, lower, BigInteger.valueOf(101)));
+            assertFalse(proof.verify(this.publicKey, cipherText, BigInteger.ONE, upper));
+        }
+    }
+
+    public void testShiftedInterval() {
+        BigInteger lower = BigInteger.valueOf(5);
+        BigInteger upper = BigInteger.valueOf(17);
+
+        for (long value = 5; value <= 17; value++) {
+            ModInteger message = new ModInteger(BigInteger.valueOf(value));
+            CipherText cipherText = this.encryption.encrypt(this.publicKey, message);
+
+            RangeProof proof = RangeProof.commit(this.publicKey, message, cipherText, lower, upper);
+
+            assertTrue(proof.verify(this.publicKey, cipherText, range(5, 17)));
+            assertFalse(proof.verify(this.publicKey, cipherText, range(6, 17)));
+        }
+    }
+
+    public void testFailedProof() {
+        BigInteger lower = BigInteger.ZERO;
+        BigInteger upper = BigInteger.valueOf(100);
+
+        CipherText cipherText = this.encryption.encrypt(this.publicKey, new ModInteger("42"));
+        CipherText otherCipherText = this.encryption.encrypt(this.publicKey, new ModInteger("42"));
+
+        // wrong message -> verifying the proof should fail
+        RangeProof proof = RangeProof.commit(this.publicKey, new ModInteger("43"), cipherText, lower, upper);
+        assertFalse(proof.verify(this.publicKey, cipherText, lower, upper));
+
+        // proof of another ciphertext
+        proof = RangeProof.commit(this.publicKey, new ModInteger("42"), cipherText, lower, upper);
+        assertFalse(proof.verify(this.publicKey, otherCipherText, lower, upper));
+
+        // reordered bits do not recompose the ciphertext
+        List<CipherText> bitCipherTexts = new ArrayList<>(proof.getBitCipherTexts());
+        List<BinaryMembershipProof> bitProofs = new ArrayList<>(proof.getBitProofs());
+        Collections.swap(bitCipherTexts, 0, 1);
+        Collections.swap(bitProofs, 0, 1);
+        assertFalse(new RangeProof(bitCipherTexts, bitProofs).verify(this.publicKey, cipherText, lower, upper));
+
+        // the domain is not a range
+        List<ModInteger> domain = range(0, 100);
+        Collections.swap(domain, 0, 1);
+        assertFalse(proof.verify(this.publicKey, cipherText, domain));
+    }
+
+    public void testOutOfBound() {
+        CipherText cipherText = this.encryption.encrypt(this.publicKey, new ModInteger("101"));
+
+        try {
+            RangeProof.commit(this.publicKey, new ModInteger("101"), cipherText, BigInteger.ZERO, BigInteger.valueOf(100));
+            fail("Expected an IllegalArgumentException, as 101 is not within [0, 100].");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    public void testFactory() {
+        ModInteger message = ModInteger.ONE;
+        CipherText cipherText = this.encryption.encrypt(this.publicKey, message);
+
+        List<ModInteger> score = range(0, 100);
+        IMembershipProof<CipherText> proof = MembershipProofFactory.commit(this.publicKey, message, cipherText, score);
+        assertTrue(proof instanceof RangeProof);
+        assertTrue(proof.verify(this.publicKey, cipherText, score));
+
+        List<ModInteger> binary = range(0, 1);
+        proof = MembershipProofFactory.commit(this.publicKey, message, cipherText, binary);
+        assertTrue(proof instanceof BinaryMembershipProof);
+        assertTrue(proof.verify(this.publicKey, cipherText, binary));
+
+        List<ModInteger> small = range(0, 3);
+        proof = MembershipProofFactory.commit(this.publicKey, message, cipherText, small);
+        assertEquals(MembershipProof.class, proof.getClass());
+        assertTrue(proof.verify(this.publicKey, cipherText, small));
+
+        List<ModInteger> sparse = new ArrayList<>();
+        sparse.add(ModInteger.ONE);
+        sparse.add(new ModInteger("5"));
+        proof = MembershipProofFactory.commit(this.publicKey, message, cipherText, sparse);
+        assertEquals(MembershipProof.class, proof.getClass());
+        assertTrue(proof.verify(this.publicKey, cipherText, sparse));
+    }
+
+    private static List<ModInteger> range(long lower, long upper) {
+        List<ModInteger> domain = new ArrayList<>();
+        for (long value = lower; value <= upper; value++) {
+            domain.add(new ModInteger(BigInteger.valueOf(value)));
+        }
+
+        return domain;
+    }
+}
@@ -18,6 +18,11 @@ public class KeyPairSerializerTest extends TestCase {
 
     private static final int EL_GAMAL_KEY_LENGTH = 160;
 
+    /**
+     * A key length at which q is longer than {@link PublicKey#MIN_RANDOMNESS_BITS}.
+     */
+    private static final int LONG_EL_GAMAL_KEY_LENGTH = 320;
+
     private PublicKey publicKey;
     private PrivateKey privateKey;
 
@@ -25,8 +30,18 @@ public class KeyPairSerializerTest extends TestCase {
     public void setUp() throws Exception {
         super.setUp();
 
+        KeyPair keyPair = generateKeyPair(EL_GAMAL_KEY_LENGTH);
+
+        ElGamalPublicKey pubKey = (ElGamalPublicKey) keyPair.getPublic();
+        ElGamalPrivateKey privKey = (ElGamalPrivateKey) keyPair.getPrivate();
+
+        this.publicKey = new PublicKey(pubKey);
+        this.privateKey = new PrivateKey(privKey);
+    }
+
+    private static KeyPair generateKeyPair(int keyLength) throws Exception {
         ElGamalParametersGenerator generator = new ElGamalParametersGenerator();
-        generator.init(EL_GAMAL_KEY_LENGTH, 20, new SecureRandom());
+        generator.init(keyLength, 20, new SecureRandom());
         ElGamalParameters parameters = generator.generateParameters();
 
         ElGamalParameterSpec elGamalParameterSpec = new ElGamalParameterSpec(parameters.getP(), parameters.getG());
@@ -34,13 +49,7 @@ public class KeyPairSerializerTest extends TestCase {
         KeyPairGeneratorSpi keyPairGeneratorSpi = new org.bouncycastle.jcajce.provider.asymmetric.elgamal.KeyPairGeneratorSpi();
         keyPairGeneratorSpi.initialize(elGamalParameterSpec, new SecureRandom());
 
-        KeyPair keyPair = keyPairGeneratorSpi.generateKeyPair();
-
-        ElGamalPublicKey pubKey = (ElGamalPublicKey) keyPair.getPublic();
-        ElGamalPrivateKey privKey = (ElGamalPrivateKey) keyPair.getPrivate();
-
-        this.publicKey = new PublicKey(pubKey);
-        this.privateKey = new PrivateKey(privKey);
+        return keyPairGeneratorSpi.generateKeyPair();
     }
 
     public void testPublicKeySerialization() {
@@ -50,6 +59,30 @@ public class KeyPairSerializerTest extends TestCase {
         assertEquals(this.publicKey, restoredPublicKey);
     }
 
+    public void testPublicKeyRandomnessSerialization() throws Exception {
+        PublicKey longKey = new PublicKey((ElGamalPublicKey) generateKeyPair(LONG_EL_GAMAL_KEY_LENGTH).getPublic());
+        PublicKey shortKey = longKey.withRandomnessBits(PublicKey.MIN_RANDOMNESS_BITS);
+
+        String publicKey = KeyPairSerializer.serializePublicKey(shortKey);
+        PublicKey restoredPublicKey = KeyPairSerializer.publicKeyFromString(publicKey);
+
+        assertEquals(shortKey, restoredPublicKey);
+        assertEquals(PublicKey.MIN_RANDOMNESS_BITS, restoredPublicKey.getRandomnessBits());
+        assertFalse(longKey.equals(restoredPublicKey));
+
+        // keys of the default profile are written as before
+        assertFalse(KeyPairSerializer.serializePublicKey(longKey).contains("R"));
+
+        // randomness below the minimal length is rejected when parsing
+        String tooShort = publicKey.replace("R" + PublicKey.MIN_RANDOMNESS_BITS, "R64");
+        try {
+            KeyPairSerializer.publicKeyFromString(tooShort);
+            fail("Expected an IllegalArgumentException, as 64 bits of randomness are too short.");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
     public void testPrivateKeySerialization() {
         String privateKey = KeyPairSerializer.serializePrivateKey(this.privateKey);
         PrivateKey restoredPrivateKey = KeyPairSerializer.privateKeyFromString(privateKey);
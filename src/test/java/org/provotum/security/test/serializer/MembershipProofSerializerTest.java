@@ -1,17 +1,28 @@
 package org.provotum.security.test.serializer;
 
 import junit.framework.TestCase;
+import org.bouncycastle.crypto.AsymmetricCipherKeyPair;
+import org.bouncycastle.crypto.generators.DSAKeyPairGenerator;
+import org.bouncycastle.crypto.generators.DSAParametersGenerator;
 import org.bouncycastle.crypto.generators.ElGamalParametersGenerator;
+import org.bouncycastle.crypto.params.DSAKeyGenerationParameters;
+import org.bouncycastle.crypto.params.DSAParameters;
+import org.bouncycastle.crypto.params.DSAPrivateKeyParameters;
+import org.bouncycastle.crypto.params.DSAPublicKeyParameters;
 import org.bouncycastle.crypto.params.ElGamalParameters;
 import org.bouncycastle.jce.interfaces.ElGamalPublicKey;
 import org.bouncycastle.jce.spec.ElGamalParameterSpec;
 import org.provotum.security.arithmetic.ModInteger;
+import org.provotum.security.elgamal.PrivateKey;
 import org.provotum.security.elgamal.PublicKey;
 import org.provotum.security.elgamal.additive.CipherText;
 import org.provotum.security.elgamal.additive.Encryption;
 import org.provotum.security.elgamal.proof.noninteractive.MembershipProof;
+import org.provotum.security.serializer.CipherTextSerializer;
+import org.provotum.security.serializer.KeyPairSerializer;
 import org.provotum.security.serializer.MembershipProofSerializer;
 
+import java.math.BigInteger;
 import java.security.InvalidAlgorithmParameterException;
 import java.security.KeyPair;
 import java.security.KeyPairGeneratorSpi;
@@ -21,6 +32,8 @@ import java.util.List;
 
 public class MembershipProofSerializerTest extends TestCase {
 
+    private PublicKey publicKey;
+    private CipherText cipherText;
     private MembershipProof membershipProof;
 
     @Override
@@ -50,6 +63,8 @@ public class MembershipProofSerializerTest extends TestCase {
         domain.add(ModInteger.ZERO);
         domain.add(ModInteger.ONE);
 
+        this.publicKey = publicKey;
+        this.cipherText = cipherText;
         this.membershipProof = MembershipProof.commit(publicKey, message, cipherText, domain);
     }
 
@@ -57,6 +72,9 @@ public class MembershipProofSerializerTest extends TestCase {
         String serializedProof = MembershipProofSerializer.serialize(this.membershipProof);
         MembershipProof deserializedProof = MembershipProofSerializer.fromString(serializedProof);
 
+        // the order q of a safe prime is derived from p
+        assertFalse(serializedProof.contains("Q"));
+
         assertEquals(this.membershipProof.getP().getValue(), deserializedProof.getP().getValue());
         assertEquals(this.membershipProof.getP().getModulus(), deserializedProof.getP().getModulus());
         assertEquals(this.membershipProof.getQ().getValue(), deserializedProof.getQ().getValue());
@@ -66,5 +84,87 @@ public class MembershipProofSerializerTest extends TestCase {
         assertEquals(this.membershipProof.getsResponses(), deserializedProof.getsResponses());
         assertEquals(this.membershipProof.getyResponses(), deserializedProof.getyResponses());
         assertEquals(this.membershipProof.getzResponses(), deserializedProof.getzResponses());
+        assertEquals(MembershipProof.VERSION_TRANSCRIPT, deserializedProof.getVersion());
+    }
+
+    public void testLegacySerialization() {
+        // a proof for the plaintext 1 within the domain [0, 1], created before challenges were derived from a transcript
+        PublicKey publicKey = KeyPairSerializer.publicKeyFromString("P1378624586603960353308672404770430036836916260163Q689312293301980176654336202385215018418458130081G696511593802276459094711452414258020454133955423H1204685507747904816202738995497562359575924716076");
+        CipherText cipherText = CipherTextSerializer.fromString("G29iwdcf8iw1agommja76io0zy46qw7qMs7hgih1vwclogmj4k6wjc2i08i840ubH8forho11inedxwttjp5v5eawjuxqqhcMs7hgih1vwclogmj4k6wjc2i08i840ub");
+        String serializedProof = "Ps7hgih1vwclogmj4k6wjc2i08i840ubY5rmjuvparxflecuq42qzhv57n7192a4Yor5on9mrx813aia978sgy9ae4w21lz0Zj1uozjagzduq7u5brd6wnitakp310ivZqpa7qsdaanxgk6xfaw5djpcfhrbpuixSrnwbvuapdukg4e52b4smttjwsajjdwS4gyys52v2kt1xr6zaxudej3906hrspC4dcvi4p6coc2w2x38523vyi1aed0iyhC1w1yoa5y8ksthrt2xco07xypjznl7hm";
+
+        List<ModInteger> domain = new ArrayList<>();
+        domain.add(ModInteger.ZERO);
+        domain.add(ModInteger.ONE);
+
+        MembershipProof proof = MembershipProofSerializer.fromString(serializedProof);
+
+        assertEquals(MembershipProof.VERSION_STRING_HASH, proof.getVersion());
+        assertTrue(proof.verify(publicKey, cipherText, domain));
+        assertEquals(serializedProof, MembershipProofSerializer.serialize(proof));
+
+        // the same values do not form a valid proof if interpreted as a newer version
+        MembershipProof transcriptProof = new MembershipProof(proof.getP(), proof.getQ(), proof.getyResponses(), proof.getzResponses(), proof.getsResponses(), proof.getcResponses(), MembershipProof.VERSION_TRANSCRIPT);
+        assertFalse(transcriptProof.verify(publicKey, cipherText, domain));
+    }
+
+    public void testSchnorrGroupSerialization() {
+        // a prime p of 512 bits with a subgroup of prime order q of 160 bits
+        DSAParametersGenerator generator = new DSAParametersGenerator();
+        generator.init(512, 20, new SecureRandom());
+        DSAParameters parameters = generator.generateParameters();
+
+        DSAKeyPairGenerator keyPairGenerator = new DSAKeyPairGenerator();
+        keyPairGenerator.init(new DSAKeyGenerationParameters(new SecureRandom(), parameters));
+        AsymmetricCipherKeyPair keyPair = keyPairGenerator.generateKeyPair();
+
+        PublicKey publicKey = new PublicKey((DSAPublicKeyParameters) keyPair.getPublic());
+        PrivateKey privateKey = new PrivateKey((DSAPrivateKeyParameters) keyPair.getPrivate());
+
+        assertEquals(parameters.getQ(), publicKey.getQ().asBigInteger());
+
+        ModInteger message = new ModInteger("1", publicKey.getP());
+
+        Encryption enc = new Encryption();
+        CipherText cipherText = enc.encrypt(publicKey, message);
+
+        assertEquals(ModInteger.ONE.asBigInteger(), enc.decrypt(privateKey, cipherText).asBigInteger());
+
+        List<ModInteger> domain = new ArrayList<>();
+        domain.add(ModInteger.ZERO);
+        domain.add(ModInteger.ONE);
+
+        MembershipProof proof = MembershipProof.commit(publicKey, message, cipherText, domain);
+        String serializedProof = MembershipProofSerializer.serialize(proof);
+        MembershipProof deserializedProof = MembershipProofSerializer.fromString(serializedProof);
+
+        // the order q cannot be derived from p and is written explicitly
+        assertTrue(serializedProof.contains("Q"));
+        assertEquals(proof.getQ().asBigInteger(), deserializedProof.getQ().asBigInteger());
+        assertTrue(deserializedProof.verify(publicKey, cipherText, domain));
+
+        // the key serializer keeps the order q as well
+        PublicKey deserializedKey = KeyPairSerializer.publicKeyFromString(KeyPairSerializer.serializePublicKey(publicKey));
+        assertEquals(publicKey, deserializedKey);
+    }
+
+    public void testTamperedOrder() {
+        List<ModInteger> domain = new ArrayList<>();
+        domain.add(ModInteger.ZERO);
+        domain.add(ModInteger.ONE);
+
+        // a proof with an order q of 1 would reduce all challenges to 0
+        String p = this.publicKey.getP().asBigInteger().toString(36);
+        CipherText cipherText = new Encryption().encrypt(this.publicKey, new ModInteger("1000"));
+
+        MembershipProof forgedProof = MembershipProofSerializer.fromString("V2P" + p + "Q1Y1Y1Z1Z1S5S7C0C0");
+        assertFalse(forgedProof.verify(this.publicKey, cipherText, domain));
+
+        // a valid proof is rejected if its order differs from the one of the public key
+        String serializedProof = MembershipProofSerializer.serialize(this.membershipProof);
+        String tamperedProof = serializedProof.replaceFirst("Y", "Q" + this.publicKey.getQ().asBigInteger().add(BigInteger.ONE).toString(36) + "Y");
+
+        assertTrue(MembershipProofSerializer.fromString(serializedProof).verify(this.publicKey, this.cipherText, domain));
+        assertFalse(MembershipProofSerializer.fromString(tamperedProof).verify(this.publicKey, this.cipherText, domain));
     }
 }